@@ -0,0 +1,505 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Closed-loop HTTP load driver for the EMS web application.
+ *
+ * Runs as a single source file on Java 17+ (no build step). Two workloads:
+ *
+ *   java load-test/LoadTest.java --paths /employees,/dashboard
+ *       each path in turn, every worker requesting only that path
+ *
+ *   java load-test/LoadTest.java --workload mixed --mix list=40,search=20,view=20,edit=5,dashboard=15
+ *       every worker picks list, search, view, edit or dashboard per request by weight
+ *
+ * The driver logs in once and shares the session cookie across all workers. With
+ * {@code --seed N} it first creates departments and imports N employees through
+ * the CSV import endpoint; the app's "seed" profile is the faster way to load
+ * large data sets. The mixed workload samples up to {@code --sample} employees
+ * from the JSONL export, then draws ids, departments and search terms from them.
+ * Edits re-submit a sampled employee with a new contact number.
+ *
+ * Each run is {@code --concurrency} workers for {@code --warmup} seconds
+ * (discarded) and then {@code --duration} seconds (measured). The driver prints
+ * throughput and p50/p90/p99/max per path or operation. The mixed workload also
+ * prints a latency histogram per operation. Each row also gets a
+ * {@code RESULT label name req/s p50 p99 errors} line for scripts.
+ */
+public class LoadTest {
+
+    private static final int DEPARTMENTS = 7;
+    private static final long[] HISTOGRAM_BOUNDS_MS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000};
+    private static final int HISTOGRAM_WIDTH = 40;
+    private static final Pattern DEPARTMENT_OPTION = Pattern.compile("<option value=\"(\\d+)\">([^<]*)</option>");
+    private static final Pattern EXPORT_ROW = Pattern.compile(
+            "\\{\"empId\":(\\d+),\"name\":\"((?:[^\"\\\\]|\\\\.)*)\",\"department\":\"((?:[^\"\\\\]|\\\\.)*)\","
+                    + "\"designation\":\"((?:[^\"\\\\]|\\\\.)*)\",\"contact\":\"((?:[^\"\\\\]|\\\\.)*)\"}");
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        String baseUrl = options.getOrDefault("base-url", "http://localhost:8080");
+        String label = options.getOrDefault("label", "run");
+        String workload = options.getOrDefault("workload", "paths");
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "200"));
+        int warmupSeconds = Integer.parseInt(options.getOrDefault("warmup", "10"));
+        int durationSeconds = Integer.parseInt(options.getOrDefault("duration", "30"));
+        int seed = Integer.parseInt(options.getOrDefault("seed", "0"));
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .cookieHandler(new CookieManager())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        login(client, baseUrl, options.getOrDefault("user", "admin"), options.getOrDefault("password", "admin123"));
+        if (seed > 0) {
+            seed(client, baseUrl, seed);
+        }
+
+        if (workload.equals("mixed")) {
+            Dataset dataset = Dataset.sample(client, baseUrl, Integer.parseInt(options.getOrDefault("sample", "5000")));
+            List<Operation> operations = mixedOperations(client, baseUrl, dataset,
+                    options.getOrDefault("mix", "list=40,search=20,view=20,edit=5,dashboard=15"));
+            System.out.printf("Mixed workload over %d sampled employees, %d departments, %d search terms%n",
+                    dataset.rows.size(), dataset.departmentIds.size(), dataset.searchTerms.size());
+            run(operations, concurrency, warmupSeconds);
+            List<Result> results = run(operations, concurrency, durationSeconds);
+            printSummary(label, results);
+            for (Result result : results) {
+                printHistogram(result);
+            }
+        } else if (workload.equals("paths")) {
+            List<String> paths = Arrays.asList(options.getOrDefault("paths", "/employees,/dashboard").split(","));
+            List<Result> results = new ArrayList<>();
+            for (String path : paths) {
+                List<Operation> single = List.of(new Operation(path, 1, random -> get(client, baseUrl + path)));
+                run(single, concurrency, warmupSeconds);
+                results.addAll(run(single, concurrency, durationSeconds));
+            }
+            printSummary(label, results);
+        } else {
+            throw new IllegalArgumentException("Unknown workload: " + workload + " (expected paths or mixed)");
+        }
+    }
+
+    private static List<Operation> mixedOperations(HttpClient client, String baseUrl, Dataset dataset, String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split("=");
+            weights.put(parts[0].trim(), Integer.parseInt(parts[1].trim()));
+        }
+        List<Operation> operations = new ArrayList<>();
+        for (Map.Entry<String, Integer> weight : weights.entrySet()) {
+            String name = weight.getKey();
+            Request request;
+            switch (name) {
+                case "list":
+                    request = random -> {
+                        double roll = random.nextDouble();
+                        if (roll < 0.5) {
+                            return get(client, baseUrl + "/employees");
+                        } else if (roll < 0.8) {
+                            return get(client, baseUrl + "/employees?after=" + dataset.randomRow(random).empId);
+                        }
+                        return get(client, baseUrl + "/employees?department=" + encode(dataset.randomRow(random).department));
+                    };
+                    break;
+                case "search":
+                    request = random -> get(client, baseUrl + "/employees?search=" + encode(dataset.randomSearchTerm(random)));
+                    break;
+                case "view":
+                    request = random -> get(client, baseUrl + "/employees/view/" + dataset.randomRow(random).empId);
+                    break;
+                case "edit":
+                    request = random -> {
+                        Row row = dataset.randomRow(random);
+                        if (!get(client, baseUrl + "/employees/edit/" + row.empId)) {
+                            return false;
+                        }
+                        Long deptId = dataset.departmentIds.get(row.department);
+                        String contact = (6 + random.nextInt(4)) + String.format("%09d", random.nextInt(1_000_000_000));
+                        String form = "name=" + encode(row.name) + "&department=" + deptId
+                                + "&designation=" + encode(row.designation) + "&contact=" + contact;
+                        return post(client, baseUrl + "/employees/update/" + row.empId, form) == 302;
+                    };
+                    break;
+                case "dashboard":
+                    request = random -> get(client, baseUrl + "/dashboard");
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown operation in --mix: " + name
+                            + " (expected list, search, view, edit or dashboard)");
+            }
+            operations.add(new Operation(name, weight.getValue(), request));
+        }
+        return operations;
+    }
+
+    private static boolean get(HttpClient client, String url) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(30)).GET().build();
+        return client.send(request, HttpResponse.BodyHandlers.ofByteArray()).statusCode() == 200;
+    }
+
+    private static int post(HttpClient client, String url, String form) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private static void login(HttpClient client, String baseUrl, String user, String password) throws Exception {
+        HttpResponse<Void> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/login"))
+                        .header("Content-Type", "application/x-www-form-urlencoded")
+                        .POST(HttpRequest.BodyPublishers.ofString("username=" + encode(user)
+                                + "&password=" + encode(password)))
+                        .build(),
+                HttpResponse.BodyHandlers.discarding());
+        String location = response.headers().firstValue("Location").orElse("");
+        if (response.statusCode() != 302 || !location.contains("/dashboard")) {
+            throw new IllegalStateException("Login failed: HTTP " + response.statusCode() + " -> " + location);
+        }
+    }
+
+    private static void seed(HttpClient client, String baseUrl, int employees) throws Exception {
+        for (int d = 0; d < DEPARTMENTS; d++) {
+            post(client, baseUrl + "/departments/add", "deptName=Dept" + d);
+        }
+
+        StringBuilder csv = new StringBuilder("name,department,designation,contact\n");
+        for (int i = 0; i < employees; i++) {
+            csv.append("Person ").append(i).append(",Dept").append(i % DEPARTMENTS)
+                    .append(",Engineer L").append(i % 5).append(',').append(9_000_000_000L + i).append('\n');
+        }
+        String boundary = "----ems-load-test-" + System.nanoTime();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.writeBytes(("--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"seed.csv\"\r\n"
+                + "Content-Type: text/csv\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        body.writeBytes(csv.toString().getBytes(StandardCharsets.UTF_8));
+        body.writeBytes(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+
+        long started = System.nanoTime();
+        HttpResponse<Void> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/employees/import"))
+                        .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+                        .build(),
+                HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 302) {
+            throw new IllegalStateException("Seeding failed: HTTP " + response.statusCode());
+        }
+        System.out.printf("Seeded %d employees in %d ms%n", employees, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private static List<Result> run(List<Operation> operations, int concurrency, int seconds) throws InterruptedException {
+        int totalWeight = operations.stream().mapToInt(Operation::weight).sum();
+        AtomicBoolean stopped = new AtomicBoolean();
+        CountDownLatch done = new CountDownLatch(concurrency);
+        List<LatencyLog[]> logs = new ArrayList<>();
+        SplittableRandom seeds = new SplittableRandom(42);
+
+        for (int i = 0; i < concurrency; i++) {
+            LatencyLog[] workerLogs = new LatencyLog[operations.size()];
+            for (int op = 0; op < workerLogs.length; op++) {
+                workerLogs[op] = new LatencyLog();
+            }
+            logs.add(workerLogs);
+            SplittableRandom random = seeds.split();
+            Thread worker = new Thread(() -> {
+                try {
+                    while (!stopped.get()) {
+                        int op = pick(operations, random.nextInt(totalWeight));
+                        long started = System.nanoTime();
+                        try {
+                            if (operations.get(op).request().execute(random)) {
+                                workerLogs[op].record(System.nanoTime() - started);
+                            } else {
+                                workerLogs[op].errors++;
+                            }
+                        } catch (IOException e) {
+                            workerLogs[op].errors++;
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }, "load-" + i);
+            worker.setDaemon(true);
+            worker.start();
+        }
+
+        long started = System.nanoTime();
+        Thread.sleep(seconds * 1000L);
+        stopped.set(true);
+        done.await();
+        double elapsedSeconds = (System.nanoTime() - started) / 1e9;
+
+        List<Result> results = new ArrayList<>();
+        for (int op = 0; op < operations.size(); op++) {
+            List<LatencyLog> opLogs = new ArrayList<>();
+            for (LatencyLog[] workerLogs : logs) {
+                opLogs.add(workerLogs[op]);
+            }
+            results.add(Result.merge(operations.get(op).name(), opLogs, elapsedSeconds));
+        }
+        return results;
+    }
+
+    private static int pick(List<Operation> operations, int roll) {
+        for (int op = 0; op < operations.size(); op++) {
+            roll -= operations.get(op).weight();
+            if (roll < 0) {
+                return op;
+            }
+        }
+        return operations.size() - 1;
+    }
+
+    private static void printSummary(String label, List<Result> results) {
+        System.out.printf("%-10s %-14s %8s %7s %10s %9s %9s %9s %9s%n",
+                "mode", "operation", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        for (Result result : results) {
+            System.out.printf("%-10s %-14s %8d %7d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    label, result.name(), result.requests(), result.errors(), result.throughput(),
+                    result.percentileMillis(50), result.percentileMillis(90),
+                    result.percentileMillis(99), result.percentileMillis(100));
+        }
+        for (Result result : results) {
+            System.out.printf("RESULT %s %s %.1f %.2f %.2f %d%n", label, result.name(), result.throughput(),
+                    result.percentileMillis(50), result.percentileMillis(99), result.errors());
+        }
+    }
+
+    private static void printHistogram(Result result) {
+        long[] counts = new long[HISTOGRAM_BOUNDS_MS.length + 1];
+        int bucket = 0;
+        for (long nanos : result.sortedNanos()) {
+            while (bucket < HISTOGRAM_BOUNDS_MS.length && nanos >= HISTOGRAM_BOUNDS_MS[bucket] * 1_000_000) {
+                bucket++;
+            }
+            counts[bucket]++;
+        }
+        long max = Arrays.stream(counts).max().orElse(0);
+        System.out.printf("%n%s latency (%d requests)%n", result.name(), result.requests());
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                continue;
+            }
+            String range = i == HISTOGRAM_BOUNDS_MS.length
+                    ? ">= " + HISTOGRAM_BOUNDS_MS[i - 1] + " ms"
+                    : "< " + HISTOGRAM_BOUNDS_MS[i] + " ms";
+            int width = (int) Math.max(1, counts[i] * HISTOGRAM_WIDTH / max);
+            System.out.printf("  %-12s %8d %6.2f%% %s%n", range, counts[i], 100.0 * counts[i] / result.requests(),
+                    "#".repeat(width));
+        }
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Expected --option value pairs, got: " + args[i]);
+            }
+            options.put(args[i].substring(2), args[++i]);
+        }
+        return options;
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    @FunctionalInterface
+    private interface Request {
+
+        /**
+         * Sends one logical request and returns whether it succeeded.
+         */
+        boolean execute(SplittableRandom random) throws IOException, InterruptedException;
+    }
+
+    private record Operation(String name, int weight, Request request) {
+    }
+
+    private record Row(long empId, String name, String department, String designation) {
+    }
+
+    /**
+     * A uniform sample of employees (reservoir sampled from the JSONL export) plus
+     * the department name-to-id map from the employee form.
+     */
+    private static final class Dataset {
+
+        private final List<Row> rows = new ArrayList<>();
+        private final Map<String, Long> departmentIds = new HashMap<>();
+        private final List<String> searchTerms = new ArrayList<>();
+
+        static Dataset sample(HttpClient client, String baseUrl, int sampleSize) throws IOException, InterruptedException {
+            Dataset dataset = new Dataset();
+            String form = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/employees/add")).build(),
+                    HttpResponse.BodyHandlers.ofString()).body();
+            Matcher option = DEPARTMENT_OPTION.matcher(form);
+            while (option.find()) {
+                dataset.departmentIds.put(unescapeHtml(option.group(2)), Long.parseLong(option.group(1)));
+            }
+
+            SplittableRandom random = new SplittableRandom(7);
+            long seen = 0;
+            try (Stream<String> lines = client.send(
+                    HttpRequest.newBuilder(URI.create(baseUrl + "/employees/export?format=jsonl")).build(),
+                    HttpResponse.BodyHandlers.ofLines()).body()) {
+                for (String line : (Iterable<String>) lines::iterator) {
+                    Matcher row = EXPORT_ROW.matcher(line);
+                    if (!row.matches()) {
+                        continue;
+                    }
+                    seen++;
+                    int slot = dataset.rows.size() < sampleSize ? dataset.rows.size() : (int) random.nextLong(seen);
+                    if (slot < sampleSize) {
+                        Row sampled = new Row(Long.parseLong(row.group(1)), unescapeJson(row.group(2)),
+                                unescapeJson(row.group(3)), unescapeJson(row.group(4)));
+                        if (slot == dataset.rows.size()) {
+                            dataset.rows.add(sampled);
+                        } else {
+                            dataset.rows.set(slot, sampled);
+                        }
+                    }
+                }
+            }
+            if (dataset.rows.isEmpty()) {
+                throw new IllegalStateException("No employees to drive a mixed workload against; seed some first "
+                        + "(--seed N, or start the app with --spring.profiles.active=seed)");
+            }
+
+            // Search for the words users actually type: name parts and designation words
+            Set<String> terms = new LinkedHashSet<>();
+            for (Row row : dataset.rows) {
+                for (String word : (row.name() + " " + row.designation()).split("\\s+")) {
+                    if (word.length() >= 3) {
+                        terms.add(word.toLowerCase(Locale.ROOT));
+                    }
+                }
+            }
+            dataset.searchTerms.addAll(terms);
+            return dataset;
+        }
+
+        Row randomRow(SplittableRandom random) {
+            return rows.get(random.nextInt(rows.size()));
+        }
+
+        String randomSearchTerm(SplittableRandom random) {
+            return searchTerms.get(random.nextInt(searchTerms.size()));
+        }
+
+        private static String unescapeHtml(String value) {
+            return value.replace("&lt;", "<").replace("&gt;", ">").replace("&quot;", "\"")
+                    .replace("&#39;", "'").replace("&amp;", "&");
+        }
+
+        private static String unescapeJson(String value) {
+            if (value.indexOf('\\') < 0) {
+                return value;
+            }
+            StringBuilder out = new StringBuilder(value.length());
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c != '\\') {
+                    out.append(c);
+                    continue;
+                }
+                char escaped = value.charAt(++i);
+                switch (escaped) {
+                    case 'n' -> out.append('\n');
+                    case 'r' -> out.append('\r');
+                    case 't' -> out.append('\t');
+                    case 'b' -> out.append('\b');
+                    case 'f' -> out.append('\f');
+                    case 'u' -> {
+                        out.append((char) Integer.parseInt(value.substring(i + 1, i + 5), 16));
+                        i += 4;
+                    }
+                    default -> out.append(escaped);
+                }
+            }
+            return out.toString();
+        }
+    }
+
+    /**
+     * Per-worker latency samples, so workers never contend on a shared recorder.
+     */
+    private static final class LatencyLog {
+
+        private long[] nanos = new long[1024];
+        private int count;
+        private long errors;
+
+        void record(long latencyNanos) {
+            if (count == nanos.length) {
+                nanos = Arrays.copyOf(nanos, count * 2);
+            }
+            nanos[count++] = latencyNanos;
+        }
+    }
+
+    private record Result(String name, long[] sortedNanos, long errors, double elapsedSeconds) {
+
+        static Result merge(String name, List<LatencyLog> logs, double elapsedSeconds) {
+            int total = logs.stream().mapToInt(log -> log.count).sum();
+            long[] all = new long[total];
+            int offset = 0;
+            long errors = 0;
+            for (LatencyLog log : logs) {
+                System.arraycopy(log.nanos, 0, all, offset, log.count);
+                offset += log.count;
+                errors += log.errors;
+            }
+            Arrays.sort(all);
+            return new Result(name, all, errors, elapsedSeconds);
+        }
+
+        long requests() {
+            return sortedNanos.length;
+        }
+
+        double throughput() {
+            return sortedNanos.length / elapsedSeconds;
+        }
+
+        double percentileMillis(double percentile) {
+            if (sortedNanos.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100.0 * sortedNanos.length) - 1;
+            return sortedNanos[Math.max(0, index)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+#!/usr/bin/env bash
+#
+# Compares throughput and latency of /employees and /dashboard with requests
+# served on the platform Tomcat pool and on virtual threads.
+#
+# Both runs use the same jar, the same JDK (21+, needed for virtual threads) and
+# the same seeded data; only the virtual-threads Spring profile differs. SQL
+# logging is turned off and the template cache on for both, so console output
+# and template parsing do not dominate the numbers.
+#
+#   JAVA_HOME=/path/to/jdk-21 load-test/compare-threading-modes.sh
+#
+# Tunables (environment): SEED (employees, default 10000), CONCURRENCY (400),
+# WARMUP (10 s), DURATION (30 s), PORT (8080). Logs and results go to
+# target/load-test/.
+
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+SEED="${SEED:-10000}"
+CONCURRENCY="${CONCURRENCY:-400}"
+WARMUP="${WARMUP:-10}"
+DURATION="${DURATION:-30}"
+PORT="${PORT:-8080}"
+OUT=target/load-test
+
+JAVA_FEATURE=$("$JAVA" -XshowSettings:properties -version 2>&1 | awk -F'= ' '/java.specification.version/ {print $2}')
+if [ "${JAVA_FEATURE%%.*}" -lt 21 ]; then
+    echo "Java 21 or newer is required to compare against virtual threads (found $JAVA_FEATURE)" >&2
+    exit 1
+fi
+
+mvn -B -q package -DskipTests
+JAR=$(ls target/employee-management-system-*.jar | head -1)
+mkdir -p "$OUT"
+rm -f "$OUT/results.txt"
+
+APP_PID=
+stop_app() {
+    if [ -n "$APP_PID" ]; then
+        kill "$APP_PID" 2>/dev/null || true
+        wait "$APP_PID" 2>/dev/null || true
+        APP_PID=
+    fi
+}
+trap stop_app EXIT
+
+for MODE in platform virtual; do
+    JVM_ARGS=()
+    APP_ARGS=(--server.port="$PORT" --spring.jpa.show-sql=false --spring.thymeleaf.cache=true
+              --logging.level.org.hibernate.SQL=INFO --logging.level.com.ems=INFO)
+    if [ "$MODE" = virtual ]; then
+        # Print a stack trace whenever a virtual thread blocks while pinned to its carrier
+        JVM_ARGS+=(-Djdk.tracePinnedThreads=short)
+        APP_ARGS+=(--spring.profiles.active=virtual-threads)
+    fi
+
+    echo "== $MODE threads"
+    "$JAVA" "${JVM_ARGS[@]}" -jar "$JAR" "${APP_ARGS[@]}" > "$OUT/app-$MODE.log" 2>&1 &
+    APP_PID=$!
+    for _ in $(seq 1 90); do
+        curl -s -o /dev/null "http://localhost:$PORT/login" && break
+        sleep 1
+    done
+    grep "Request threads:" "$OUT/app-$MODE.log" || true
+
+    "$JAVA" load-test/LoadTest.java --base-url "http://localhost:$PORT" --label "$MODE" \
+        --seed "$SEED" --concurrency "$CONCURRENCY" --warmup "$WARMUP" --duration "$DURATION" \
+        --paths /employees,/dashboard | tee "$OUT/$MODE.txt"
+    grep '^RESULT' "$OUT/$MODE.txt" >> "$OUT/results.txt"
+
+    if [ "$MODE" = virtual ]; then
+        echo "Pinned virtual thread events: $(grep -c 'reason:\|<== monitors' "$OUT/app-$MODE.log" || true)"
+    fi
+    stop_app
+done
+
+echo
+echo "== Summary (req/s, p99 ms)"
+awk '{ key = $3; tput[key, $2] = $4; p99[key, $2] = $6; paths[key] = 1 }
+     END { printf "%-14s %12s %12s %12s %12s\n", "path", "platform r/s", "virtual r/s", "platform p99", "virtual p99";
+           for (p in paths) printf "%-14s %12s %12s %12s %12s\n", p, tput[p, "platform"], tput[p, "virtual"],
+                                  p99[p, "platform"], p99[p, "virtual"] }' "$OUT/results.txt"
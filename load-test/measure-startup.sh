@@ -0,0 +1,91 @@
+#!/usr/bin/env bash
+#
+# Startup-time check for the prod profile on a large file-backed database.
+#
+# Seeds a file database once (prod + seed profiles), then restarts the app on
+# it several times, first as production runs it (Flyway + ddl-auto=validate)
+# and then, on a copy of the same files, with the old ddl-auto=update diffing
+# for comparison. Each restart reports Spring's "Started ... in" time, the wall
+# time until /login answers, and the search index rebuild that follows.
+#
+#   load-test/measure-startup.sh
+#
+# Tunables (environment): SEED (employees, default 200000), RUNS (restarts per
+# mode, 3), MAX_STARTUP (seconds, 60), PORT (8080). Exits non-zero when any
+# validate-mode start takes longer than MAX_STARTUP. Databases and logs go to
+# target/startup-test/.
+
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+SEED="${SEED:-200000}"
+RUNS="${RUNS:-3}"
+MAX_STARTUP="${MAX_STARTUP:-60}"
+PORT="${PORT:-8080}"
+OUT="$PWD/target/startup-test"
+
+mvn -B -q package -DskipTests
+JAR=$(ls target/employee-management-system-*.jar | head -1)
+rm -rf "$OUT"
+mkdir -p "$OUT/validate" "$OUT/update"
+
+APP_PID=
+stop_app() {
+    if [ -n "$APP_PID" ]; then
+        kill "$APP_PID" 2>/dev/null || true
+        wait "$APP_PID" 2>/dev/null || true
+        APP_PID=
+    fi
+}
+trap stop_app EXIT
+
+# Starts the app, waits for /login and the search index, then stops it again.
+# Prints: <Spring started seconds> <wall seconds to /login> <index rebuild ms>
+run_app() {
+    local log=$1
+    shift
+    local start
+    start=$(date +%s%N)
+    "$JAVA" -jar "$JAR" --server.port="$PORT" "$@" > "$log" 2>&1 &
+    APP_PID=$!
+    for _ in $(seq 1 600); do
+        curl -s -o /dev/null "http://localhost:$PORT/login" && break
+        kill -0 "$APP_PID" 2>/dev/null || { tail -30 "$log" >&2; exit 1; }
+        sleep 0.2
+    done
+    local ready=$(( ($(date +%s%N) - start) / 1000000 ))
+    for _ in $(seq 1 600); do
+        grep -q "Search index rebuilt" "$log" && break
+        sleep 0.5
+    done
+    stop_app
+    local started index
+    started=$(sed -n 's/.*Started .* in \([0-9.]*\) seconds.*/\1/p' "$log")
+    index=$(sed -n 's/^Search index rebuilt: .* in \([0-9]*\) ms/\1/p' "$log")
+    printf "%s %d.%03d %s\n" "$started" $((ready / 1000)) $((ready % 1000)) "$index"
+}
+
+echo "== Seeding $SEED employees"
+run_app "$OUT/seed.log" --spring.profiles.active=prod,seed --ems.data-dir="$OUT/validate" \
+    --ems.seed.employees="$SEED" > /dev/null
+grep "^Seeded" "$OUT/seed.log"
+cp -r "$OUT/validate/." "$OUT/update/"
+
+FAILED=0
+printf "%-9s %4s %12s %12s %14s\n" mode run "started (s)" "ready (s)" "index (ms)"
+for MODE in validate update; do
+    ARGS=(--spring.profiles.active=prod --ems.data-dir="$OUT/$MODE")
+    if [ "$MODE" = update ]; then
+        ARGS+=(--spring.flyway.enabled=false --spring.jpa.hibernate.ddl-auto=update)
+    fi
+    for RUN in $(seq 1 "$RUNS"); do
+        read -r STARTED READY INDEX < <(run_app "$OUT/$MODE-$RUN.log" "${ARGS[@]}")
+        printf "%-9s %4d %12s %12s %14s\n" "$MODE" "$RUN" "$STARTED" "$READY" "$INDEX"
+        if [ "$MODE" = validate ] && awk -v s="$STARTED" -v max="$MAX_STARTUP" 'BEGIN { exit !(s > max) }'; then
+            echo "FAIL: validate-mode startup took ${STARTED}s (limit ${MAX_STARTUP}s)" >&2
+            FAILED=1
+        fi
+    done
+done
+exit $FAILED
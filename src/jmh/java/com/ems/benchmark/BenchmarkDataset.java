@@ -0,0 +1,109 @@
+package com.ems.benchmark;
+
+import com.ems.EmployeeManagementSystemApplication;
+import com.ems.service.DepartmentService;
+import com.ems.service.EmployeeService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Starts the application (without the web server) against a fresh in-memory H2
+ * database and seeds it with {@code employees} rows spread over
+ * {@value #DEPARTMENTS} departments. Rows are written with plain JDBC batches so
+ * that seeding 1M employees takes seconds; the search index and department cache
+ * are then rebuilt exactly as they would be after a restart.
+ *
+ * Names are "First Last" drawn from fixed lists, so a last-name query such as
+ * {@value #SEARCH_QUERY} matches about 2% of employees at every dataset size.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkDataset {
+    
+    static final int DEPARTMENTS = 20;
+    static final String SEARCH_QUERY = "walker";
+    
+    private static final int SEED_BATCH_SIZE = 10_000;
+    private static final String[] FIRST_NAMES = {
+            "James", "Mary", "Robert", "Patricia", "John", "Jennifer", "Michael", "Linda", "David", "Elizabeth",
+            "William", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas", "Sarah", "Charles", "Karen",
+            "Priya", "Rahul", "Ananya", "Arjun", "Sneha", "Vikram", "Aisha", "Omar", "Mei", "Hiroshi"};
+    private static final String[] LAST_NAMES = {
+            "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez", "Martinez",
+            "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas", "Taylor", "Moore", "Jackson", "Martin",
+            "Lee", "Perez", "Thompson", "White", "Harris", "Sanchez", "Clark", "Ramirez", "Lewis", "Robinson",
+            "Walker", "Young", "Allen", "King", "Wright", "Scott", "Torres", "Nguyen", "Hill", "Flores",
+            "Sharma", "Patel", "Gupta", "Basak", "Khan", "Tanaka", "Chen", "Kim", "Singh", "Das"};
+    private static final String[] DESIGNATIONS = {
+            "Software Engineer", "Senior Software Engineer", "QA Analyst", "Product Manager", "Accountant",
+            "HR Executive", "Sales Associate", "Support Specialist", "Data Analyst", "Team Lead"};
+    
+    @Param({"10000", "100000", "1000000"})
+    public int employees;
+    
+    private ConfigurableApplicationContext context;
+    
+    @Setup(Level.Trial)
+    public void start() {
+        // Passed as command-line arguments so they override application.properties
+        context = new SpringApplicationBuilder(EmployeeManagementSystemApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.main.banner-mode=off",
+                        "--spring.devtools.restart.enabled=false",
+                        "--spring.h2.console.enabled=false",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.ems=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN");
+        seed();
+    }
+    
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+    
+    <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+    
+    static String departmentName(int index) {
+        return "Dept" + index;
+    }
+    
+    private void seed() {
+        long start = System.currentTimeMillis();
+        JdbcTemplate jdbc = getBean(JdbcTemplate.class);
+        for (int d = 0; d < DEPARTMENTS; d++) {
+            jdbc.update("INSERT INTO departments (dept_name) VALUES (?)", departmentName(d));
+        }
+        List<Long> deptIds = jdbc.queryForList("SELECT dept_id FROM departments ORDER BY dept_id", Long.class);
+        
+        List<Object[]> batch = new ArrayList<>(SEED_BATCH_SIZE);
+        for (int i = 1; i <= employees; i++) {
+            String name = FIRST_NAMES[i % FIRST_NAMES.length] + " " + LAST_NAMES[(i / FIRST_NAMES.length) % LAST_NAMES.length];
+            batch.add(new Object[] {(long) i, name, deptIds.get(i % DEPARTMENTS),
+                    DESIGNATIONS[i % DESIGNATIONS.length], String.valueOf(9_000_000_000L + i)});
+            if (batch.size() == SEED_BATCH_SIZE || i == employees) {
+                jdbc.batchUpdate("INSERT INTO employees (emp_id, name, dept_id, designation, contact) VALUES (?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+        // Pooled optimizer: the next sequence value is the top of the next 50-id block
+        jdbc.execute("ALTER SEQUENCE employees_seq RESTART WITH " + (employees + 50L));
+        
+        getBean(DepartmentService.class).invalidateCache();
+        getBean(EmployeeService.class).rebuildSearchIndex();
+        System.out.println("Seeded " + employees + " employees in " + (System.currentTimeMillis() - start) + " ms");
+    }
+}
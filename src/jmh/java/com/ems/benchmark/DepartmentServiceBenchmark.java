@@ -0,0 +1,50 @@
+package com.ems.benchmark;
+
+import com.ems.model.Department;
+import com.ems.service.DepartmentService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The duplicate-name check in saveDepartment: a save under an existing name is
+ * rejected after the name lookup, so nothing is written and the department
+ * cache stays warm between invocations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class DepartmentServiceBenchmark {
+    
+    private static final String EXISTING_NAME = BenchmarkDataset.departmentName(7);
+    
+    private DepartmentService departmentService;
+    
+    @Setup(Level.Trial)
+    public void lookup(BenchmarkDataset dataset) {
+        departmentService = dataset.getBean(DepartmentService.class);
+    }
+    
+    @Benchmark
+    public String saveDepartmentDuplicateName() {
+        try {
+            departmentService.saveDepartment(new Department(EXISTING_NAME));
+            throw new IllegalStateException("Duplicate department name was accepted: " + EXISTING_NAME);
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+    }
+}
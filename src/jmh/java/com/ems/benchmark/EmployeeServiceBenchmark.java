@@ -0,0 +1,188 @@
+package com.ems.benchmark;
+
+import com.ems.controller.DashboardController;
+import com.ems.dto.DashboardSummary;
+import com.ems.dto.EmployeeFacetPage;
+import com.ems.dto.EmployeePage;
+import com.ems.dto.EmployeeRow;
+import com.ems.model.Employee;
+import com.ems.repository.EmployeeRepository;
+import com.ems.service.EmployeeService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.ui.ExtendedModelMap;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read paths behind the employee list, search and dashboard pages.
+ *
+ * The *Baseline benchmarks reproduce the query paths these replaced, so each
+ * release reports both sides: the leading-wildcard LIKE search that the trigram
+ * index replaced, the managed-entity page that the read-only projection
+ * replaced, and the GROUP BY queries the facet index replaced. showDashboard
+ * goes through the controller and so mostly measures fragment cache hits;
+ * dashboardSummary is the query it skips. Run with the gc profiler (the
+ * default in the benchmarks profile) to compare allocation per operation as
+ * well as latency.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class EmployeeServiceBenchmark {
+    
+    private static final String DEPARTMENT = BenchmarkDataset.departmentName(3);
+    // Held by every tenth employee, half of them in DEPARTMENT
+    private static final String DESIGNATION = "Product Manager";
+    private static final int PAGE_SIZE = 20;
+    // Only in "Khan", one of the 50 last names
+    private static final String SHORT_QUERY = "kh";
+    
+    private EmployeeService employeeService;
+    private EmployeeRepository employeeRepository;
+    private DashboardController dashboardController;
+    private EntityManager entityManager;
+    private TransactionTemplate readOnlyTransaction;
+    private TransactionTemplate readWriteTransaction;
+    private MockHttpSession session;
+    
+    @Setup(Level.Trial)
+    public void lookup(BenchmarkDataset dataset) {
+        employeeService = dataset.getBean(EmployeeService.class);
+        employeeRepository = dataset.getBean(EmployeeRepository.class);
+        dashboardController = dataset.getBean(DashboardController.class);
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(dataset.getBean(EntityManagerFactory.class));
+        PlatformTransactionManager transactionManager = dataset.getBean(PlatformTransactionManager.class);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        readWriteTransaction = new TransactionTemplate(transactionManager);
+        session = new MockHttpSession();
+        session.setAttribute("username", "admin");
+        // The dashboard renders its fragments against the current request (one benchmark thread)
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(
+                new MockHttpServletRequest(new MockServletContext()), new MockHttpServletResponse()));
+    }
+    
+    @Benchmark
+    public List<Employee> searchEmployees() {
+        return employeeService.searchEmployees(BenchmarkDataset.SEARCH_QUERY);
+    }
+    
+    // Two letters, as the search box sends them while the user is still typing
+    @Benchmark
+    public long[] findFilteredIdsShortQuery() {
+        return employeeService.findFilteredIds(SHORT_QUERY, null, null);
+    }
+    
+    @Benchmark
+    public List<Employee> searchEmployeesLikeBaseline() {
+        String q = BenchmarkDataset.SEARCH_QUERY;
+        return readOnlyTransaction.execute(status -> employeeRepository
+                .findByNameContainingIgnoreCaseOrDepartmentDeptNameContainingIgnoreCaseOrDesignationContainingIgnoreCase(q, q, q));
+    }
+    
+    @Benchmark
+    public List<Employee> getEmployeesByDepartment() {
+        return employeeService.getEmployeesByDepartment(DEPARTMENT);
+    }
+    
+    @Benchmark
+    public List<Employee> getAllEmployees() {
+        return employeeService.getAllEmployees();
+    }
+    
+    @Benchmark
+    public EmployeePage employeesPage() {
+        return employeeService.getEmployeesPage(null, null, null, null, null, PAGE_SIZE);
+    }
+    
+    // First page as managed entities in a read-write transaction, touching the
+    // department as the list template did before the projection read path
+    @Benchmark
+    public void employeesPageEntityBaseline(Blackhole blackhole) {
+        readWriteTransaction.executeWithoutResult(status -> {
+            List<Employee> page = entityManager
+                    .createQuery("SELECT e FROM Employee e WHERE e.empId > :after ORDER BY e.empId", Employee.class)
+                    .setParameter("after", 0L)
+                    .setMaxResults(PAGE_SIZE + 1)
+                    .getResultList();
+            for (Employee employee : page) {
+                blackhole.consume(employee.getDepartment().getDeptName());
+            }
+        });
+    }
+    
+    // Search, department and designation combined, with counts for every department and designation
+    @Benchmark
+    public EmployeeFacetPage employeeFacetPage() {
+        return employeeService.getEmployeeFacetPage(BenchmarkDataset.SEARCH_QUERY, DEPARTMENT, DESIGNATION, null, null, PAGE_SIZE);
+    }
+    
+    // The same page and counts from SQL: one GROUP BY per facet plus the page query
+    @Benchmark
+    public void employeeFacetPageSqlBaseline(Blackhole blackhole) {
+        String text = "(LOWER(e.name) LIKE :q OR LOWER(e.designation) LIKE :q OR LOWER(d.deptName) LIKE :q)";
+        String q = "%" + BenchmarkDataset.SEARCH_QUERY + "%";
+        String designation = DESIGNATION.toLowerCase();
+        readOnlyTransaction.executeWithoutResult(status -> {
+            blackhole.consume(entityManager
+                    .createQuery("SELECT d.deptName, COUNT(e) FROM Employee e JOIN e.department d WHERE " + text
+                            + " AND LOWER(e.designation) = :designation GROUP BY d.deptName")
+                    .setParameter("q", q)
+                    .setParameter("designation", designation)
+                    .getResultList());
+            blackhole.consume(entityManager
+                    .createQuery("SELECT LOWER(e.designation), COUNT(e) FROM Employee e JOIN e.department d WHERE " + text
+                            + " AND d.deptName = :department GROUP BY LOWER(e.designation)")
+                    .setParameter("q", q)
+                    .setParameter("department", DEPARTMENT)
+                    .getResultList());
+            blackhole.consume(entityManager
+                    .createQuery("SELECT new com.ems.dto.EmployeeRow(e.empId, e.name, d.deptName, e.designation, e.contact) "
+                            + "FROM Employee e JOIN e.department d WHERE " + text + " AND d.deptName = :department "
+                            + "AND LOWER(e.designation) = :designation ORDER BY e.empId", EmployeeRow.class)
+                    .setParameter("q", q)
+                    .setParameter("department", DEPARTMENT)
+                    .setParameter("designation", designation)
+                    .setMaxResults(PAGE_SIZE + 1)
+                    .getResultList());
+        });
+    }
+    
+    @Benchmark
+    public DashboardSummary dashboardSummary() {
+        return employeeService.getDashboardSummary();
+    }
+    
+    @Benchmark
+    public ExtendedModelMap showDashboard() {
+        ExtendedModelMap model = new ExtendedModelMap();
+        dashboardController.showDashboard(model, session);
+        return model;
+    }
+}
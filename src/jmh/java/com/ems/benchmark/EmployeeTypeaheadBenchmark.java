@@ -0,0 +1,110 @@
+package com.ems.benchmark;
+
+import com.ems.dto.EmployeeSuggestion;
+import com.ems.search.EmployeeTypeahead;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Typeahead lookups against the trie alone, without Spring or a database, so
+ * 1M employees build in seconds.
+ *
+ * Names are made of generated syllables, so most of them are distinct and the
+ * trie has about as many nodes as a real directory would. Setup reports the
+ * trie's own size estimate next to the heap it actually took, which is how
+ * ems.typeahead.max-memory-mb was chosen.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class EmployeeTypeaheadBenchmark {
+    
+    private static final int LIMIT = 10;
+    private static final String[] SYLLABLES = {
+            "an", "be", "ca", "da", "el", "fi", "go", "ha", "is", "jo", "ka", "li", "ma", "ne", "or", "pa",
+            "ra", "sa", "ta", "ul", "va", "wi", "ya", "zo", "mi", "ro", "su", "te", "ki", "lo"};
+    private static final String[] DESIGNATIONS = {
+            "Software Engineer", "Senior Software Engineer", "QA Analyst", "Product Manager", "Accountant",
+            "HR Executive", "Sales Associate", "Support Specialist", "Data Analyst", "Team Lead"};
+    
+    @Param({"100000", "1000000"})
+    public int employees;
+    
+    private EmployeeTypeahead typeahead;
+    
+    @Setup(Level.Trial)
+    public void build() {
+        long heapBefore = usedHeap();
+        long start = System.currentTimeMillis();
+        typeahead = new EmployeeTypeahead(1024);
+        for (int i = 1; i <= employees; i++) {
+            typeahead.index((long) i, word(i, 7) + " " + word(i / 7, 13), DESIGNATIONS[i % DESIGNATIONS.length]);
+        }
+        long buildMs = System.currentTimeMillis() - start;
+        long heapUsed = usedHeap() - heapBefore;
+        System.out.println("Typeahead built: " + employees + " employees in " + buildMs + " ms, "
+                + typeahead.estimatedBytes() / (1024 * 1024) + " MB estimated, "
+                + heapUsed / (1024 * 1024) + " MB measured, " + typeahead.getStats());
+    }
+    
+    // One letter: the widest prefix, where ranking has the most candidates to pass over
+    @Benchmark
+    public List<EmployeeSuggestion> suggestOneLetter() {
+        return typeahead.suggest("m", LIMIT);
+    }
+    
+    @Benchmark
+    public List<EmployeeSuggestion> suggestThreeLetters() {
+        return typeahead.suggest("kal", LIMIT);
+    }
+    
+    @Benchmark
+    public List<EmployeeSuggestion> suggestLongPrefix() {
+        return typeahead.suggest("sanemiro", LIMIT);
+    }
+    
+    @Benchmark
+    public List<EmployeeSuggestion> suggestDesignation() {
+        return typeahead.suggest("senior so", LIMIT);
+    }
+    
+    @Benchmark
+    public List<EmployeeSuggestion> suggestNoMatch() {
+        return typeahead.suggest("qqq", LIMIT);
+    }
+    
+    // Three or four syllables picked by the digits of n in base 30
+    private static String word(int n, int salt) {
+        int x = n * 31 + salt;
+        StringBuilder word = new StringBuilder();
+        int syllables = 3 + (x & 1);
+        for (int s = 0; s < syllables; s++) {
+            word.append(SYLLABLES[Math.floorMod(x, SYLLABLES.length)]);
+            x = x / SYLLABLES.length + salt * (s + 1);
+        }
+        word.setCharAt(0, Character.toUpperCase(word.charAt(0)));
+        return word.toString();
+    }
+    
+    private static long usedHeap() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
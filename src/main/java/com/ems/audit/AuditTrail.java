@@ -0,0 +1,349 @@
+package com.ems.audit;
+
+import com.ems.model.AuditEvent;
+import com.ems.model.AuditEvent.Action;
+import com.ems.model.AuditEvent.EntityType;
+import com.ems.repository.AuditEventRepository;
+import com.ems.security.AuthenticationInterceptor;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Change history for employees and departments, kept off the request path.
+ * {@link #record} captures the session username and time and queues the
+ * before/after field values; a single writer thread drains the queue in
+ * batches, works out which fields changed and inserts each batch in one
+ * transaction.
+ * <p>
+ * The queue is lock-free and bounded. When it is full, callers wake the
+ * writer and wait for room; one still waiting after the offer timeout writes
+ * its own event, so a writer that falls behind slows changes down instead of
+ * losing history.
+ * <p>
+ * A batch that fails to insert is retried with backoff, then written one
+ * event per transaction so a single bad event costs only itself. Events that
+ * still fail are logged and counted under {@code failed} in the stats.
+ */
+@Component
+public class AuditTrail implements SmartLifecycle {
+    
+    static final String SYSTEM_USER = "system";
+    
+    // How long a caller parks between attempts while the queue is full
+    private static final long FULL_QUEUE_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    
+    // A failed batch is tried this many times, waiting 50 ms, then 100 ms, in between
+    private static final int BATCH_ATTEMPTS = 3;
+    private static final long INITIAL_RETRY_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    
+    private final AuditEventRepository auditEventRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int capacity;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long offerTimeoutNanos;
+    
+    // ConcurrentLinkedQueue is unbounded, so the bound is a slot count claimed by CAS before
+    // each offer and released by the writer as it drains
+    private final ConcurrentLinkedQueue<PendingEvent> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder fullQueueWaits = new LongAdder();
+    private final LongAdder callerWrites = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    
+    private volatile boolean running;
+    private volatile Thread writer;
+    
+    public AuditTrail(AuditEventRepository auditEventRepository,
+                      PlatformTransactionManager transactionManager,
+                      ObjectMapper objectMapper,
+                      @Value("${ems.audit.queue-capacity:10000}") int capacity,
+                      @Value("${ems.audit.batch-size:200}") int batchSize,
+                      @Value("${ems.audit.flush-interval-ms:250}") long flushIntervalMillis,
+                      @Value("${ems.audit.offer-timeout-ms:2000}") long offerTimeoutMillis) {
+        this.auditEventRepository = auditEventRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.offerTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(offerTimeoutMillis);
+    }
+    
+    /**
+     * Queues one change. Either state may be null (nothing before a create,
+     * nothing after a delete); an update that changed no field is not kept.
+     */
+    public void record(EntityType type, Long entityId, Action action,
+                       Map<String, String> before, Map<String, String> after) {
+        PendingEvent event = new PendingEvent(type, entityId, action, currentUsername(), LocalDateTime.now(), before, after);
+        recorded.increment();
+        if (running && offer(event)) {
+            return;
+        }
+        if (running) {
+            fullQueueWaits.increment();
+            long deadline = System.nanoTime() + offerTimeoutNanos;
+            do {
+                LockSupport.unpark(writer);
+                LockSupport.parkNanos(this, FULL_QUEUE_WAIT_NANOS);
+                if (offer(event)) {
+                    return;
+                }
+            } while (running && System.nanoTime() - deadline < 0);
+        }
+        // The writer is stopped or still behind: write this event on the caller's thread
+        callerWrites.increment();
+        write(List.of(event));
+    }
+    
+    public Map<String, Long> getStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("queued", (long) queued.get());
+        stats.put("capacity", (long) capacity);
+        stats.put("recorded", recorded.sum());
+        stats.put("written", written.sum());
+        stats.put("batches", batches.sum());
+        stats.put("fullQueueWaits", fullQueueWaits.sum());
+        stats.put("callerWrites", callerWrites.sum());
+        stats.put("retries", retries.sum());
+        stats.put("failedBatches", failedBatches.sum());
+        stats.put("failed", failed.sum());
+        return stats;
+    }
+    
+    @Override
+    public void start() {
+        running = true;
+        Thread thread = new Thread(this::runWriter, "audit-writer");
+        thread.setDaemon(true);
+        writer = thread;
+        thread.start();
+    }
+    
+    /**
+     * Stops the writer once it has flushed what is queued. Events recorded
+     * after this are written by their callers.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        Thread thread = writer;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flushQueue();
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+    
+    private boolean offer(PendingEvent event) {
+        int slots;
+        do {
+            slots = queued.get();
+            if (slots >= capacity) {
+                return false;
+            }
+        } while (!queued.compareAndSet(slots, slots + 1));
+        queue.offer(event);
+        // Let partial batches wait for the flush interval; wake the writer once a full one is ready
+        if (slots + 1 >= batchSize) {
+            LockSupport.unpark(writer);
+        }
+        return true;
+    }
+    
+    private void runWriter() {
+        while (running) {
+            if (!writeNextBatch()) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            }
+        }
+        flushQueue();
+    }
+    
+    private void flushQueue() {
+        while (writeNextBatch()) {
+            // keep going until the queue is empty
+        }
+    }
+    
+    private boolean writeNextBatch() {
+        List<PendingEvent> batch = new ArrayList<>(batchSize);
+        PendingEvent event;
+        while (batch.size() < batchSize && (event = queue.poll()) != null) {
+            batch.add(event);
+        }
+        if (batch.isEmpty()) {
+            return false;
+        }
+        queued.addAndGet(-batch.size());
+        write(batch);
+        return true;
+    }
+    
+    private void write(List<PendingEvent> pending) {
+        List<Change> changes = changes(pending);
+        if (changes.isEmpty()) {
+            return;
+        }
+        // Transient failures (a lock timeout, a dropped connection) get a few retries with backoff
+        long backoffNanos = INITIAL_RETRY_BACKOFF_NANOS;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                save(changes);
+                return;
+            } catch (RuntimeException e) {
+                if (attempt == BATCH_ATTEMPTS) {
+                    break;
+                }
+                retries.increment();
+                LockSupport.parkNanos(this, backoffNanos);
+                backoffNanos *= 2;
+            }
+        }
+        // Still failing, so some event in it is likely bad: write them one by one to keep the rest
+        failedBatches.increment();
+        for (Change change : changes) {
+            try {
+                save(List.of(change));
+            } catch (RuntimeException e) {
+                lost(change.event, e);
+            }
+        }
+    }
+    
+    // Entities are built afresh on every attempt, as rolled-back ones may carry generated ids
+    private void save(List<Change> changes) {
+        List<AuditEvent> events = new ArrayList<>(changes.size());
+        for (Change change : changes) {
+            PendingEvent event = change.event;
+            events.add(new AuditEvent(event.type, event.entityId, event.action, event.username,
+                    event.changedAt, change.json));
+        }
+        transactionTemplate.executeWithoutResult(status -> auditEventRepository.saveAll(events));
+        written.add(events.size());
+        batches.increment();
+    }
+    
+    // Updates that changed nothing are dropped; events whose changes cannot be serialized are lost
+    private List<Change> changes(List<PendingEvent> pending) {
+        List<Change> changes = new ArrayList<>(pending.size());
+        for (PendingEvent event : pending) {
+            Map<String, List<String>> fields = diff(event);
+            if (!fields.isEmpty() || event.action != Action.UPDATE) {
+                try {
+                    changes.add(new Change(event, objectMapper.writeValueAsString(fields)));
+                } catch (JsonProcessingException e) {
+                    lost(event, e);
+                }
+            }
+        }
+        return changes;
+    }
+    
+    private void lost(PendingEvent event, Exception cause) {
+        failed.increment();
+        System.out.println("Audit: failed to write " + event.action + " of " + event.type + " " + event.entityId
+                + " by " + event.username + " at " + event.changedAt + ": " + cause.getMessage());
+    }
+    
+    private static Map<String, List<String>> diff(PendingEvent event) {
+        Set<String> fields = new LinkedHashSet<>();
+        if (event.before != null) {
+            fields.addAll(event.before.keySet());
+        }
+        if (event.after != null) {
+            fields.addAll(event.after.keySet());
+        }
+        Map<String, List<String>> changes = new LinkedHashMap<>();
+        for (String field : fields) {
+            String from = event.before != null ? event.before.get(field) : null;
+            String to = event.after != null ? event.after.get(field) : null;
+            if (!Objects.equals(from, to)) {
+                List<String> change = new ArrayList<>(2);
+                change.add(from);
+                change.add(to);
+                changes.put(field, change);
+            }
+        }
+        return changes;
+    }
+    
+    private static String currentUsername() {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        Object username = request != null
+                ? request.getAttribute(AuthenticationInterceptor.USERNAME, RequestAttributes.SCOPE_SESSION)
+                : null;
+        return username != null ? username.toString() : SYSTEM_USER;
+    }
+    
+    private static final class PendingEvent {
+        
+        private final EntityType type;
+        private final Long entityId;
+        private final Action action;
+        private final String username;
+        private final LocalDateTime changedAt;
+        private final Map<String, String> before;
+        private final Map<String, String> after;
+        
+        PendingEvent(EntityType type, Long entityId, Action action, String username, LocalDateTime changedAt,
+                     Map<String, String> before, Map<String, String> after) {
+            this.type = type;
+            this.entityId = entityId;
+            this.action = action;
+            this.username = username;
+            this.changedAt = changedAt;
+            this.before = before;
+            this.after = after;
+        }
+    }
+    
+    private static final class Change {
+        
+        private final PendingEvent event;
+        private final String json;
+        
+        Change(PendingEvent event, String json) {
+            this.event = event;
+            this.json = json;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.ems.config;
 
 import com.ems.model.User;
 import com.ems.repository.UserRepository;
+import com.ems.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
@@ -12,14 +13,25 @@ public class DataInitializer implements CommandLineRunner {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private UserService userService;
+    
+    // Present only with the "seed" profile
+    @Autowired(required = false)
+    private SyntheticDataSeeder syntheticDataSeeder;
+    
     @Override
     public void run(String... args) throws Exception {
         // Create default admin user if it doesn't exist
         if (userRepository.findByUsername("admin").isEmpty()) {
-            User admin = new User("admin", "admin123");
-            userRepository.save(admin);
+            User admin = new User("admin", userService.hashPassword("admin123"));
+            userService.save(admin);
             System.out.println("Default admin user created: username=admin, password=admin123");
         }
+        
+        if (syntheticDataSeeder != null) {
+            syntheticDataSeeder.seed();
+        }
     }
 }
 
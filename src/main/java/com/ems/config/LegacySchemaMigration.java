@@ -0,0 +1,91 @@
+package com.ems.config;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Brings databases created by earlier versions up to the current mapping:
+ * <ul>
+ *     <li>the free-text employees.department column is replaced by the
+ *     employees.dept_id key, adding any department names that only existed
+ *     on employee rows to departments;</li>
+ *     <li>employees_seq is created past the highest existing emp_id, since
+ *     ids used to come from an identity column.</li>
+ * </ul>
+ * Runs before the EntityManagerFactory starts, so Hibernate's schema update
+ * only ever sees the migrated tables. Does nothing on new or migrated databases.
+ */
+@Component(LegacySchemaMigration.BEAN_NAME)
+public class LegacySchemaMigration implements InitializingBean {
+    
+    static final String BEAN_NAME = "legacySchemaMigration";
+    
+    private final DataSource dataSource;
+    
+    public LegacySchemaMigration(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+    
+    @Override
+    public void afterPropertiesSet() throws SQLException {
+        if (!hasTable("EMPLOYEES")) {
+            return;
+        }
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        
+        if (hasColumn("EMPLOYEES", "DEPARTMENT") && !hasColumn("EMPLOYEES", "DEPT_ID")) {
+            jdbc.execute("ALTER TABLE employees ADD COLUMN dept_id BIGINT");
+            int added = jdbc.update("INSERT INTO departments (dept_name) " +
+                    "SELECT DISTINCT e.department FROM employees e " +
+                    "WHERE NOT EXISTS (SELECT 1 FROM departments d WHERE d.dept_name = e.department)");
+            int migrated = jdbc.update("UPDATE employees e SET dept_id = " +
+                    "(SELECT d.dept_id FROM departments d WHERE d.dept_name = e.department)");
+            jdbc.execute("ALTER TABLE employees ALTER COLUMN dept_id SET NOT NULL");
+            jdbc.execute("ALTER TABLE employees DROP COLUMN department");
+            System.out.println("Migrated " + migrated + " employees to department keys ("
+                    + added + " departments created)");
+        }
+        
+        Integer sequences = jdbc.queryForObject("SELECT COUNT(*) FROM INFORMATION_SCHEMA.SEQUENCES " +
+                "WHERE UPPER(SEQUENCE_NAME) = 'EMPLOYEES_SEQ'", Integer.class);
+        if (sequences != null && sequences == 0) {
+            // Hibernate's pooled optimizer treats each sequence value as the top of a block
+            // of 50 ids, so the first value must be at least maxId + 50
+            Long maxId = jdbc.queryForObject("SELECT COALESCE(MAX(emp_id), 0) FROM employees", Long.class);
+            jdbc.execute("CREATE SEQUENCE employees_seq START WITH " + (maxId + 50) + " INCREMENT BY 50");
+        }
+    }
+    
+    private boolean hasTable(String table) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             ResultSet tables = connection.getMetaData().getTables(null, null, table, null)) {
+            return tables.next();
+        }
+    }
+    
+    private boolean hasColumn(String table, String column) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            try (ResultSet columns = metaData.getColumns(null, null, table, column)) {
+                return columns.next();
+            }
+        }
+    }
+    
+    @Configuration
+    static class EntityManagerFactoryDependsOnMigration extends EntityManagerFactoryDependsOnPostProcessor {
+        
+        EntityManagerFactoryDependsOnMigration() {
+            super(BEAN_NAME);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.ems.config;
+
+import com.ems.metrics.ServiceTimingInterceptor;
+import com.ems.service.DepartmentService;
+import com.ems.service.EmployeeService;
+import com.ems.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Set;
+
+@Configuration
+public class MetricsConfig {
+    
+    private static final Set<Class<?>> TIMED_SERVICES = Set.of(EmployeeService.class, DepartmentService.class, UserService.class);
+    
+    /**
+     * In-process registry with cumulative counts; read through /metrics.
+     */
+    @Bean
+    public MeterRegistry meterRegistry() {
+        return new SimpleMeterRegistry();
+    }
+    
+    /**
+     * Times every public method of the timed services. Registered as an
+     * infrastructure advisor so the auto-proxy creator that already applies
+     * transactions picks it up, and ordered first so the timing includes the
+     * transaction commit.
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor serviceTimingAdvisor(ObjectProvider<MeterRegistry> meterRegistry) {
+        StaticMethodMatcherPointcut pointcut = new StaticMethodMatcherPointcut() {
+            @Override
+            public boolean matches(Method method, Class<?> targetClass) {
+                return Modifier.isPublic(method.getModifiers()) && TIMED_SERVICES.contains(method.getDeclaringClass());
+            }
+        };
+        pointcut.setClassFilter(TIMED_SERVICES::contains);
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(pointcut, new ServiceTimingInterceptor(meterRegistry));
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+}
@@ -0,0 +1,105 @@
+package com.ems.config;
+
+import com.ems.datasource.LocalReplicaSync;
+import com.ems.datasource.ReadReplicas;
+import com.ems.datasource.ReplicaRead;
+import com.ems.datasource.ReplicaReadInterceptor;
+import com.ems.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Read/write routing, enabled by setting ems.datasource.replica.urls. The
+ * primary pool is built from spring.datasource.* as before; the application's
+ * DataSource becomes a router that sends {@link ReplicaRead} calls to a
+ * replica that has caught up and everything else to the primary.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "ems.datasource.replica", name = "urls")
+public class ReadReplicaConfig {
+    
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+    
+    @Bean
+    public ReadReplicas readReplicas(HikariDataSource primaryDataSource,
+                                     @Value("${ems.datasource.replica.urls}") List<String> urls,
+                                     @Value("${ems.datasource.replica.username:${spring.datasource.username:}}") String username,
+                                     @Value("${ems.datasource.replica.password:${spring.datasource.password:}}") String password,
+                                     @Value("${ems.datasource.replica.heartbeat-ms:1000}") long heartbeatMillis,
+                                     @Value("${ems.datasource.replica.read-your-writes-ms:5000}") long readYourWritesMillis) {
+        return new ReadReplicas(primaryDataSource, urls, username, password, heartbeatMillis, readYourWritesMillis);
+    }
+    
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReadReplicas readReplicas) {
+        ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource();
+        dataSource.setDefaultTargetDataSource(primaryDataSource);
+        dataSource.setTargetDataSources(readReplicas.getDataSources());
+        return dataSource;
+    }
+    
+    /**
+     * Copies the primary into local H2 replicas every ems.datasource.replica.local-sync-ms;
+     * only for trying routing without real replication.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "ems.datasource.replica", name = "local-sync-ms")
+    public LocalReplicaSync localReplicaSync(HikariDataSource primaryDataSource, ReadReplicas readReplicas,
+                                             @Value("${ems.datasource.replica.local-sync-tables:departments,employees,users}") List<String> tables,
+                                             @Value("${ems.datasource.replica.local-sync-ms}") long intervalMillis) {
+        return new LocalReplicaSync(primaryDataSource, readReplicas, tables, intervalMillis);
+    }
+    
+    /**
+     * With open-in-view a request keeps one EntityManager across its
+     * transactions, and Hibernate would otherwise hold the first connection it
+     * took until the request ends. Releasing it after each transaction lets
+     * the next one take a connection from wherever it is routed, so a write
+     * after a replica read still goes to the primary.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionsAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+    
+    /**
+     * Applies the routing to {@link ReplicaRead} methods. Ordered just after
+     * service timing and ahead of the transaction advisor, so the route is set
+     * before a transaction takes its connection.
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor replicaReadAdvisor(ObjectProvider<ReadReplicas> readReplicas) {
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(
+                AnnotationMatchingPointcut.forMethodAnnotation(ReplicaRead.class), new ReplicaReadInterceptor(readReplicas));
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return advisor;
+    }
+}
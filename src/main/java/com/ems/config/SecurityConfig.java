@@ -0,0 +1,34 @@
+package com.ems.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+@Configuration
+public class SecurityConfig {
+    
+    @Bean
+    public PasswordEncoder passwordEncoder() {
+        return new BCryptPasswordEncoder();
+    }
+    
+    /**
+     * Small fixed pool that runs password hash checks, so bursts of login attempts
+     * are limited to a few CPU-bound hashes at a time and are rejected once the
+     * queue is full instead of piling up on request threads.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor passwordVerifierExecutor(
+            @Value("${ems.login.verify-threads:2}") int threads,
+            @Value("${ems.login.verify-queue:16}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("password-verify-");
+        return executor;
+    }
+}
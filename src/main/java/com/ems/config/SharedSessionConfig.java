@@ -0,0 +1,50 @@
+package com.ems.config;
+
+import com.ems.session.JdbcSessionRepository;
+import com.ems.session.SharedSessionFilter;
+import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Sessions kept in the application database instead of the servlet
+ * container, so several instances behind a load balancer share logins.
+ * Enabled by ems.session.store=jdbc, which the cluster profile sets; by
+ * default sessions stay in the container, one set per instance.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "ems.session", name = "store", havingValue = "jdbc")
+public class SharedSessionConfig {
+    
+    @Bean
+    public JdbcSessionRepository sessionRepository(DataSource dataSource,
+                                                   @Value("${ems.session.cleanup-interval-seconds:60}") long cleanupIntervalSeconds,
+                                                   @Value("${ems.session.cleanup-batch-size:500}") int cleanupBatchSize) {
+        return new JdbcSessionRepository(dataSource, cleanupIntervalSeconds * 1000, cleanupBatchSize);
+    }
+    
+    /**
+     * Registered ahead of Spring's own filters, so everything after it,
+     * including the request context the services read the session from,
+     * sees the shared session.
+     */
+    @Bean
+    public FilterRegistrationBean<SharedSessionFilter> sharedSessionFilter(JdbcSessionRepository sessionRepository,
+                                                                           @Value("${ems.session.cookie-name:EMS_SESSION}") String cookieName,
+                                                                           @Value("${server.servlet.session.timeout:30m}") Duration timeout,
+                                                                           @Value("${ems.session.touch-interval-seconds:60}") long touchIntervalSeconds) {
+        SharedSessionFilter filter = new SharedSessionFilter(sessionRepository, cookieName,
+                (int) timeout.toSeconds(), touchIntervalSeconds * 1000);
+        FilterRegistrationBean<SharedSessionFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 50);
+        registration.setDispatcherTypes(DispatcherType.REQUEST, DispatcherType.ASYNC);
+        return registration;
+    }
+}
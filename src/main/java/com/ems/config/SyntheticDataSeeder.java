@@ -0,0 +1,233 @@
+package com.ems.config;
+
+import com.ems.model.Department;
+import com.ems.model.Employee;
+import com.ems.repository.EmployeeRepository;
+import com.ems.service.DepartmentService;
+import com.ems.service.EmployeeService;
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Generates a realistic synthetic data set for local performance work; only
+ * active with the "seed" profile and only when the employee table is empty.
+ *
+ * Department sizes follow a Zipf-like curve (a few large departments, a long
+ * tail of small ones), names repeat at the rates of common first and last names,
+ * designations form a seniority pyramid within each department's job family, and
+ * contacts are mostly 10-digit mobile numbers with some international ones.
+ * Employees are written in parallel batches, each in its own transaction, from a
+ * fixed random seed so the same settings always produce the same data.
+ */
+@Component
+@Profile("seed")
+public class SyntheticDataSeeder {
+    
+    // Department base name and the job family its employees are hired into
+    private static final String[][] DEPARTMENT_FAMILIES = {
+            {"Engineering", "Software Engineer"}, {"Sales", "Account Executive"},
+            {"Customer Support", "Support Specialist"}, {"Operations", "Operations Analyst"},
+            {"Marketing", "Marketing Specialist"}, {"Finance", "Financial Analyst"},
+            {"Human Resources", "HR Business Partner"}, {"Quality Assurance", "QA Engineer"},
+            {"Product", "Product Manager"}, {"Data Science", "Data Scientist"},
+            {"Information Technology", "Systems Administrator"}, {"Legal", "Legal Counsel"},
+            {"Procurement", "Procurement Officer"}, {"Research", "Research Scientist"},
+            {"Design", "Product Designer"}, {"Facilities", "Facilities Coordinator"},
+            {"Security", "Security Engineer"}, {"Logistics", "Logistics Coordinator"},
+            {"Training", "Learning Specialist"}, {"Administration", "Administrative Officer"}};
+    
+    private static final String[] FIRST_NAMES = {
+            "Aarav", "James", "Priya", "Mary", "Rahul", "Robert", "Ananya", "Patricia", "Arjun", "Jennifer",
+            "Sneha", "Michael", "Vikram", "Linda", "Aisha", "David", "Rohan", "Elizabeth", "Kavya", "William",
+            "Aditya", "Barbara", "Ishita", "Richard", "Karan", "Susan", "Neha", "Joseph", "Siddharth", "Jessica",
+            "Pooja", "Thomas", "Amit", "Sarah", "Divya", "Charles", "Omar", "Karen", "Mei", "Daniel",
+            "Hiroshi", "Nancy", "Fatima", "Matthew", "Sofia", "Anthony", "Lucas", "Lisa", "Chen", "Mark"};
+    
+    private static final String[] LAST_NAMES = {
+            "Sharma", "Smith", "Patel", "Johnson", "Singh", "Williams", "Kumar", "Brown", "Das", "Jones",
+            "Gupta", "Garcia", "Basak", "Miller", "Chatterjee", "Davis", "Banerjee", "Rodriguez", "Reddy", "Martinez",
+            "Iyer", "Wilson", "Nair", "Anderson", "Mukherjee", "Taylor", "Khan", "Thomas", "Mehta", "Moore",
+            "Joshi", "Jackson", "Rao", "White", "Bose", "Harris", "Ghosh", "Clark", "Verma", "Lewis",
+            "Tanaka", "Walker", "Chen", "Young", "Kim", "Allen", "Nguyen", "King", "Sato", "Wright"};
+    
+    // Seniority pyramid: cumulative thresholds out of 1000
+    private static final String[] LEVELS = {"Intern", "Junior", "", "Senior", "Lead", "Principal", "Manager", "Head of"};
+    private static final int[] LEVEL_THRESHOLDS = {40, 270, 620, 840, 930, 960, 995, 1000};
+    
+    private static final String[] COUNTRY_CODES = {"1", "44", "61", "65", "971"};
+    
+    @Autowired
+    private DepartmentService departmentService;
+    
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    
+    @Autowired
+    private EmployeeService employeeService;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    private final TransactionTemplate transactionTemplate;
+    
+    @Value("${ems.seed.departments:20}")
+    private int departmentCount;
+    
+    @Value("${ems.seed.employees:100000}")
+    private int employeeCount;
+    
+    @Value("${ems.seed.threads:4}")
+    private int threads;
+    
+    @Value("${ems.seed.batch-size:500}")
+    private int batchSize;
+    
+    @Value("${ems.seed.random-seed:42}")
+    private long randomSeed;
+    
+    public SyntheticDataSeeder(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    public void seed() throws InterruptedException, ExecutionException {
+        if (employeeRepository.count() > 0) {
+            System.out.println("Synthetic data seeding skipped: employees already exist");
+            return;
+        }
+        long start = System.currentTimeMillis();
+        List<Department> departments = seedDepartments();
+        double[] cumulativeWeights = departmentWeights(departments.size());
+        
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> batches = new ArrayList<>();
+            for (int first = 0; first < employeeCount; first += batchSize) {
+                int batchIndex = first / batchSize;
+                int size = Math.min(batchSize, employeeCount - first);
+                batches.add(executor.submit(() -> writeBatch(batchIndex, size, departments, cumulativeWeights)));
+            }
+            for (Future<?> batch : batches) {
+                batch.get();
+            }
+        } finally {
+            executor.shutdownNow();
+            employeeService.markDataChanged();
+        }
+        
+        long elapsed = Math.max(1, System.currentTimeMillis() - start);
+        System.out.println("Seeded " + departments.size() + " departments and " + employeeCount + " employees in "
+                + elapsed + " ms (" + (employeeCount * 1000L / elapsed) + " rows/sec, " + threads + " threads)");
+    }
+    
+    private List<Department> seedDepartments() {
+        List<Department> departments = new ArrayList<>(departmentCount);
+        for (int i = 0; i < departmentCount; i++) {
+            String base = DEPARTMENT_FAMILIES[i % DEPARTMENT_FAMILIES.length][0];
+            int round = i / DEPARTMENT_FAMILIES.length;
+            String name = round == 0 ? base : base + " " + (round + 1);
+            Department department = departmentService.findByDeptName(name)
+                    .orElseGet(() -> departmentService.saveDepartment(new Department(name)));
+            departments.add(department);
+        }
+        return departments;
+    }
+    
+    // Zipf-like department sizes: the i-th department gets weight 1 / (i + 1)^0.8
+    private static double[] departmentWeights(int count) {
+        double[] cumulative = new double[count];
+        double total = 0;
+        for (int i = 0; i < count; i++) {
+            total += 1.0 / Math.pow(i + 1, 0.8);
+            cumulative[i] = total;
+        }
+        for (int i = 0; i < count; i++) {
+            cumulative[i] /= total;
+        }
+        return cumulative;
+    }
+    
+    private void writeBatch(int batchIndex, int size, List<Department> departments, double[] cumulativeWeights) {
+        // One generator per batch, so output does not depend on thread scheduling
+        SplittableRandom random = new SplittableRandom(randomSeed * 1_000_003L + batchIndex);
+        List<Employee> batch = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int deptIndex = pickDepartment(random.nextDouble(), cumulativeWeights);
+            Department department = departments.get(deptIndex);
+            batch.add(new Employee(
+                    pickZipf(random, FIRST_NAMES) + " " + pickZipf(random, LAST_NAMES),
+                    department,
+                    designation(random, deptIndex),
+                    contact(random)));
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.setProperty("jakarta.persistence.cache.storeMode", CacheStoreMode.BYPASS);
+            employeeRepository.saveAll(batch);
+            entityManager.flush();
+            entityManager.clear();
+        });
+    }
+    
+    private static int pickDepartment(double u, double[] cumulativeWeights) {
+        int low = 0;
+        int high = cumulativeWeights.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumulativeWeights[mid] < u) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    
+    // Squaring a uniform value skews picks toward the front of the list, so the
+    // first names in each pool are several times more common than the last ones
+    private static String pickZipf(SplittableRandom random, String[] values) {
+        double u = random.nextDouble();
+        return values[(int) (u * u * values.length)];
+    }
+    
+    private static String designation(SplittableRandom random, int deptIndex) {
+        String[] family = DEPARTMENT_FAMILIES[deptIndex % DEPARTMENT_FAMILIES.length];
+        int roll = random.nextInt(1000);
+        int level = 0;
+        while (roll >= LEVEL_THRESHOLDS[level]) {
+            level++;
+        }
+        switch (LEVELS[level]) {
+            case "":
+                return family[1];
+            case "Manager":
+                return family[0] + " Manager";
+            case "Head of":
+                return "Head of " + family[0];
+            default:
+                return LEVELS[level] + " " + family[1];
+        }
+    }
+    
+    private static String contact(SplittableRandom random) {
+        // Mobile numbers start with 6-9; about 1 in 5 employees has an international number
+        String mobile = (6 + random.nextInt(4)) + String.format("%09d", random.nextInt(1_000_000_000));
+        if (random.nextInt(5) == 0) {
+            return COUNTRY_CODES[random.nextInt(COUNTRY_CODES.length)] + mobile;
+        }
+        return mobile;
+    }
+}
@@ -0,0 +1,37 @@
+package com.ems.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports at startup whether requests are served on virtual or platform threads.
+ * Spring Boot silently ignores spring.threads.virtual.enabled on runtimes older
+ * than Java 21, so a misconfigured run is called out here rather than producing
+ * platform-thread load test numbers under the wrong label.
+ */
+@Component
+public class ThreadingModeReporter {
+    
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsRequested;
+    
+    @Value("${server.tomcat.threads.max:200}")
+    private int maxRequestThreads;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void report() {
+        int javaVersion = Runtime.version().feature();
+        if (!virtualThreadsRequested) {
+            System.out.println("Request threads: platform (Tomcat pool of " + maxRequestThreads
+                    + ", Java " + javaVersion + ")");
+        } else if (javaVersion >= 21) {
+            System.out.println("Request threads: virtual (Java " + javaVersion + ")");
+        } else {
+            System.out.println("WARNING: spring.threads.virtual.enabled is set but Java " + javaVersion
+                    + " has no virtual threads; requests run on the platform Tomcat pool of "
+                    + maxRequestThreads);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.ems.config;
+
+import com.ems.metrics.RequestMetricsInterceptor;
+import com.ems.model.Department;
+import com.ems.security.AuthenticationInterceptor;
+import com.ems.service.DepartmentService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.format.Formatter;
+import org.springframework.format.FormatterRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.Locale;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+    
+    @Autowired
+    private DepartmentService departmentService;
+    
+    @Autowired
+    private AuthenticationInterceptor authenticationInterceptor;
+    
+    @Autowired
+    private RequestMetricsInterceptor requestMetricsInterceptor;
+    
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // First, so rejected and redirected requests are timed as well
+        registry.addInterceptor(requestMetricsInterceptor);
+        registry.addInterceptor(authenticationInterceptor)
+                .addPathPatterns("/**")
+                .excludePathPatterns("/", "/login", "/logout", "/error", "/h2-console/**");
+    }
+    
+    @Override
+    public void addFormatters(FormatterRegistry registry) {
+        // Forms submit the department id; resolve it from the cached department list
+        registry.addFormatter(new Formatter<Department>() {
+            @Override
+            public Department parse(String text, Locale locale) {
+                try {
+                    return departmentService.getDepartmentById(Long.valueOf(text.trim())).orElse(null);
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+            
+            @Override
+            public String print(Department department, Locale locale) {
+                return department.getDeptId() != null ? department.getDeptId().toString() : "";
+            }
+        });
+    }
+}
@@ -0,0 +1,28 @@
+package com.ems.controller;
+
+import org.springframework.http.CacheControl;
+
+/**
+ * Strong ETags for the JSON API, built from the data versions a response was
+ * read from rather than from the response body, so a matching conditional GET
+ * is answered before any query runs. Tags carry this process's start time, so
+ * tags handed out before a restart never match again.
+ */
+final class ApiEtags {
+    
+    // Clients may keep responses but must revalidate before reusing them
+    static final CacheControl CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+    
+    private static final String EPOCH = Long.toString(System.currentTimeMillis(), 36);
+    
+    private ApiEtags() {
+    }
+    
+    static String of(long... versions) {
+        StringBuilder etag = new StringBuilder("\"").append(EPOCH);
+        for (long version : versions) {
+            etag.append('-').append(version);
+        }
+        return etag.append('"').toString();
+    }
+}
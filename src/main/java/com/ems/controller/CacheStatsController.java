@@ -0,0 +1,36 @@
+package com.ems.controller;
+
+import com.ems.service.CacheStatisticsService;
+import com.ems.service.DepartmentService;
+import com.ems.service.FragmentCacheService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Controller
+public class CacheStatsController {
+    
+    @Autowired
+    private CacheStatisticsService cacheStatisticsService;
+    
+    @Autowired
+    private DepartmentService departmentService;
+    
+    @Autowired
+    private FragmentCacheService fragmentCacheService;
+    
+    @GetMapping("/cache-stats")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> cacheStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("secondLevel", cacheStatisticsService.getSecondLevelCacheStats());
+        stats.put("departmentSnapshot", departmentService.getCacheStats());
+        stats.put("fragments", fragmentCacheService.getCacheStats());
+        return ResponseEntity.ok(stats);
+    }
+}
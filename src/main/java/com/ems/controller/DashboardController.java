@@ -1,19 +1,23 @@
 package com.ems.controller;
 
-import com.ems.model.Department;
-import com.ems.model.Employee;
-import com.ems.service.DepartmentService;
+import com.ems.dto.DashboardSummary;
+import com.ems.feed.ChangeFeed;
+import com.ems.metrics.QueryBudget;
 import com.ems.service.EmployeeService;
+import com.ems.service.FragmentCacheService;
 import jakarta.servlet.http.HttpSession;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
+import org.springframework.util.function.SingletonSupplier;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.function.Supplier;
 
 @Controller
 public class DashboardController {
@@ -22,38 +26,50 @@ public class DashboardController {
     private EmployeeService employeeService;
     
     @Autowired
-    private DepartmentService departmentService;
+    private FragmentCacheService fragmentCache;
+    
+    @Autowired
+    private ChangeFeed changeFeed;
     
     @GetMapping("/dashboard")
+    @QueryBudget(2)
     public String showDashboard(Model model, HttpSession session) {
-        // Check if user is logged in
-        if (session.getAttribute("loggedIn") == null) {
-            return "redirect:/login";
-        }
-        
-        long totalEmployees = employeeService.getTotalEmployees();
-        long totalDepartments = departmentService.getTotalDepartments();
-        List<Employee> allEmployees = employeeService.getAllEmployees();
-        
-        // Calculate employees by department for chart
-        Map<String, Long> employeesByDept = allEmployees.stream()
-                .collect(Collectors.groupingBy(Employee::getDepartment, Collectors.counting()));
+        // Cards and chart data are cached per data version; on a miss both are rendered
+        // from one summary, whose counts and headcounts come from a single GROUP BY query
+        Supplier<Map<String, Object>> summaryModel = SingletonSupplier.of(() -> {
+            // Read before the query: a write landing in between makes the page look older
+            // than it is, and the change feed then has it reload instead of missing a delta
+            String version = changeFeed.currentVersion();
+            DashboardSummary summary = employeeService.getDashboardSummary();
+            
+            Map<String, Object> chartData = new HashMap<>();
+            chartData.put("ids", summary.getChartIds());
+            chartData.put("labels", summary.getChartLabels());
+            chartData.put("data", summary.getChartData());
+            chartData.put("version", version);
+            
+            Map<String, Object> figures = new HashMap<>();
+            figures.put("totalEmployees", summary.getTotalEmployees());
+            figures.put("totalDepartments", summary.getTotalDepartments());
+            figures.put("chartData", chartData);
+            figures.put("employeesByDept", summary.getEmployeesByDept());
+            return figures;
+        });
         
-        // Get department names for chart labels
-        List<Department> departments = departmentService.getAllDepartments();
-        Map<String, Object> chartData = new HashMap<>();
-        chartData.put("labels", departments.stream().map(Department::getDeptName).collect(Collectors.toList()));
-        chartData.put("data", departments.stream()
-                .map(dept -> employeesByDept.getOrDefault(dept.getDeptName(), 0L))
-                .collect(Collectors.toList()));
-        
-        model.addAttribute("totalEmployees", totalEmployees);
-        model.addAttribute("totalDepartments", totalDepartments);
         model.addAttribute("username", session.getAttribute("username"));
-        model.addAttribute("chartData", chartData);
-        model.addAttribute("employeesByDept", employeesByDept);
+        model.addAttribute("dashboardCards", fragmentCache.getFragment("fragments/dashboard", "cards", summaryModel));
+        model.addAttribute("dashboardChartData", fragmentCache.getFragment("fragments/dashboard", "chart-data", summaryModel));
         
         return "dashboard";
     }
+    
+    /**
+     * Live change events for open dashboards; see ChangeFeed.
+     */
+    @GetMapping(path = "/dashboard/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ResponseBody
+    @QueryBudget(0)
+    public SseEmitter dashboardEvents() {
+        return changeFeed.subscribe();
+    }
 }
-
@@ -0,0 +1,68 @@
+package com.ems.controller;
+
+import com.ems.metrics.QueryBudget;
+import com.ems.model.Department;
+import com.ems.service.DepartmentService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Read-only JSON view of departments, served from the department cache and
+ * tagged with its version.
+ */
+@RestController
+@RequestMapping("/api/departments")
+public class DepartmentApiController {
+    
+    @Autowired
+    private DepartmentService departmentService;
+    
+    @GetMapping
+    @QueryBudget(1)
+    public ResponseEntity<List<Map<String, Object>>> listDepartments(WebRequest webRequest) {
+        String etag = ApiEtags.of(departmentService.getDataVersion());
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        
+        List<Department> departments = departmentService.getAllDepartments();
+        List<Map<String, Object>> body = new ArrayList<>(departments.size());
+        for (Department department : departments) {
+            body.add(toJson(department));
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(ApiEtags.CACHE_CONTROL).body(body);
+    }
+    
+    @GetMapping("/{id}")
+    @QueryBudget(1)
+    public ResponseEntity<Map<String, Object>> getDepartment(@PathVariable Long id, WebRequest webRequest) {
+        String etag = ApiEtags.of(departmentService.getDataVersion());
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        
+        Optional<Department> department = departmentService.getDepartmentById(id);
+        if (department.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(ApiEtags.CACHE_CONTROL).body(toJson(department.get()));
+    }
+    
+    private static Map<String, Object> toJson(Department department) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("deptId", department.getDeptId());
+        json.put("deptName", department.getDeptName());
+        return json;
+    }
+}
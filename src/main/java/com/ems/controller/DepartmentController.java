@@ -1,15 +1,17 @@
 package com.ems.controller;
 
+import com.ems.metrics.QueryBudget;
 import com.ems.model.Department;
 import com.ems.service.DepartmentService;
-import jakarta.servlet.http.HttpSession;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.util.List;
+import java.util.Map;
 
 @Controller
 @RequestMapping("/departments")
@@ -19,26 +21,19 @@ public class DepartmentController {
     private DepartmentService departmentService;
     
     @GetMapping
-    public String listDepartments(Model model, HttpSession session) {
-        if (session.getAttribute("loggedIn") == null) {
-            return "redirect:/login";
-        }
-        
+    @QueryBudget(1)
+    public String listDepartments(Model model) {
         List<Department> departments = departmentService.getAllDepartments();
         model.addAttribute("departments", departments);
         return "departments";
     }
     
     @PostMapping("/add")
+    @QueryBudget(3)
     public String addDepartment(
             @RequestParam String deptName,
-            HttpSession session,
             RedirectAttributes redirectAttributes) {
         
-        if (session.getAttribute("loggedIn") == null) {
-            return "redirect:/login";
-        }
-        
         if (deptName == null || deptName.trim().isEmpty()) {
             redirectAttributes.addFlashAttribute("error", "Department name is required");
             return "redirect:/departments";
@@ -58,24 +53,57 @@ public class DepartmentController {
         return "redirect:/departments";
     }
     
-    @GetMapping("/delete/{id}")
-    public String deleteDepartment(
+    @PostMapping("/rename/{id}")
+    @QueryBudget(4)
+    public String renameDepartment(
             @PathVariable Long id,
-            HttpSession session,
+            @RequestParam String deptName,
             RedirectAttributes redirectAttributes) {
         
-        if (session.getAttribute("loggedIn") == null) {
-            return "redirect:/login";
+        if (deptName == null || deptName.trim().isEmpty()) {
+            redirectAttributes.addFlashAttribute("error", "Department name is required");
+            return "redirect:/departments";
         }
         
+        try {
+            Department department = departmentService.getDepartmentById(id)
+                    .orElseThrow(() -> new IllegalArgumentException("Invalid department ID: " + id));
+            // Employees reference the department by key, so a rename is a single-row update
+            Department renamed = new Department(deptName.trim());
+            renamed.setDeptId(department.getDeptId());
+            departmentService.saveDepartment(renamed);
+            redirectAttributes.addFlashAttribute("success", "Department renamed successfully");
+        } catch (IllegalArgumentException e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+        } catch (Exception e) {
+            redirectAttributes.addFlashAttribute("error", "Error renaming department: " + e.getMessage());
+        }
+        
+        return "redirect:/departments";
+    }
+    
+    @GetMapping("/delete/{id}")
+    @QueryBudget(3)
+    public String deleteDepartment(
+            @PathVariable Long id,
+            RedirectAttributes redirectAttributes) {
+        
         try {
             departmentService.deleteDepartment(id);
             redirectAttributes.addFlashAttribute("success", "Department deleted successfully");
+        } catch (IllegalArgumentException e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("error", "Error deleting department: " + e.getMessage());
         }
         
         return "redirect:/departments";
     }
+    
+    @GetMapping("/cache-stats")
+    @QueryBudget(0)
+    @ResponseBody
+    public ResponseEntity<Map<String, Long>> cacheStats() {
+        return ResponseEntity.ok(departmentService.getCacheStats());
+    }
 }
-
@@ -0,0 +1,131 @@
+package com.ems.controller;
+
+import com.ems.dto.EmployeeField;
+import com.ems.dto.EmployeePage;
+import com.ems.dto.EmployeeRow;
+import com.ems.dto.EmployeeSuggestion;
+import com.ems.metrics.QueryBudget;
+import com.ems.model.Department;
+import com.ems.model.Employee;
+import com.ems.service.DepartmentService;
+import com.ems.service.EmployeeService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Read-only JSON view of employees. Lists use the same keyset paging and
+ * filters as the employee page; every response carries an ETag, and a request
+ * whose If-None-Match still matches gets a 304 without touching the database.
+ * Lists and suggestions go untagged until the search indexes finish loading.
+ */
+@RestController
+@RequestMapping("/api/employees")
+public class EmployeeApiController {
+    
+    @Autowired
+    private EmployeeService employeeService;
+    
+    @Autowired
+    private DepartmentService departmentService;
+    
+    @GetMapping
+    @QueryBudget(3)
+    public ResponseEntity<Map<String, Object>> listEmployees(
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String department,
+            @RequestParam(required = false) String designation,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Long before,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String fields,
+            WebRequest webRequest) {
+        List<EmployeeField> selected = EmployeeField.parse(fields);
+        // Read the versions before the data: a write landing mid-read only makes the tag stale
+        String etag = indexEtag();
+        if (etag != null && webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        
+        EmployeePage page = employeeService.getEmployeesPage(search, department, designation, after, before, size);
+        List<Map<String, Object>> content = new ArrayList<>(page.getContent().size());
+        for (EmployeeRow row : page.getContent()) {
+            content.add(EmployeeField.select(row, selected));
+        }
+        
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("content", content);
+        body.put("size", page.getSize());
+        body.put("nextCursor", page.getNextCursor());
+        body.put("prevCursor", page.getPrevCursor());
+        return tagged(etag).body(body);
+    }
+    
+    /**
+     * Typeahead for the search box: employees whose name or designation, or a
+     * word in either, starts with q. Served from memory, so it issues no SQL.
+     */
+    @GetMapping("/suggest")
+    @QueryBudget(0)
+    public ResponseEntity<List<EmployeeSuggestion>> suggestEmployees(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) Integer limit,
+            WebRequest webRequest) {
+        String etag = indexEtag();
+        if (etag != null && webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return tagged(etag).body(employeeService.suggestEmployees(q, limit));
+    }
+    
+    @GetMapping("/{id}")
+    @QueryBudget(2)
+    public ResponseEntity<Map<String, Object>> getEmployee(
+            @PathVariable Long id,
+            @RequestParam(required = false) String fields,
+            WebRequest webRequest) {
+        List<EmployeeField> selected = EmployeeField.parse(fields);
+        String etag = ApiEtags.of(employeeService.getDataVersion(), departmentService.getDataVersion());
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        
+        Optional<Employee> found = employeeService.getEmployeeById(id);
+        if (found.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        Employee employee = found.get();
+        // Department names come from the department cache rather than the lazy association
+        String departmentName = departmentService.getDepartmentById(employee.getDepartment().getDeptId())
+                .map(Department::getDeptName)
+                .orElse(null);
+        EmployeeRow row = new EmployeeRow(employee.getEmpId(), employee.getName(), departmentName,
+                employee.getDesignation(), employee.getContact());
+        return ResponseEntity.ok().eTag(etag).cacheControl(ApiEtags.CACHE_CONTROL).body(EmployeeField.select(row, selected));
+    }
+    
+    // No tag while the search indexes are still loading: their answers may be missing rows
+    private String indexEtag() {
+        if (!employeeService.isIndexReady()) {
+            return null;
+        }
+        return ApiEtags.of(employeeService.getDataVersion(), departmentService.getDataVersion());
+    }
+    
+    private static ResponseEntity.BodyBuilder tagged(String etag) {
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok().cacheControl(ApiEtags.CACHE_CONTROL);
+        return etag != null ? ok.eTag(etag) : ok;
+    }
+    
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+}
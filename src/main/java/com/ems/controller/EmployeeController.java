@@ -1,18 +1,31 @@
 package com.ems.controller;
 
+import com.ems.dto.EmployeeFacetPage;
+import com.ems.dto.ImportReport;
+import com.ems.metrics.QueryBudget;
 import com.ems.model.Employee;
+import com.ems.service.AuditService;
 import com.ems.service.DepartmentService;
+import com.ems.service.EmployeeExportService;
+import com.ems.service.EmployeeExportService.ExportFormat;
+import com.ems.service.EmployeeImportService;
 import com.ems.service.EmployeeService;
-import jakarta.servlet.http.HttpSession;
+import com.ems.service.FragmentCacheService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Controller
 @RequestMapping("/employees")
@@ -24,54 +37,74 @@ public class EmployeeController {
     @Autowired
     private DepartmentService departmentService;
     
+    @Autowired
+    private EmployeeExportService exportService;
+    
+    @Autowired
+    private EmployeeImportService importService;
+    
+    @Autowired
+    private FragmentCacheService fragmentCache;
+    
+    @Autowired
+    private AuditService auditService;
+    
     @GetMapping
+    @QueryBudget(3)
     public String listEmployees(
             @RequestParam(required = false) String search,
             @RequestParam(required = false) String department,
-            Model model, HttpSession session) {
-        if (session.getAttribute("loggedIn") == null) {
-            return "redirect:/login";
-        }
+            @RequestParam(required = false) String designation,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Long before,
+            @RequestParam(required = false) Integer size,
+            Model model) {
+        // Rendered fragments are cached per data version, so a repeat view runs no queries
+        String employeeTable = fragmentCache.getFragment("fragments/employees", "table", () -> {
+            EmployeeFacetPage facets = employeeService.getEmployeeFacetPage(search, department, designation, after, before, size);
+            Map<String, Object> table = new HashMap<>();
+            table.put("employees", facets.getPage().getContent());
+            table.put("page", facets.getPage());
+            table.put("facets", facets);
+            table.put("searchQuery", search);
+            table.put("selectedDepartment", department);
+            table.put("selectedDesignation", designation);
+            return table;
+        }, search, department, designation, after, before, size);
+        String departmentOptions = fragmentCache.getFragment("fragments/employees", "department-options", () -> {
+            Map<String, Object> options = new HashMap<>();
+            options.put("departments", departmentService.getAllDepartments());
+            options.put("selectedDepartment", department);
+            return options;
+        }, department);
+        String departmentChoices = fragmentCache.getFragment("fragments/employees", "department-choices",
+                () -> Map.of("departments", departmentService.getAllDepartments()));
         
-        List<Employee> employees;
-        if (search != null && !search.trim().isEmpty()) {
-            employees = employeeService.searchEmployees(search.trim());
-        } else if (department != null && !department.trim().isEmpty()) {
-            employees = employeeService.getEmployeesByDepartment(department);
-        } else {
-            employees = employeeService.getAllEmployees();
-        }
-        
-        model.addAttribute("employees", employees);
-        model.addAttribute("departments", departmentService.getAllDepartments());
+        model.addAttribute("employeeTable", employeeTable);
+        model.addAttribute("departmentOptions", departmentOptions);
+        model.addAttribute("departmentChoices", departmentChoices);
         model.addAttribute("searchQuery", search);
         model.addAttribute("selectedDepartment", department);
+        model.addAttribute("selectedDesignation", designation);
         return "employees";
     }
     
     @GetMapping("/add")
-    public String showAddEmployeeForm(Model model, HttpSession session) {
-        if (session.getAttribute("loggedIn") == null) {
-            return "redirect:/login";
-        }
-        
+    @QueryBudget(1)
+    public String showAddEmployeeForm(Model model) {
         model.addAttribute("employee", new Employee());
         model.addAttribute("departments", departmentService.getAllDepartments());
         return "employee-form";
     }
     
     @PostMapping("/add")
+    @QueryBudget(3)
     public String addEmployee(
             @Valid @ModelAttribute Employee employee,
             BindingResult result,
             Model model,
-            HttpSession session,
             RedirectAttributes redirectAttributes) {
         
-        if (session.getAttribute("loggedIn") == null) {
-            return "redirect:/login";
-        }
-        
         if (result.hasErrors()) {
             model.addAttribute("departments", departmentService.getAllDepartments());
             return "employee-form";
@@ -89,11 +122,8 @@ public class EmployeeController {
     }
     
     @GetMapping("/edit/{id}")
-    public String showEditEmployeeForm(@PathVariable Long id, Model model, HttpSession session) {
-        if (session.getAttribute("loggedIn") == null) {
-            return "redirect:/login";
-        }
-        
+    @QueryBudget(2)
+    public String showEditEmployeeForm(@PathVariable Long id, Model model) {
         Employee employee = employeeService.getEmployeeById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Invalid employee ID: " + id));
         model.addAttribute("employee", employee);
@@ -102,18 +132,14 @@ public class EmployeeController {
     }
     
     @PostMapping("/update/{id}")
+    @QueryBudget(3)
     public String updateEmployee(
             @PathVariable Long id,
             @Valid @ModelAttribute Employee employee,
             BindingResult result,
             Model model,
-            HttpSession session,
             RedirectAttributes redirectAttributes) {
         
-        if (session.getAttribute("loggedIn") == null) {
-            return "redirect:/login";
-        }
-        
         if (result.hasErrors()) {
             model.addAttribute("departments", departmentService.getAllDepartments());
             return "employee-form";
@@ -132,15 +158,11 @@ public class EmployeeController {
     }
     
     @GetMapping("/delete/{id}")
+    @QueryBudget(3)
     public String deleteEmployee(
             @PathVariable Long id,
-            HttpSession session,
             RedirectAttributes redirectAttributes) {
         
-        if (session.getAttribute("loggedIn") == null) {
-            return "redirect:/login";
-        }
-        
         try {
             employeeService.deleteEmployee(id);
             redirectAttributes.addFlashAttribute("success", "Employee deleted successfully");
@@ -151,28 +173,124 @@ public class EmployeeController {
         return "redirect:/employees";
     }
     
-    @GetMapping("/view/{id}")
-    public String viewEmployee(@PathVariable Long id, Model model, HttpSession session) {
-        if (session.getAttribute("loggedIn") == null) {
-            return "redirect:/login";
+    @PostMapping("/bulk-delete")
+    @QueryBudget(2) // one SELECT and one DELETE per 1000 ids, more than the list page can select
+    public String bulkDeleteEmployees(
+            @RequestParam(name = "ids", required = false) List<Long> ids,
+            RedirectAttributes redirectAttributes) {
+        
+        if (ids == null || ids.isEmpty()) {
+            redirectAttributes.addFlashAttribute("error", "Please select at least one employee");
+            return "redirect:/employees";
         }
         
+        try {
+            int deleted = employeeService.deleteEmployees(ids);
+            redirectAttributes.addFlashAttribute("success", deleted + " employee(s) deleted successfully");
+        } catch (Exception e) {
+            redirectAttributes.addFlashAttribute("error", "Error deleting employees: " + e.getMessage());
+        }
+        
+        return "redirect:/employees";
+    }
+    
+    @PostMapping("/bulk-reassign")
+    @QueryBudget(2) // one UPDATE per 1000 ids, more than the list page can select
+    public String bulkReassignEmployees(
+            @RequestParam(name = "ids", required = false) List<Long> ids,
+            @RequestParam(required = false) Long deptId,
+            RedirectAttributes redirectAttributes) {
+        
+        if (ids == null || ids.isEmpty()) {
+            redirectAttributes.addFlashAttribute("error", "Please select at least one employee");
+            return "redirect:/employees";
+        }
+        if (deptId == null) {
+            redirectAttributes.addFlashAttribute("error", "Please choose a department to move the employees to");
+            return "redirect:/employees";
+        }
+        
+        try {
+            int updated = employeeService.reassignEmployees(ids, deptId);
+            redirectAttributes.addFlashAttribute("success", updated + " employee(s) reassigned successfully");
+        } catch (IllegalArgumentException e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+        } catch (Exception e) {
+            redirectAttributes.addFlashAttribute("error", "Error reassigning employees: " + e.getMessage());
+        }
+        
+        return "redirect:/employees";
+    }
+    
+    @GetMapping("/view/{id}")
+    @QueryBudget(2)
+    public String viewEmployee(@PathVariable Long id, Model model) {
         Employee employee = employeeService.getEmployeeById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Invalid employee ID: " + id));
         model.addAttribute("employee", employee);
         return "employee-details";
     }
     
-    @GetMapping("/export")
-    public String exportEmployees(HttpSession session, RedirectAttributes redirectAttributes) {
-        if (session.getAttribute("loggedIn") == null) {
-            return "redirect:/login";
+    @GetMapping("/history/{id}")
+    @QueryBudget(2)
+    public String viewEmployeeHistory(
+            @PathVariable Long id,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Long before,
+            Model model) {
+        // Deleted employees still have a history; the page then shows only their id
+        model.addAttribute("empId", id);
+        model.addAttribute("employee", employeeService.getEmployeeById(id).orElse(null));
+        model.addAttribute("history", auditService.getEmployeeHistory(id, after, before));
+        return "employee-history";
+    }
+    
+    // No @QueryBudget: statements grow with the file, one id block per 50 rows and one batched
+    // insert per ems.import.batch-size; QueryBudgetTest checks that they grow by batch, not by row
+    @PostMapping("/import")
+    public String importEmployees(
+            @RequestParam("file") MultipartFile file,
+            RedirectAttributes redirectAttributes) {
+        
+        if (file.isEmpty()) {
+            redirectAttributes.addFlashAttribute("error", "Please choose a CSV file to import");
+            return "redirect:/employees";
+        }
+        
+        try (InputStream input = file.getInputStream()) {
+            ImportReport report = importService.importCsv(input);
+            redirectAttributes.addFlashAttribute("importReport", report);
+            redirectAttributes.addFlashAttribute("success", "Imported " + report.getImported() + " of "
+                    + report.getRowsRead() + " rows in " + report.getElapsedMillis() + " ms ("
+                    + report.getRowsPerSecond() + " rows/sec)");
+        } catch (IllegalArgumentException e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+        } catch (Exception e) {
+            redirectAttributes.addFlashAttribute("error", "Error importing employees: " + e.getMessage());
         }
         
-        // This would typically export to CSV/Excel
-        // For now, just return success message
-        redirectAttributes.addFlashAttribute("success", "Export functionality coming soon!");
         return "redirect:/employees";
     }
+    
+    @GetMapping("/export")
+    @QueryBudget(2)
+    public void exportEmployees(
+            @RequestParam(required = false) String format,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String department,
+            @RequestParam(required = false) String designation,
+            HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.fromParameter(format);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+        
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Content-Disposition", "attachment; filename=\"employees." + exportFormat.getExtension() + "\"");
+        exportService.export(search, department, designation, exportFormat, response.getWriter());
+    }
 }
-
@@ -1,6 +1,9 @@
 package com.ems.controller;
 
+import com.ems.security.AuthenticationInterceptor;
+import com.ems.security.LoginRateLimiter;
 import com.ems.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
@@ -16,6 +19,9 @@ public class LoginController {
     @Autowired
     private UserService userService;
     
+    @Autowired
+    private LoginRateLimiter loginRateLimiter;
+    
     @GetMapping("/")
     public String index() {
         return "redirect:/login";
@@ -30,18 +36,37 @@ public class LoginController {
     public String login(
             @RequestParam String username,
             @RequestParam String password,
-            HttpSession session,
+            HttpServletRequest request,
             RedirectAttributes redirectAttributes) {
         
+        // Rejected before any user lookup or password hashing is done. Limited per client address
+        // and per account from that address, so one client can neither spray many accounts nor
+        // lock anyone else out of one; behind a trusted proxy the client address is the forwarded
+        // one (server.forward-headers-strategy)
+        if (!loginRateLimiter.tryAcquire(username, request.getRemoteAddr())) {
+            redirectAttributes.addFlashAttribute("error", "Too many login attempts, please wait a minute and try again");
+            return "redirect:/login";
+        }
+        
         if (username == null || username.trim().isEmpty() || 
             password == null || password.trim().isEmpty()) {
             redirectAttributes.addFlashAttribute("error", "Username and password are required");
             return "redirect:/login";
         }
         
-        if (userService.authenticate(username, password)) {
-            session.setAttribute("username", username);
-            session.setAttribute("loggedIn", true);
+        boolean authenticated;
+        try {
+            authenticated = userService.authenticate(username, password);
+        } catch (IllegalStateException e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+            return "redirect:/login";
+        }
+        
+        if (authenticated) {
+            HttpSession session = request.getSession();
+            request.changeSessionId();
+            session.setAttribute(AuthenticationInterceptor.USERNAME, username);
+            session.setAttribute(AuthenticationInterceptor.LOGGED_IN, true);
             return "redirect:/dashboard";
         } else {
             redirectAttributes.addFlashAttribute("error", "Invalid username or password");
@@ -55,4 +80,3 @@ public class LoginController {
         return "redirect:/login";
     }
 }
-
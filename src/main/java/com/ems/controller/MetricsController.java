@@ -0,0 +1,63 @@
+package com.ems.controller;
+
+import com.ems.audit.AuditTrail;
+import com.ems.datasource.ReadReplicas;
+import com.ems.feed.ChangeFeed;
+import com.ems.search.EmployeeFacetIndex;
+import com.ems.search.EmployeeTypeahead;
+import com.ems.service.MetricsReportService;
+import com.ems.session.JdbcSessionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Controller
+public class MetricsController {
+    
+    @Autowired
+    private MetricsReportService metricsReportService;
+    
+    @Autowired
+    private AuditTrail auditTrail;
+    
+    @Autowired
+    private ChangeFeed changeFeed;
+    
+    @Autowired
+    private EmployeeTypeahead typeahead;
+    
+    @Autowired
+    private EmployeeFacetIndex facetIndex;
+    
+    // Only present when read replicas are configured
+    @Autowired(required = false)
+    private ReadReplicas readReplicas;
+    
+    // Only present when sessions are kept in the database
+    @Autowired(required = false)
+    private JdbcSessionRepository sessionRepository;
+    
+    @GetMapping("/metrics")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("endpoints", metricsReportService.getEndpointStats());
+        metrics.put("services", metricsReportService.getServiceStats());
+        metrics.put("audit", auditTrail.getStats());
+        metrics.put("changeFeed", changeFeed.getStats());
+        metrics.put("typeahead", typeahead.getStats());
+        metrics.put("facets", facetIndex.getStats());
+        if (readReplicas != null) {
+            metrics.put("replicas", readReplicas.getStats());
+        }
+        if (sessionRepository != null) {
+            metrics.put("sessions", sessionRepository.getStats());
+        }
+        return ResponseEntity.ok(metrics);
+    }
+}
@@ -0,0 +1,189 @@
+package com.ems.datasource;
+
+import org.springframework.context.SmartLifecycle;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stands in for database replication when the replicas are local H2
+ * databases, so routing can be tried without a real replica: every sync
+ * interval the primary's tables are copied into each replica in one
+ * transaction. The schema is copied on the first run, and the data tables
+ * only when a write has been marked since the last copy.
+ * <p>
+ * The heartbeat rows are read from the primary before the data and written
+ * last, so a replica never claims a heartbeat newer than its data. Between
+ * syncs replicas fall behind exactly like lagging real ones.
+ */
+public class LocalReplicaSync implements SmartLifecycle {
+    
+    private static final int INSERT_BATCH_SIZE = 1000;
+    
+    private final DataSource primary;
+    private final List<DataSource> replicas;
+    private final List<String> tables;
+    private final long intervalMillis;
+    private final boolean[] schemaCopied;
+    private final long[] copiedWrites;
+    
+    private ScheduledExecutorService executor;
+    private volatile boolean running;
+    
+    public LocalReplicaSync(DataSource primary, ReadReplicas readReplicas, List<String> tables, long intervalMillis) {
+        this.primary = primary;
+        this.replicas = readReplicas.getReplicaDataSources();
+        this.tables = tables;
+        this.intervalMillis = intervalMillis;
+        this.schemaCopied = new boolean[replicas.size()];
+        this.copiedWrites = new long[replicas.size()];
+        Arrays.fill(copiedWrites, -1L);
+    }
+    
+    @Override
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "replica-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::syncAll, 0, intervalMillis, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+    
+    @Override
+    public void stop() {
+        running = false;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+    
+    @Override
+    public int getPhase() {
+        return ReadReplicas.PHASE + 1;
+    }
+    
+    private void syncAll() {
+        for (int i = 0; i < replicas.size(); i++) {
+            try {
+                sync(i);
+            } catch (SQLException | RuntimeException e) {
+                System.out.println("Replica sync: replica-" + (i + 1) + " failed: " + e.getMessage());
+            }
+        }
+    }
+    
+    private void sync(int replica) throws SQLException {
+        try (Connection source = primary.getConnection();
+             Connection target = replicas.get(replica).getConnection()) {
+            target.setReadOnly(false);
+            if (!schemaCopied[replica]) {
+                copySchema(source, target);
+                schemaCopied[replica] = true;
+            }
+            target.setAutoCommit(false);
+            try {
+                List<Object[]> heartbeats = readRows(source, ReadReplicas.HEARTBEAT_TABLE);
+                // Read after the heartbeats: every write marked before the newest one is counted here
+                long writes = ReplicaRouting.writeCount();
+                if (writes != copiedWrites[replica]) {
+                    long start = System.currentTimeMillis();
+                    int rows = 0;
+                    for (String table : tables) {
+                        rows += replaceRows(target, table, readRows(source, table));
+                    }
+                    System.out.println("Replica sync: copied " + rows + " rows to replica-" + (replica + 1)
+                            + " in " + (System.currentTimeMillis() - start) + " ms");
+                }
+                replaceRows(target, ReadReplicas.HEARTBEAT_TABLE, heartbeats);
+                target.commit();
+                copiedWrites[replica] = writes;
+            } catch (SQLException | RuntimeException e) {
+                target.rollback();
+                throw e;
+            }
+        }
+    }
+    
+    // Runs once per replica; replicas that already have tables are left as they are
+    private static void copySchema(Connection source, Connection target) throws SQLException {
+        try (Statement check = target.createStatement();
+             ResultSet count = check.executeQuery("SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES " +
+                     "WHERE TABLE_SCHEMA = 'PUBLIC'")) {
+            count.next();
+            if (count.getLong(1) > 0) {
+                return;
+            }
+        }
+        try (Statement script = source.createStatement();
+             ResultSet statements = script.executeQuery("SCRIPT NODATA");
+             Statement ddl = target.createStatement()) {
+            while (statements.next()) {
+                String sql = statements.getString(1);
+                if (!sql.startsWith("--")) {
+                    ddl.execute(sql);
+                }
+            }
+            // Rows arrive table by table, as replication would apply them, not in key order
+            ddl.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        }
+    }
+    
+    private static List<Object[]> readRows(Connection source, String table) throws SQLException {
+        List<Object[]> rows = new ArrayList<>();
+        try (Statement select = source.createStatement();
+             ResultSet result = select.executeQuery("SELECT * FROM " + table)) {
+            int columns = result.getMetaData().getColumnCount();
+            while (result.next()) {
+                Object[] row = new Object[columns];
+                for (int i = 0; i < columns; i++) {
+                    row[i] = result.getObject(i + 1);
+                }
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+    
+    private static int replaceRows(Connection target, String table, List<Object[]> rows) throws SQLException {
+        try (Statement delete = target.createStatement()) {
+            delete.executeUpdate("DELETE FROM " + table);
+        }
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        int columns = rows.get(0).length;
+        String insert = "INSERT INTO " + table + " VALUES (" + "?, ".repeat(columns - 1) + "?)";
+        try (PreparedStatement statement = target.prepareStatement(insert)) {
+            int batched = 0;
+            for (Object[] row : rows) {
+                for (int i = 0; i < columns; i++) {
+                    statement.setObject(i + 1, row[i]);
+                }
+                statement.addBatch();
+                if (++batched == INSERT_BATCH_SIZE) {
+                    statement.executeBatch();
+                    batched = 0;
+                }
+            }
+            statement.executeBatch();
+        }
+        return rows.size();
+    }
+}
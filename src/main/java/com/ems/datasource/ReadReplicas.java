@@ -0,0 +1,242 @@
+package com.ems.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The configured read replicas and how far behind the primary each one is.
+ * <p>
+ * Lag is measured with a heartbeat: every heartbeat interval this instance
+ * writes an increasing number to its row of replication_heartbeat on the
+ * primary, then reads the row back from each replica. A replica serves reads
+ * only once it has applied a heartbeat written after the last committed write
+ * (see {@link ReplicaRouting}), so anything read from it, and any cache entry
+ * or ETag built from that read, is as current as the primary. A replica that
+ * is behind or unreachable is skipped, and reads fall back to the primary.
+ * <p>
+ * On top of that, a session that has just written reads from the primary for
+ * ems.datasource.replica.read-your-writes-ms, which also covers writes made
+ * through another instance of the application.
+ */
+public class ReadReplicas implements SmartLifecycle, DisposableBean {
+    
+    static final String HEARTBEAT_TABLE = "replication_heartbeat";
+    
+    // Started before LocalReplicaSync, which copies the heartbeat table
+    static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 1;
+    
+    private final JdbcTemplate primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final long heartbeatMillis;
+    private final long readYourWritesMillis;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final AtomicInteger next = new AtomicInteger();
+    private final LongAdder readYourWritesFallbacks = new LongAdder();
+    private final LongAdder lagFallbacks = new LongAdder();
+    
+    private ScheduledExecutorService heartbeat;
+    private volatile boolean running;
+    
+    public ReadReplicas(DataSource primary, List<String> urls, String username, String password,
+                        long heartbeatMillis, long readYourWritesMillis) {
+        this.primary = new JdbcTemplate(primary);
+        this.heartbeatMillis = heartbeatMillis;
+        this.readYourWritesMillis = readYourWritesMillis;
+        for (String url : urls) {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName("replica-" + (replicas.size() + 1));
+            dataSource.setJdbcUrl(url.trim());
+            dataSource.setUsername(username);
+            dataSource.setPassword(password);
+            dataSource.setReadOnly(true);
+            replicas.add(new Replica(dataSource.getPoolName(), url.trim(), dataSource));
+        }
+    }
+    
+    /**
+     * Replica pools by routing key.
+     */
+    public Map<Object, Object> getDataSources() {
+        Map<Object, Object> dataSources = new LinkedHashMap<>();
+        for (Replica replica : replicas) {
+            dataSources.put(replica.key, replica.dataSource);
+        }
+        return dataSources;
+    }
+    
+    List<DataSource> getReplicaDataSources() {
+        List<DataSource> dataSources = new ArrayList<>();
+        for (Replica replica : replicas) {
+            dataSources.add(replica.dataSource);
+        }
+        return dataSources;
+    }
+    
+    /**
+     * Picks the replica for a read, round-robin among those that have caught
+     * up, or returns null when the read must go to the primary.
+     */
+    String choose(long sessionLastWrite) {
+        if (!running) {
+            return null;
+        }
+        if (sessionLastWrite > 0 && System.currentTimeMillis() - sessionLastWrite < readYourWritesMillis) {
+            readYourWritesFallbacks.increment();
+            return null;
+        }
+        int start = next.getAndIncrement();
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get(Math.floorMod(start + i, replicas.size()));
+            if (replica.isCurrent()) {
+                replica.reads.increment();
+                return replica.key;
+            }
+        }
+        lagFallbacks.increment();
+        return null;
+    }
+    
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("readYourWritesFallbacks", readYourWritesFallbacks.sum());
+        stats.put("lagFallbacks", lagFallbacks.sum());
+        long now = System.currentTimeMillis();
+        for (Replica replica : replicas) {
+            Map<String, Object> replicaStats = new LinkedHashMap<>();
+            replicaStats.put("url", replica.url);
+            replicaStats.put("available", replica.available);
+            replicaStats.put("caughtUp", replica.isCurrent());
+            replicaStats.put("lagMs", replica.lagMillis(now));
+            replicaStats.put("reads", replica.reads.sum());
+            stats.put(replica.key, replicaStats);
+        }
+        return stats;
+    }
+    
+    @Override
+    public void start() {
+        primary.execute("CREATE TABLE IF NOT EXISTS " + HEARTBEAT_TABLE + " (" +
+                "instance_id VARCHAR(36) NOT NULL PRIMARY KEY, " +
+                "beat BIGINT NOT NULL, " +
+                "beat_at_ms BIGINT NOT NULL)");
+        primary.update("INSERT INTO " + HEARTBEAT_TABLE + " (instance_id, beat, beat_at_ms) VALUES (?, 0, ?)",
+                instanceId, System.currentTimeMillis());
+        heartbeat = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "replica-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeat.scheduleWithFixedDelay(this::beat, 0, heartbeatMillis, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+    
+    @Override
+    public void stop() {
+        running = false;
+        if (heartbeat != null) {
+            heartbeat.shutdownNow();
+        }
+        try {
+            primary.update("DELETE FROM " + HEARTBEAT_TABLE + " WHERE instance_id = ?", instanceId);
+        } catch (DataAccessException e) {
+            System.out.println("Read replicas: could not remove heartbeat row: " + e.getMessage());
+        }
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+    
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+    
+    @Override
+    public void destroy() {
+        for (Replica replica : replicas) {
+            replica.dataSource.close();
+        }
+    }
+    
+    private void beat() {
+        try {
+            long beat = ReplicaRouting.nextHeartbeat();
+            primary.update("UPDATE " + HEARTBEAT_TABLE + " SET beat = ?, beat_at_ms = ? WHERE instance_id = ?",
+                    beat, System.currentTimeMillis(), instanceId);
+        } catch (DataAccessException e) {
+            // Replicas then look further behind than they are, which only sends more reads to the primary
+            System.out.println("Read replicas: heartbeat write failed: " + e.getMessage());
+        }
+        for (Replica replica : replicas) {
+            replica.check();
+        }
+    }
+    
+    private final class Replica {
+        
+        private final String key;
+        private final String url;
+        private final HikariDataSource dataSource;
+        private final JdbcTemplate jdbc;
+        private final LongAdder reads = new LongAdder();
+        private volatile boolean available;
+        private volatile long appliedBeat;
+        private volatile long appliedBeatAt;
+        
+        Replica(String key, String url, HikariDataSource dataSource) {
+            this.key = key;
+            this.url = url;
+            this.dataSource = dataSource;
+            this.jdbc = new JdbcTemplate(dataSource);
+        }
+        
+        boolean isCurrent() {
+            return available && ReplicaRouting.hasApplied(appliedBeat);
+        }
+        
+        // How long ago the newest heartbeat this replica has applied was written; 0 once caught up
+        long lagMillis(long now) {
+            if (isCurrent()) {
+                return 0;
+            }
+            return appliedBeatAt > 0 ? now - appliedBeatAt : -1;
+        }
+        
+        void check() {
+            try {
+                List<long[]> beats = jdbc.query("SELECT beat, beat_at_ms FROM " + HEARTBEAT_TABLE + " WHERE instance_id = ?",
+                        (row, i) -> new long[] {row.getLong(1), row.getLong(2)}, instanceId);
+                if (!beats.isEmpty()) {
+                    appliedBeat = beats.get(0)[0];
+                    appliedBeatAt = beats.get(0)[1];
+                }
+                if (!available) {
+                    System.out.println("Read replica " + key + " is available");
+                    available = true;
+                }
+            } catch (DataAccessException e) {
+                if (available) {
+                    System.out.println("Read replica " + key + " is unavailable: " + e.getMessage());
+                }
+                available = false;
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.ems.datasource;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a service method that only reads, so a call to it may be served by a
+ * read replica when replicas are configured. The method and everything it
+ * calls must not write: the whole call, including any transaction it starts,
+ * runs on the replica's connection.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReplicaRead {
+}
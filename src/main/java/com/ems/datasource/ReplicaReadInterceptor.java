@@ -0,0 +1,40 @@
+package com.ems.datasource;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Routes a {@link ReplicaRead} call to a replica that has caught up, if
+ * there is one. Runs outside the transaction interceptor, so the route is in
+ * place before the call's transaction takes a connection. A call made inside
+ * another one, or inside a transaction that is already open, stays on the
+ * connection already in use.
+ */
+public class ReplicaReadInterceptor implements MethodInterceptor {
+    
+    // Resolved lazily: the advisor is built before ordinary beans
+    private final ObjectProvider<ReadReplicas> readReplicas;
+    
+    public ReplicaReadInterceptor(ObjectProvider<ReadReplicas> readReplicas) {
+        this.readReplicas = readReplicas;
+    }
+    
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (ReplicaRouting.currentReplica() != null || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return invocation.proceed();
+        }
+        String replica = readReplicas.getObject().choose(ReplicaRouting.sessionLastWrite());
+        if (replica == null) {
+            return invocation.proceed();
+        }
+        ReplicaRouting.routeTo(replica);
+        try {
+            return invocation.proceed();
+        } finally {
+            ReplicaRouting.routeTo(null);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.ems.datasource;
+
+import jakarta.servlet.http.HttpSession;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The replica the current thread's reads are routed to, and the write marks
+ * replicas are checked against. Every committed write calls
+ * {@link #markWrite()}, which records the newest heartbeat issued so far; a
+ * replica has caught up once it has applied a later heartbeat, because that
+ * heartbeat was committed on the primary after the write.
+ */
+public final class ReplicaRouting {
+    
+    static final String SESSION_LAST_WRITE = "ems.replica.lastWriteAt";
+    
+    private static final ThreadLocal<String> ROUTE = new ThreadLocal<>();
+    
+    private static final AtomicLong HEARTBEAT = new AtomicLong();
+    private static final AtomicLong LAST_WRITE_HEARTBEAT = new AtomicLong();
+    private static final AtomicLong WRITES = new AtomicLong();
+    
+    private ReplicaRouting() {
+    }
+    
+    /**
+     * Records that data changed. Callers invoke this once their transaction
+     * has committed; from then on reads avoid replicas that have not applied
+     * it, and the writing session reads from the primary for its
+     * read-your-writes window.
+     */
+    public static void markWrite() {
+        WRITES.incrementAndGet();
+        // Concurrent writers may finish out of order; the mark only moves forward
+        LAST_WRITE_HEARTBEAT.accumulateAndGet(HEARTBEAT.get(), Math::max);
+        HttpSession session = currentSession();
+        if (session != null) {
+            session.setAttribute(SESSION_LAST_WRITE, System.currentTimeMillis());
+        }
+    }
+    
+    /**
+     * Key of the replica this thread is reading from, or null for the primary.
+     */
+    static String currentReplica() {
+        return ROUTE.get();
+    }
+    
+    static void routeTo(String replica) {
+        if (replica != null) {
+            ROUTE.set(replica);
+        } else {
+            ROUTE.remove();
+        }
+    }
+    
+    static long nextHeartbeat() {
+        return HEARTBEAT.incrementAndGet();
+    }
+    
+    static boolean hasApplied(long appliedHeartbeat) {
+        return appliedHeartbeat > LAST_WRITE_HEARTBEAT.get();
+    }
+    
+    static long writeCount() {
+        return WRITES.get();
+    }
+    
+    /**
+     * When the current session last wrote, in epoch millis, or 0 if it has
+     * not (or there is no session).
+     */
+    static long sessionLastWrite() {
+        HttpSession session = currentSession();
+        Object lastWrite = session != null ? session.getAttribute(SESSION_LAST_WRITE) : null;
+        return lastWrite instanceof Long millis ? millis : 0L;
+    }
+    
+    private static HttpSession currentSession() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes instanceof ServletRequestAttributes servlet ? servlet.getRequest().getSession(false) : null;
+    }
+}
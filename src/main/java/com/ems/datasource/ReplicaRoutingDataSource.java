@@ -0,0 +1,15 @@
+package com.ems.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Hands out connections from the replica the current thread was routed to
+ * by a {@link ReplicaRead} call, and from the primary otherwise.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ReplicaRouting.currentReplica();
+    }
+}
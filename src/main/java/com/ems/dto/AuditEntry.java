@@ -0,0 +1,72 @@
+package com.ems.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One row of an entity's change history, with its field changes unpacked
+ * for display.
+ */
+public class AuditEntry {
+    
+    private final Long eventId;
+    private final LocalDateTime changedAt;
+    private final String username;
+    private final String action;
+    private final List<FieldChange> changes;
+    
+    public AuditEntry(Long eventId, LocalDateTime changedAt, String username, String action, List<FieldChange> changes) {
+        this.eventId = eventId;
+        this.changedAt = changedAt;
+        this.username = username;
+        this.action = action;
+        this.changes = changes;
+    }
+    
+    // Getters
+    public Long getEventId() {
+        return eventId;
+    }
+    
+    public LocalDateTime getChangedAt() {
+        return changedAt;
+    }
+    
+    public String getUsername() {
+        return username;
+    }
+    
+    public String getAction() {
+        return action;
+    }
+    
+    public List<FieldChange> getChanges() {
+        return changes;
+    }
+    
+    public static class FieldChange {
+        
+        private final String field;
+        private final String from;
+        private final String to;
+        
+        public FieldChange(String field, String from, String to) {
+            this.field = field;
+            this.from = from;
+            this.to = to;
+        }
+        
+        // Getters
+        public String getField() {
+            return field;
+        }
+        
+        public String getFrom() {
+            return from;
+        }
+        
+        public String getTo() {
+            return to;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.ems.dto;
+
+import java.util.List;
+
+/**
+ * One page of an entity's history from a keyset query, newest first.
+ * The cursors are the boundary event ids to pass back as "before" for
+ * older entries and "after" for newer ones, or null when there are none.
+ */
+public class AuditPage {
+    
+    private final List<AuditEntry> entries;
+    private final int size;
+    private final Long olderCursor;
+    private final Long newerCursor;
+    
+    public AuditPage(List<AuditEntry> entries, int size, Long olderCursor, Long newerCursor) {
+        this.entries = entries;
+        this.size = size;
+        this.olderCursor = olderCursor;
+        this.newerCursor = newerCursor;
+    }
+    
+    // Getters
+    public List<AuditEntry> getEntries() {
+        return entries;
+    }
+    
+    public int getSize() {
+        return size;
+    }
+    
+    public Long getOlderCursor() {
+        return olderCursor;
+    }
+    
+    public Long getNewerCursor() {
+        return newerCursor;
+    }
+    
+    public boolean hasOlder() {
+        return olderCursor != null;
+    }
+    
+    public boolean hasNewer() {
+        return newerCursor != null;
+    }
+}
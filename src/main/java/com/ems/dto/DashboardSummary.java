@@ -0,0 +1,62 @@
+package com.ems.dto;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dashboard figures folded from the per-department headcount rows,
+ * so the page is served by a single aggregate query.
+ */
+public class DashboardSummary {
+    
+    private long totalEmployees;
+    private long totalDepartments;
+    private final List<Long> chartIds = new ArrayList<>();
+    private final List<String> chartLabels = new ArrayList<>();
+    private final List<Long> chartData = new ArrayList<>();
+    private final Map<String, Long> employeesByDept = new LinkedHashMap<>();
+    
+    public static DashboardSummary from(List<DepartmentHeadcount> rows) {
+        DashboardSummary summary = new DashboardSummary();
+        for (DepartmentHeadcount row : rows) {
+            long count = row.getEmployeeCount() != null ? row.getEmployeeCount() : 0L;
+            summary.totalEmployees += count;
+            summary.totalDepartments++;
+            summary.chartIds.add(row.getDeptId());
+            summary.chartLabels.add(row.getDepartment());
+            summary.chartData.add(count);
+            if (count > 0) {
+                summary.employeesByDept.put(row.getDepartment(), count);
+            }
+        }
+        return summary;
+    }
+    
+    // Getters
+    public long getTotalEmployees() {
+        return totalEmployees;
+    }
+    
+    public long getTotalDepartments() {
+        return totalDepartments;
+    }
+    
+    // Department ids in chart order, so live updates can find a department's bar
+    public List<Long> getChartIds() {
+        return chartIds;
+    }
+    
+    public List<String> getChartLabels() {
+        return chartLabels;
+    }
+    
+    public List<Long> getChartData() {
+        return chartData;
+    }
+    
+    public Map<String, Long> getEmployeesByDept() {
+        return employeesByDept;
+    }
+}
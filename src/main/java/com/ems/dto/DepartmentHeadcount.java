@@ -0,0 +1,14 @@
+package com.ems.dto;
+
+/**
+ * Projection row for the dashboard aggregation: one row per department
+ * with its employee count.
+ */
+public interface DepartmentHeadcount {
+    
+    Long getDeptId();
+    
+    String getDepartment();
+    
+    Long getEmployeeCount();
+}
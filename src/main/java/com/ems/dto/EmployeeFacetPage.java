@@ -0,0 +1,39 @@
+package com.ems.dto;
+
+import java.util.List;
+
+/**
+ * One page of the filtered employee list with the total number of matches
+ * and the department and designation counts for the filter sidebar.
+ */
+public class EmployeeFacetPage {
+    
+    private final EmployeePage page;
+    private final long total;
+    private final List<FacetCount> departments;
+    private final List<FacetCount> designations;
+    
+    public EmployeeFacetPage(EmployeePage page, long total, List<FacetCount> departments, List<FacetCount> designations) {
+        this.page = page;
+        this.total = total;
+        this.departments = departments;
+        this.designations = designations;
+    }
+    
+    // Getters
+    public EmployeePage getPage() {
+        return page;
+    }
+    
+    public long getTotal() {
+        return total;
+    }
+    
+    public List<FacetCount> getDepartments() {
+        return departments;
+    }
+    
+    public List<FacetCount> getDesignations() {
+        return designations;
+    }
+}
@@ -0,0 +1,62 @@
+package com.ems.dto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Employee fields the JSON API can return, by their JSON name. Clients pick a
+ * subset with fields=name,department; without it every field is returned.
+ */
+public enum EmployeeField {
+    
+    EMP_ID("empId", EmployeeRow::getEmpId),
+    NAME("name", EmployeeRow::getName),
+    DEPARTMENT("department", EmployeeRow::getDepartmentName),
+    DESIGNATION("designation", EmployeeRow::getDesignation),
+    CONTACT("contact", EmployeeRow::getContact);
+    
+    private static final List<EmployeeField> ALL = List.of(values());
+    
+    private final String jsonName;
+    private final Function<EmployeeRow, Object> accessor;
+    
+    EmployeeField(String jsonName, Function<EmployeeRow, Object> accessor) {
+        this.jsonName = jsonName;
+        this.accessor = accessor;
+    }
+    
+    /**
+     * Parses a comma-separated field list in the order given. Blank means all
+     * fields; an unknown name is rejected.
+     */
+    public static List<EmployeeField> parse(String fields) {
+        if (fields == null || fields.trim().isEmpty()) {
+            return ALL;
+        }
+        List<EmployeeField> selected = new ArrayList<>();
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            EmployeeField field = Arrays.stream(values())
+                    .filter(candidate -> candidate.jsonName.equalsIgnoreCase(trimmed))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown field: " + trimmed
+                            + " (expected any of empId, name, department, designation, contact)"));
+            if (!selected.contains(field)) {
+                selected.add(field);
+            }
+        }
+        return selected;
+    }
+    
+    public static Map<String, Object> select(EmployeeRow row, List<EmployeeField> fields) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        for (EmployeeField field : fields) {
+            json.put(field.jsonName, field.accessor.apply(row));
+        }
+        return json;
+    }
+}
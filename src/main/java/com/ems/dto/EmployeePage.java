@@ -0,0 +1,48 @@
+package com.ems.dto;
+
+import java.util.List;
+
+/**
+ * One page of employees from a keyset (seek) query ordered by empId.
+ * The cursors are the boundary ids to pass back as "after" / "before"
+ * for the next and previous pages, or null when there is no such page.
+ */
+public class EmployeePage {
+    
+    private final List<EmployeeRow> content;
+    private final int size;
+    private final Long nextCursor;
+    private final Long prevCursor;
+    
+    public EmployeePage(List<EmployeeRow> content, int size, Long nextCursor, Long prevCursor) {
+        this.content = content;
+        this.size = size;
+        this.nextCursor = nextCursor;
+        this.prevCursor = prevCursor;
+    }
+    
+    // Getters
+    public List<EmployeeRow> getContent() {
+        return content;
+    }
+    
+    public int getSize() {
+        return size;
+    }
+    
+    public Long getNextCursor() {
+        return nextCursor;
+    }
+    
+    public Long getPrevCursor() {
+        return prevCursor;
+    }
+    
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+    
+    public boolean hasPrevious() {
+        return prevCursor != null;
+    }
+}
@@ -0,0 +1,44 @@
+package com.ems.dto;
+
+/**
+ * Read-only view of an employee with just the columns the list, search
+ * and export views display. Built by JPQL constructor expressions, so no
+ * entity is instantiated, snapshotted or dirty-checked.
+ */
+public class EmployeeRow {
+    
+    private final Long empId;
+    private final String name;
+    private final String departmentName;
+    private final String designation;
+    private final String contact;
+    
+    public EmployeeRow(Long empId, String name, String departmentName, String designation, String contact) {
+        this.empId = empId;
+        this.name = name;
+        this.departmentName = departmentName;
+        this.designation = designation;
+        this.contact = contact;
+    }
+    
+    // Getters
+    public Long getEmpId() {
+        return empId;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public String getDepartmentName() {
+        return departmentName;
+    }
+    
+    public String getDesignation() {
+        return designation;
+    }
+    
+    public String getContact() {
+        return contact;
+    }
+}
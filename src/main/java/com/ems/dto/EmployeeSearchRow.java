@@ -0,0 +1,16 @@
+package com.ems.dto;
+
+/**
+ * Projection of the columns the search index needs, used to rebuild it
+ * without hydrating full Employee entities.
+ */
+public interface EmployeeSearchRow {
+    
+    Long getEmpId();
+    
+    String getName();
+    
+    Long getDeptId();
+    
+    String getDesignation();
+}
@@ -0,0 +1,37 @@
+package com.ems.dto;
+
+/**
+ * One typeahead match: the employee and the field whose text starts with
+ * the typed prefix, or has a word that does.
+ */
+public class EmployeeSuggestion {
+    
+    private final Long empId;
+    private final String name;
+    private final String designation;
+    private final String matchedField;
+    
+    public EmployeeSuggestion(Long empId, String name, String designation, String matchedField) {
+        this.empId = empId;
+        this.name = name;
+        this.designation = designation;
+        this.matchedField = matchedField;
+    }
+    
+    // Getters
+    public Long getEmpId() {
+        return empId;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public String getDesignation() {
+        return designation;
+    }
+    
+    public String getMatchedField() {
+        return matchedField;
+    }
+}
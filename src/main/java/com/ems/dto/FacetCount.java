@@ -0,0 +1,31 @@
+package com.ems.dto;
+
+/**
+ * One value of a list filter with the number of employees it would show,
+ * given the other filters in force.
+ */
+public class FacetCount {
+    
+    private final String value;
+    private final long count;
+    private final boolean selected;
+    
+    public FacetCount(String value, long count, boolean selected) {
+        this.value = value;
+        this.count = count;
+        this.selected = selected;
+    }
+    
+    // Getters
+    public String getValue() {
+        return value;
+    }
+    
+    public long getCount() {
+        return count;
+    }
+    
+    public boolean isSelected() {
+        return selected;
+    }
+}
@@ -0,0 +1,93 @@
+package com.ems.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk import: row counts, throughput and the per-row errors
+ * (capped, so a badly formed file cannot blow up the report itself).
+ * Serializable because it reaches the next page as a flash attribute,
+ * which shared sessions store in the database.
+ */
+public class ImportReport implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    private static final int MAX_REPORTED_ERRORS = 500;
+    
+    private long rowsRead;
+    private long imported;
+    private long failed;
+    private long elapsedMillis;
+    private final List<RowError> errors = new ArrayList<>();
+    
+    public void rowRead() {
+        rowsRead++;
+    }
+    
+    public void imported(int count) {
+        imported += count;
+    }
+    
+    public void rowFailed(long line, String message) {
+        failed++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new RowError(line, message));
+        }
+    }
+    
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+    
+    // Getters
+    public long getRowsRead() {
+        return rowsRead;
+    }
+    
+    public long getImported() {
+        return imported;
+    }
+    
+    public long getFailed() {
+        return failed;
+    }
+    
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+    
+    public long getRowsPerSecond() {
+        return elapsedMillis > 0 ? imported * 1000 / elapsedMillis : imported;
+    }
+    
+    public List<RowError> getErrors() {
+        return errors;
+    }
+    
+    public boolean isTruncated() {
+        return failed > errors.size();
+    }
+    
+    public static class RowError implements Serializable {
+        
+        private static final long serialVersionUID = 1L;
+        
+        private final long line;
+        private final String message;
+        
+        public RowError(long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+        
+        public long getLine() {
+            return line;
+        }
+        
+        public String getMessage() {
+            return message;
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package com.ems.feed;
+
+import com.ems.service.DepartmentService;
+import com.ems.service.EmployeeService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Server-Sent Events feed of committed employee and department changes for
+ * the dashboard. Events are compact: headcount deltas per department id, or
+ * one department's create/rename/delete. Each carries the data version after
+ * the change, and every connection starts with a "hello" carrying the current
+ * version, so a page can tell whether it missed anything.
+ * <p>
+ * Publishing never blocks the writer: an event is serialized once and
+ * appended to each subscriber's bounded outbox, which a small sender pool
+ * drains. A subscriber whose outbox fills up has its backlog coalesced into a
+ * single "resync" event and its stream closed; the page reloads its figures
+ * instead of replaying every change it fell behind on.
+ * <p>
+ * A write to a client that stopped reading blocks its sender thread until the
+ * container's socket timeout. A watchdog on its own thread drops any client
+ * whose write has taken longer than the send timeout, and adds a sender
+ * thread to stand in for the stuck one until its write returns, so a stalled
+ * client delays everyone else by at most the send timeout.
+ */
+@Component
+public class ChangeFeed implements DisposableBean {
+    
+    // Markers for a subscriber's write start time: no write in progress, or given up on
+    private static final long IDLE = Long.MIN_VALUE;
+    private static final long STALLED = Long.MAX_VALUE;
+    
+    private final ObjectProvider<EmployeeService> employeeService;
+    private final ObjectProvider<DepartmentService> departmentService;
+    private final ObjectMapper objectMapper;
+    private final ScheduledThreadPoolExecutor sender;
+    private final ScheduledExecutorService watchdog;
+    private final int senderThreads;
+    private final int maxSenderThreads;
+    private final int clientBuffer;
+    private final long timeoutMillis;
+    private final long sendTimeoutNanos;
+    
+    // Distinguishes versions across restarts, which both start counting from zero
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+    
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final LongAdder published = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder resyncs = new LongAdder();
+    private final LongAdder disconnects = new LongAdder();
+    private final LongAdder stalls = new LongAdder();
+    
+    // Sender threads added in place of ones blocked on stalled clients; guarded by this
+    private int standIns;
+    
+    // Resolved lazily: both services publish to this feed
+    public ChangeFeed(ObjectProvider<EmployeeService> employeeService,
+                      ObjectProvider<DepartmentService> departmentService,
+                      ObjectMapper objectMapper,
+                      @Value("${ems.change-feed.sender-threads:2}") int senderThreads,
+                      @Value("${ems.change-feed.client-buffer:64}") int clientBuffer,
+                      @Value("${ems.change-feed.heartbeat-seconds:20}") long heartbeatSeconds,
+                      @Value("${ems.change-feed.timeout-minutes:30}") long timeoutMinutes,
+                      @Value("${ems.change-feed.send-timeout-ms:5000}") long sendTimeoutMillis,
+                      @Value("${ems.change-feed.max-sender-threads:8}") int maxSenderThreads) {
+        this.employeeService = employeeService;
+        this.departmentService = departmentService;
+        this.objectMapper = objectMapper;
+        this.senderThreads = senderThreads;
+        this.maxSenderThreads = Math.max(senderThreads, maxSenderThreads);
+        this.clientBuffer = clientBuffer;
+        this.timeoutMillis = TimeUnit.MINUTES.toMillis(timeoutMinutes);
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis);
+        AtomicInteger threads = new AtomicInteger();
+        this.sender = new ScheduledThreadPoolExecutor(senderThreads, task -> {
+            Thread thread = new Thread(task, "change-feed-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Comments keep idle connections open through proxies and surface dead ones
+        sender.scheduleAtFixedRate(() -> broadcast(SseEmitter.event().comment("ping").build()),
+                heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+        // Not on the sender pool, which is exactly what stalled clients can use up
+        this.watchdog = new ScheduledThreadPoolExecutor(1, task -> {
+            Thread thread = new Thread(task, "change-feed-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long checkMillis = Math.max(50, sendTimeoutMillis / 4);
+        watchdog.scheduleWithFixedDelay(this::dropStalledSubscribers, checkMillis, checkMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    public SseEmitter subscribe() {
+        return subscribe(new SseEmitter(timeoutMillis));
+    }
+    
+    SseEmitter subscribe(SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+        subscribers.add(subscriber);
+        subscriber.offer(SseEmitter.event().name("hello").data(toJson(Map.of("v", currentVersion()))).build());
+        return emitter;
+    }
+    
+    /**
+     * Publishes employee headcount changes, keyed by department id. Zero
+     * deltas are dropped; nothing is sent when none remain.
+     */
+    public void publishHeadcounts(Map<Long, Long> deltasByDepartment) {
+        Map<Long, Long> deltas = new LinkedHashMap<>();
+        deltasByDepartment.forEach((deptId, delta) -> {
+            if (deptId != null && delta != 0) {
+                deltas.put(deptId, delta);
+            }
+        });
+        if (deltas.isEmpty()) {
+            return;
+        }
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("v", currentVersion());
+        event.put("d", deltas);
+        publish("employees", event);
+    }
+    
+    /**
+     * Publishes a department change; op is "create", "rename" or "delete".
+     */
+    public void publishDepartment(String op, Long deptId, String name) {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("v", currentVersion());
+        event.put("op", op);
+        event.put("id", deptId);
+        if (name != null) {
+            event.put("name", name);
+        }
+        publish("department", event);
+    }
+    
+    /**
+     * The data version the dashboard figures are tagged with: employee and
+     * department versions, prefixed with this run's boot id.
+     */
+    public String currentVersion() {
+        return bootId + "-" + employeeService.getObject().getDataVersion() + "-" + departmentService.getObject().getDataVersion();
+    }
+    
+    public Map<String, Long> getStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("subscribers", (long) subscribers.size());
+        stats.put("published", published.sum());
+        stats.put("delivered", delivered.sum());
+        stats.put("resyncs", resyncs.sum());
+        stats.put("disconnects", disconnects.sum());
+        stats.put("stalls", stalls.sum());
+        stats.put("senderThreads", (long) sender.getCorePoolSize());
+        return stats;
+    }
+    
+    @Override
+    public void destroy() {
+        watchdog.shutdownNow();
+        sender.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        subscribers.clear();
+    }
+    
+    private void publish(String name, Map<String, Object> event) {
+        published.increment();
+        if (!subscribers.isEmpty()) {
+            // Built once and shared: every subscriber is sent the same encoded event
+            broadcast(SseEmitter.event().name(name).data(toJson(event)).build());
+        }
+    }
+    
+    private void broadcast(Set<DataWithMediaType> event) {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(event);
+        }
+    }
+    
+    private void dropStalledSubscribers() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.stallIfSendingSince(now - sendTimeoutNanos)) {
+                stalls.increment();
+                adjustStandIns(1);
+            }
+        }
+    }
+    
+    // Stand-ins are bounded so a crowd of stalled clients cannot grow the pool without limit
+    private synchronized void adjustStandIns(int delta) {
+        standIns += delta;
+        sender.setCorePoolSize(Math.min(maxSenderThreads, senderThreads + standIns));
+    }
+    
+    private String toJson(Map<String, Object> event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize change event", e);
+        }
+    }
+    
+    /**
+     * One connected page. Its outbox is bounded by a slot count claimed before
+     * each append, and at most one sender task drains it at a time, so events
+     * reach each client in publish order. While a write is in progress its start
+     * time is kept for the watchdog, which swaps in {@link #STALLED} to claim it.
+     */
+    private final class Subscriber implements Runnable {
+        
+        private final SseEmitter emitter;
+        private final ConcurrentLinkedQueue<Set<DataWithMediaType>> outbox = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicLong sendingSince = new AtomicLong(IDLE);
+        private volatile boolean overflowed;
+        private volatile boolean closed;
+        
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+        
+        void offer(Set<DataWithMediaType> event) {
+            if (closed) {
+                return;
+            }
+            if (pending.incrementAndGet() > clientBuffer) {
+                pending.decrementAndGet();
+                overflowed = true;
+            } else {
+                outbox.offer(event);
+            }
+            schedule();
+        }
+        
+        @Override
+        public void run() {
+            try {
+                if (overflowed) {
+                    resyncs.increment();
+                    outbox.clear();
+                    if (!send(SseEmitter.event().name("resync").data("{}").build())) {
+                        return;
+                    }
+                    close();
+                    emitter.complete();
+                    return;
+                }
+                Set<DataWithMediaType> event;
+                while (!closed && (event = outbox.poll()) != null) {
+                    pending.decrementAndGet();
+                    if (!send(event)) {
+                        return;
+                    }
+                    delivered.increment();
+                }
+            } catch (IOException | IllegalStateException e) {
+                // The client went away or the async request already ended
+                disconnects.increment();
+                close();
+            } finally {
+                scheduled.set(false);
+            }
+            if (!closed && (overflowed || !outbox.isEmpty())) {
+                schedule();
+            }
+        }
+        
+        void close() {
+            closed = true;
+            subscribers.remove(this);
+        }
+        
+        boolean stallIfSendingSince(long deadline) {
+            long since = sendingSince.get();
+            if (since == IDLE || since == STALLED || since - deadline > 0
+                    || !sendingSince.compareAndSet(since, STALLED)) {
+                return false;
+            }
+            close();
+            return true;
+        }
+        
+        // False when the watchdog gave up on this client while the write was blocked; its stand-in
+        // thread is retired now that this one is free again, and the stream is ended
+        private boolean send(Set<DataWithMediaType> event) throws IOException {
+            boolean stalled;
+            sendingSince.set(System.nanoTime());
+            try {
+                emitter.send(event);
+            } finally {
+                stalled = sendingSince.getAndSet(IDLE) == STALLED;
+                if (stalled) {
+                    adjustStandIns(-1);
+                }
+            }
+            if (stalled) {
+                emitter.complete();
+            }
+            return !stalled;
+        }
+        
+        private void schedule() {
+            if (!closed && scheduled.compareAndSet(false, true)) {
+                try {
+                    sender.execute(this);
+                } catch (RejectedExecutionException e) {
+                    // Shutting down
+                    scheduled.set(false);
+                }
+            }
+        }
+    }
+}
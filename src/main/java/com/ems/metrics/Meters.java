@@ -0,0 +1,53 @@
+package com.ems.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+
+/**
+ * Names and histogram layout shared by every EMS meter. Timers keep fixed
+ * latency buckets plus p50/p90/p99 over a short rolling window, so recording
+ * is a bucket increment with no allocation once the meter exists.
+ */
+public final class Meters {
+    
+    public static final String HTTP_REQUESTS = "ems.http.requests";
+    public static final String HTTP_ERRORS = "ems.http.errors";
+    public static final String HTTP_SQL_STATEMENTS = "ems.http.sql.statements";
+    public static final String HTTP_SQL_TIME = "ems.http.sql.time";
+    public static final String HTTP_SQL_BUDGET = "ems.http.sql.budget";
+    public static final String HTTP_SQL_OVER_BUDGET = "ems.http.sql.over.budget";
+    public static final String SERVICE_CALLS = "ems.service.calls";
+    public static final String SERVICE_ERRORS = "ems.service.errors";
+    
+    public static final double[] PERCENTILES = {0.5, 0.9, 0.99};
+    
+    private static final Duration[] LATENCY_BUCKETS = {
+            Duration.ofMillis(1), Duration.ofMillis(2), Duration.ofMillis(5), Duration.ofMillis(10),
+            Duration.ofMillis(25), Duration.ofMillis(50), Duration.ofMillis(100), Duration.ofMillis(250),
+            Duration.ofMillis(500), Duration.ofSeconds(1), Duration.ofMillis(2500), Duration.ofSeconds(5),
+            Duration.ofSeconds(10)};
+    
+    private static final double[] STATEMENT_BUCKETS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000};
+    
+    private Meters() {
+    }
+    
+    public static Timer timer(MeterRegistry registry, String name, String... tags) {
+        return Timer.builder(name)
+                .tags(tags)
+                .publishPercentiles(PERCENTILES)
+                .serviceLevelObjectives(LATENCY_BUCKETS)
+                .register(registry);
+    }
+    
+    public static DistributionSummary statementCount(MeterRegistry registry, String... tags) {
+        return DistributionSummary.builder(HTTP_SQL_STATEMENTS)
+                .tags(tags)
+                .publishPercentiles(PERCENTILES)
+                .serviceLevelObjectives(STATEMENT_BUCKETS)
+                .register(registry);
+    }
+}
@@ -0,0 +1,22 @@
+package com.ems.metrics;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The most SQL statements one request to the annotated endpoint may issue,
+ * counted cold (empty caches) and including view rendering. QueryBudgetTest
+ * holds every endpoint to its budget on each build. At runtime, requests over
+ * budget are counted in /metrics and logged, and fail outright when
+ * ems.metrics.query-budget.enforce is on.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+    
+    int value();
+}
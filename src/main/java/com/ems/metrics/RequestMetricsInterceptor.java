@@ -0,0 +1,128 @@
+package com.ems.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every controller endpoint, including view rendering, and records how many
+ * SQL statements the request issued and how long they took. Meters are created
+ * once per handler method and looked up by Method afterwards. Endpoints with a
+ * {@link QueryBudget} also count the requests that went over it.
+ */
+@Component
+public class RequestMetricsInterceptor implements AsyncHandlerInterceptor {
+    
+    private static final Logger log = LoggerFactory.getLogger(RequestMetricsInterceptor.class);
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${ems.metrics.query-budget.enforce:false}")
+    private boolean enforceQueryBudgets;
+    
+    private final ConcurrentMap<Method, EndpointMeters> endpoints = new ConcurrentHashMap<>();
+    
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        int budget = RequestSqlStatistics.NO_BUDGET;
+        if (handler instanceof HandlerMethod handlerMethod) {
+            budget = endpointMeters(handlerMethod, request).budget;
+        }
+        RequestSqlStatistics.begin(budget, enforceQueryBudgets);
+        return true;
+    }
+    
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        RequestSqlStatistics stats = RequestSqlStatistics.current();
+        if (!stats.isActive()) {
+            return;
+        }
+        stats.end();
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return;
+        }
+        
+        EndpointMeters meters = endpointMeters(handlerMethod, request);
+        meters.requests.record(System.nanoTime() - stats.getRequestStartedAt(), TimeUnit.NANOSECONDS);
+        meters.sqlStatements.record(stats.getStatements());
+        meters.sqlTime.record(stats.getSqlNanos(), TimeUnit.NANOSECONDS);
+        if (ex != null || response.getStatus() >= 400) {
+            meters.errors.increment();
+        }
+        if (stats.isOverBudget()) {
+            meters.overBudget.increment();
+            log.warn("{} {} issued {} SQL statements, over its budget of {}", request.getMethod(),
+                    request.getRequestURI(), stats.getStatements(), stats.getBudget());
+        }
+    }
+    
+    /**
+     * A streaming response (the dashboard change feed) stays open long after its
+     * handler returns. How long the client listens is not request latency, so the
+     * request is closed out here untimed; the dispatch that ends the stream is
+     * timed on its own.
+     */
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RequestSqlStatistics stats = RequestSqlStatistics.current();
+        if (stats.isActive()) {
+            stats.end();
+        }
+    }
+    
+    private EndpointMeters endpointMeters(HandlerMethod handlerMethod, HttpServletRequest request) {
+        EndpointMeters meters = endpoints.get(handlerMethod.getMethod());
+        if (meters == null) {
+            meters = endpoints.computeIfAbsent(handlerMethod.getMethod(), method -> new EndpointMeters(handlerMethod, request));
+        }
+        return meters;
+    }
+    
+    private final class EndpointMeters {
+        
+        private final Timer requests;
+        private final Counter errors;
+        private final DistributionSummary sqlStatements;
+        private final Timer sqlTime;
+        private final Counter overBudget;
+        private final int budget;
+        
+        EndpointMeters(HandlerMethod handlerMethod, HttpServletRequest request) {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String[] tags = {
+                    "endpoint", handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName(),
+                    "method", request.getMethod(),
+                    "uri", pattern != null ? pattern.toString() : request.getRequestURI()};
+            requests = Meters.timer(meterRegistry, Meters.HTTP_REQUESTS, tags);
+            errors = meterRegistry.counter(Meters.HTTP_ERRORS, tags);
+            sqlStatements = Meters.statementCount(meterRegistry, tags);
+            sqlTime = Meters.timer(meterRegistry, Meters.HTTP_SQL_TIME, tags);
+            overBudget = meterRegistry.counter(Meters.HTTP_SQL_OVER_BUDGET, tags);
+            
+            QueryBudget queryBudget = handlerMethod.getMethodAnnotation(QueryBudget.class);
+            budget = queryBudget != null ? queryBudget.value() : RequestSqlStatistics.NO_BUDGET;
+            if (queryBudget != null) {
+                Gauge.builder(Meters.HTTP_SQL_BUDGET, queryBudget::value).tags(tags).register(meterRegistry);
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.ems.metrics;
+
+/**
+ * SQL statement count and time for the request running on the current thread.
+ * One mutable instance per thread is reset at the start of each request, so
+ * counting a statement is two field updates; statements issued outside a
+ * request (startup, seeding, imports on worker threads) are ignored.
+ * A request may also carry a {@link QueryBudget}; when the budget is
+ * enforced, the first statement over it is refused before it reaches JDBC.
+ */
+public final class RequestSqlStatistics {
+    
+    private static final ThreadLocal<RequestSqlStatistics> CURRENT = ThreadLocal.withInitial(RequestSqlStatistics::new);
+    
+    static final int NO_BUDGET = -1;
+    
+    private boolean active;
+    private int budget;
+    private boolean enforceBudget;
+    private boolean refused;
+    private long requestStartedAt;
+    private long statementStartedAt;
+    private int statements;
+    private long sqlNanos;
+    
+    private RequestSqlStatistics() {
+    }
+    
+    static RequestSqlStatistics current() {
+        return CURRENT.get();
+    }
+    
+    static RequestSqlStatistics begin(int budget, boolean enforceBudget) {
+        RequestSqlStatistics stats = CURRENT.get();
+        stats.active = true;
+        stats.budget = budget;
+        stats.enforceBudget = enforceBudget;
+        stats.refused = false;
+        stats.statements = 0;
+        stats.sqlNanos = 0;
+        stats.requestStartedAt = System.nanoTime();
+        return stats;
+    }
+    
+    void statementStarted() {
+        if (active) {
+            if (enforceBudget && budget != NO_BUDGET && statements >= budget) {
+                refused = true;
+                throw new IllegalStateException("Query budget of " + budget + " SQL statements exceeded");
+            }
+            statementStartedAt = System.nanoTime();
+        }
+    }
+    
+    void statementEnded() {
+        if (active) {
+            statements++;
+            sqlNanos += System.nanoTime() - statementStartedAt;
+        }
+    }
+    
+    void end() {
+        active = false;
+    }
+    
+    boolean isActive() {
+        return active;
+    }
+    
+    long getRequestStartedAt() {
+        return requestStartedAt;
+    }
+    
+    boolean isOverBudget() {
+        return refused || (budget != NO_BUDGET && statements > budget);
+    }
+    
+    int getBudget() {
+        return budget;
+    }
+    
+    int getStatements() {
+        return statements;
+    }
+    
+    long getSqlNanos() {
+        return sqlNanos;
+    }
+}
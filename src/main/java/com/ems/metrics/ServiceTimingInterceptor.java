@@ -0,0 +1,60 @@
+package com.ems.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times each call to an advised service method and counts the ones that throw.
+ * Meters are created on a method's first call and looked up by Method after
+ * that, so a timed call costs a map lookup and two clock reads.
+ */
+public class ServiceTimingInterceptor implements MethodInterceptor {
+    
+    // Resolved lazily: the advisor is built before ordinary beans like the registry
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final ConcurrentMap<Method, MethodMeters> methods = new ConcurrentHashMap<>();
+    
+    public ServiceTimingInterceptor(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+    
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Method method = invocation.getMethod();
+        MethodMeters meters = methods.get(method);
+        if (meters == null) {
+            meters = methods.computeIfAbsent(method, MethodMeters::new);
+        }
+        long start = System.nanoTime();
+        try {
+            return invocation.proceed();
+        } catch (Throwable e) {
+            meters.errors.increment();
+            throw e;
+        } finally {
+            meters.calls.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+    
+    private final class MethodMeters {
+        
+        private final Timer calls;
+        private final Counter errors;
+        
+        MethodMeters(Method method) {
+            MeterRegistry registry = meterRegistry.getObject();
+            String[] tags = {"service", method.getDeclaringClass().getSimpleName(), "method", method.getName()};
+            calls = Meters.timer(registry, Meters.SERVICE_CALLS, tags);
+            errors = registry.counter(Meters.SERVICE_ERRORS, tags);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.ems.metrics;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Hibernate session listener (registered through hibernate.session.events.auto)
+ * that feeds every JDBC statement and batch execution into the current
+ * request's {@link RequestSqlStatistics}. Hibernate creates one per session;
+ * it holds no state of its own.
+ */
+public class SqlStatementListener extends BaseSessionEventListener {
+    
+    private static final long serialVersionUID = 1L;
+    
+    @Override
+    public void jdbcExecuteStatementStart() {
+        RequestSqlStatistics.current().statementStarted();
+    }
+    
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        RequestSqlStatistics.current().statementEnded();
+    }
+    
+    @Override
+    public void jdbcExecuteBatchStart() {
+        RequestSqlStatistics.current().statementStarted();
+    }
+    
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        RequestSqlStatistics.current().statementEnded();
+    }
+}
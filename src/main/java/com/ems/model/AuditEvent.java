@@ -0,0 +1,95 @@
+package com.ems.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One recorded change to an employee or department: who made it, when, and
+ * the fields it changed as a JSON object of {@code "field": [before, after]}.
+ * Rows are written in batches by AuditTrail and never updated.
+ */
+@Entity
+@Table(name = "audit_events", indexes = {
+        @Index(name = "idx_audit_events_entity", columnList = "entity_type, entity_id, event_id")})
+public class AuditEvent {
+    
+    public static final int ID_ALLOCATION_SIZE = 50;
+    
+    public enum EntityType {
+        EMPLOYEE, DEPARTMENT
+    }
+    
+    public enum Action {
+        CREATE, UPDATE, DELETE
+    }
+    
+    // Pooled sequence ids so a batch of events goes out as one batched insert
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "audit_event_seq")
+    @SequenceGenerator(name = "audit_event_seq", sequenceName = "audit_events_seq", allocationSize = ID_ALLOCATION_SIZE)
+    @Column(name = "event_id")
+    private Long eventId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false, length = 16, columnDefinition = "VARCHAR(16)")
+    private EntityType entityType;
+    
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "action", nullable = false, length = 16, columnDefinition = "VARCHAR(16)")
+    private Action action;
+    
+    @Column(name = "username", nullable = false)
+    private String username;
+    
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+    
+    @Column(name = "changes", length = 4000)
+    private String changes;
+    
+    public AuditEvent() {
+    }
+    
+    public AuditEvent(EntityType entityType, Long entityId, Action action, String username,
+                      LocalDateTime changedAt, String changes) {
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.action = action;
+        this.username = username;
+        this.changedAt = changedAt;
+        this.changes = changes;
+    }
+    
+    // Getters
+    public Long getEventId() {
+        return eventId;
+    }
+    
+    public EntityType getEntityType() {
+        return entityType;
+    }
+    
+    public Long getEntityId() {
+        return entityId;
+    }
+    
+    public Action getAction() {
+        return action;
+    }
+    
+    public String getUsername() {
+        return username;
+    }
+    
+    public LocalDateTime getChangedAt() {
+        return changedAt;
+    }
+    
+    public String getChanges() {
+        return changes;
+    }
+}
@@ -2,15 +2,25 @@ package com.ems.model;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
-@Table(name = "employees")
+@Cacheable
+@org.hibernate.annotations.Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "employees")
+@Table(name = "employees", indexes = {
+        @Index(name = "idx_employees_dept_id", columnList = "dept_id"),
+        @Index(name = "idx_employees_name", columnList = "name")})
 public class Employee {
     
+    public static final int ID_ALLOCATION_SIZE = 50;
+    
+    // Sequence ids (pooled, 50 per round trip) so Hibernate can batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "employee_seq")
+    @SequenceGenerator(name = "employee_seq", sequenceName = "employees_seq", allocationSize = ID_ALLOCATION_SIZE)
     @Column(name = "emp_id")
     private Long empId;
     
@@ -19,9 +29,10 @@ public class Employee {
     @Column(name = "name", nullable = false)
     private String name;
     
-    @NotBlank(message = "Department is required")
-    @Column(name = "department", nullable = false)
-    private String department;
+    @NotNull(message = "Department is required")
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "dept_id", nullable = false)
+    private Department department;
     
     @NotBlank(message = "Designation is required")
     @Column(name = "designation", nullable = false)
@@ -35,7 +46,7 @@ public class Employee {
     public Employee() {
     }
     
-    public Employee(String name, String department, String designation, String contact) {
+    public Employee(String name, Department department, String designation, String contact) {
         this.name = name;
         this.department = department;
         this.designation = designation;
@@ -59,11 +70,11 @@ public class Employee {
         this.name = name;
     }
     
-    public String getDepartment() {
+    public Department getDepartment() {
         return department;
     }
     
-    public void setDepartment(String department) {
+    public void setDepartment(Department department) {
         this.department = department;
     }
     
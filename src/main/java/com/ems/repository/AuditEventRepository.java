@@ -0,0 +1,31 @@
+package com.ems.repository;
+
+import com.ems.model.AuditEvent;
+import com.ems.model.AuditEvent.EntityType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AuditEventRepository extends JpaRepository<AuditEvent, Long> {
+
+    // Keyset pagination over one entity's history, newest first. Both queries seek on
+    // idx_audit_events_entity (entity_type, entity_id, event_id), so depth costs nothing.
+    @Query("SELECT a FROM AuditEvent a WHERE a.entityType = :type AND a.entityId = :entityId " +
+           "AND a.eventId < :beforeId ORDER BY a.eventId DESC")
+    List<AuditEvent> findHistoryBefore(@Param("type") EntityType type,
+                                       @Param("entityId") Long entityId,
+                                       @Param("beforeId") Long beforeId,
+                                       Pageable pageable);
+    
+    @Query("SELECT a FROM AuditEvent a WHERE a.entityType = :type AND a.entityId = :entityId " +
+           "AND a.eventId > :afterId ORDER BY a.eventId ASC")
+    List<AuditEvent> findHistoryAfter(@Param("type") EntityType type,
+                                      @Param("entityId") Long entityId,
+                                      @Param("afterId") Long afterId,
+                                      Pageable pageable);
+}
@@ -1,15 +1,90 @@
 package com.ems.repository;
 
+import com.ems.dto.DepartmentHeadcount;
+import com.ems.dto.EmployeeRow;
+import com.ems.dto.EmployeeSearchRow;
+import com.ems.model.Department;
 import com.ems.model.Employee;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface EmployeeRepository extends JpaRepository<Employee, Long> {
-    List<Employee> findByDepartment(String department);
-    List<Employee> findByNameContainingIgnoreCaseOrDepartmentContainingIgnoreCaseOrDesignationContainingIgnoreCase(
+    List<Employee> findByDepartmentDeptId(Long deptId);
+    List<Employee> findByNameContainingIgnoreCaseOrDepartmentDeptNameContainingIgnoreCaseOrDesignationContainingIgnoreCase(
             String name, String department, String designation);
+    
+    long countByDepartmentDeptId(Long deptId);
+    
+    @Query("SELECT e FROM Employee e JOIN FETCH e.department WHERE e.empId IN :ids")
+    List<Employee> findAllWithDepartmentByEmpIdIn(@Param("ids") Collection<Long> ids);
+    
+    // Keyset pagination: seek past the cursor on the primary key instead of using OFFSET,
+    // so every page costs the same regardless of depth. A null department is ignored.
+    // Text search is served by EmployeeSearchIndex and does not come through here.
+    // Rows are projected straight into EmployeeRow; no entities are materialized.
+    @Query("SELECT new com.ems.dto.EmployeeRow(e.empId, e.name, d.deptName, e.designation, e.contact) " +
+           "FROM Employee e JOIN e.department d WHERE e.empId > :afterId " +
+           "AND (:deptId IS NULL OR d.deptId = :deptId) " +
+           "ORDER BY e.empId ASC")
+    List<EmployeeRow> findRowsAfter(@Param("deptId") Long deptId,
+                                    @Param("afterId") Long afterId,
+                                    Pageable pageable);
+    
+    @Query("SELECT new com.ems.dto.EmployeeRow(e.empId, e.name, d.deptName, e.designation, e.contact) " +
+           "FROM Employee e JOIN e.department d WHERE e.empId < :beforeId " +
+           "AND (:deptId IS NULL OR d.deptId = :deptId) " +
+           "ORDER BY e.empId DESC")
+    List<EmployeeRow> findRowsBefore(@Param("deptId") Long deptId,
+                                     @Param("beforeId") Long beforeId,
+                                     Pageable pageable);
+    
+    // Whether a page starting at this id has one before it; a single-row probe on the primary key
+    boolean existsByEmpIdLessThan(Long empId);
+    
+    @Query("SELECT new com.ems.dto.EmployeeRow(e.empId, e.name, d.deptName, e.designation, e.contact) " +
+           "FROM Employee e JOIN e.department d WHERE e.empId IN :ids")
+    List<EmployeeRow> findRowsByEmpIdIn(@Param("ids") Collection<Long> ids);
+    
+    // Dashboard aggregation: every department, including empty ones, with its headcount
+    @Query(value = "SELECT d.dept_id AS deptId, d.dept_name AS department, COUNT(e.emp_id) AS employeeCount " +
+                   "FROM departments d LEFT JOIN employees e ON e.dept_id = d.dept_id " +
+                   "GROUP BY d.dept_id, d.dept_name " +
+                   "ORDER BY d.dept_id",
+           nativeQuery = true)
+    List<DepartmentHeadcount> countByDepartment();
+    
+    // Chunked scan used to (re)build the in-memory search index
+    @Query("SELECT e.empId AS empId, e.name AS name, e.department.deptId AS deptId, e.designation AS designation " +
+           "FROM Employee e WHERE e.empId > :afterId ORDER BY e.empId ASC")
+    List<EmployeeSearchRow> findSearchRowsAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    // Cursor-backed stream of every row for unfiltered exports (filtered ones get their ids
+    // from the in-memory indexes); must be consumed inside a transaction and closed
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.ems.dto.EmployeeRow(e.empId, e.name, d.deptName, e.designation, e.contact) " +
+           "FROM Employee e JOIN e.department d ORDER BY e.empId ASC")
+    Stream<EmployeeRow> streamRows();
+    
+    // Set-based bulk operations: one statement per id chunk, no entities loaded. They bypass
+    // the persistence context, and Hibernate evicts the employee cache region after each one.
+    @Modifying
+    @Query("DELETE FROM Employee e WHERE e.empId IN :ids")
+    int bulkDeleteByEmpIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Modifying
+    @Query("UPDATE Employee e SET e.department = :department WHERE e.empId IN :ids")
+    int bulkUpdateDepartmentByEmpIdIn(@Param("ids") Collection<Long> ids,
+                                      @Param("department") Department department);
 }
-
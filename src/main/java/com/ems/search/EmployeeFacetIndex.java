@@ -0,0 +1,559 @@
+package com.ems.search;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory columnar snapshot of the employee columns the list page filters
+ * on, for combined department, designation and text filters with facet counts.
+ *
+ * Each employee is an ordinal, and ordinals are kept in ascending empId order
+ * so that walking a bitmap walks employees in list order. Department and
+ * designation are dictionary-encoded: each distinct value gets an int code,
+ * the columns are plain int arrays of codes, and every code has a bitmap of
+ * the ordinals holding it. A query ANDs the bitmaps of the chosen values with
+ * the live set and the text matches, and counts facets in one pass over the
+ * int columns.
+ *
+ * Text matching stays with {@link EmployeeSearchIndex}; callers pass in its
+ * sorted matching ids. Departments are encoded by id, so a rename changes
+ * nothing here. Designations are matched ignoring case and surrounding
+ * spaces, and shown with the spelling first seen.
+ *
+ * Deletes only clear bits. Once a quarter of the ordinals are dead, or an
+ * employee arrives with a lower id than the newest one, the snapshot is
+ * rewritten in empId order before the next query.
+ */
+@Component
+public class EmployeeFacetIndex {
+    
+    // The dead-ordinal count worth rewriting the columns for
+    private static final int MIN_DEAD_FOR_COMPACTION = 1024;
+    
+    // Code of a selected value that no employee has, so nothing matches it
+    private static final int MISSING = -2;
+    private static final int ANY = -1;
+    
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private long[] ids = new long[1024];
+    private int[] departments = new int[1024];
+    private int[] designations = new int[1024];
+    private final BitSet live = new BitSet();
+    private int size;
+    private int dead;
+    // False once an employee was appended out of empId order
+    private boolean sorted = true;
+    
+    private final Dictionary<Long> departmentValues = new Dictionary<>();
+    private final Dictionary<String> designationValues = new Dictionary<>();
+    
+    private long compactions;
+    private long lastCompactionMs;
+    
+    /**
+     * Adds or replaces one employee's department and designation.
+     */
+    public void index(Long empId, Long deptId, String designation) {
+        lock.writeLock().lock();
+        try {
+            int department = departmentValues.code(deptId != null ? deptId : -1L, null);
+            String label = designation != null ? designation.trim() : "";
+            int designationCode = designationValues.code(EmployeeSearchIndex.normalize(designation), label);
+            Integer ordinal = ordinals.get(empId);
+            if (ordinal == null) {
+                ordinal = append(empId);
+            } else {
+                departmentValues.bitmap(departments[ordinal]).clear(ordinal);
+                designationValues.bitmap(designations[ordinal]).clear(ordinal);
+            }
+            departments[ordinal] = department;
+            designations[ordinal] = designationCode;
+            departmentValues.bitmap(department).set(ordinal);
+            designationValues.bitmap(designationCode).set(ordinal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public void remove(Long empId) {
+        lock.writeLock().lock();
+        try {
+            kill(empId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public void removeAll(Collection<Long> empIds) {
+        lock.writeLock().lock();
+        try {
+            for (Long empId : empIds) {
+                kill(empId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Moves indexed employees to another department; designations are left alone.
+     */
+    public void moveToDepartment(Collection<Long> empIds, Long deptId) {
+        lock.writeLock().lock();
+        try {
+            int target = departmentValues.code(deptId != null ? deptId : -1L, null);
+            BitSet targetBitmap = departmentValues.bitmap(target);
+            for (Long empId : empIds) {
+                Integer ordinal = ordinals.get(empId);
+                if (ordinal != null && departments[ordinal] != target) {
+                    departmentValues.bitmap(departments[ordinal]).clear(ordinal);
+                    departments[ordinal] = target;
+                    targetBitmap.set(ordinal);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            ordinals.clear();
+            ids = new long[1024];
+            departments = new int[1024];
+            designations = new int[1024];
+            live.clear();
+            size = 0;
+            dead = 0;
+            sorted = true;
+            departmentValues.clear();
+            designationValues.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Returns one keyset page of the employees matching every given filter, in
+     * empId order, together with the total and, if asked for, facet counts.
+     * {@code textMatches} are the sorted ids matching the search text, or null
+     * for no text filter. A department's count applies every filter except the
+     * department, and likewise for designations, so the counts show what
+     * choosing another value would return.
+     */
+    public Result query(long[] textMatches, Long deptId, String designation, Long after, Long before,
+                        int pageSize, boolean withFacets) {
+        lockCompacted();
+        try {
+            BitSet base = (BitSet) live.clone();
+            if (textMatches != null) {
+                base.and(ordinalsOf(textMatches));
+            }
+            int department = deptId == null ? ANY : departmentValues.find(deptId);
+            int designationCode = designation == null ? ANY
+                    : designationValues.find(EmployeeSearchIndex.normalize(designation));
+            
+            BitSet matches = (BitSet) base.clone();
+            if (department != ANY) {
+                and(matches, departmentValues, department);
+            }
+            if (designationCode != ANY) {
+                and(matches, designationValues, designationCode);
+            }
+            
+            Result result = new Result();
+            result.total = matches.cardinality();
+            if (withFacets) {
+                countFacets(base, department, designationCode, result);
+            }
+            page(matches, after, before, pageSize, result);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Every employee id matching all the given filters, in ascending order.
+     */
+    public long[] matchingIds(long[] textMatches, Long deptId, String designation) {
+        lockCompacted();
+        try {
+            BitSet matches = (BitSet) live.clone();
+            if (textMatches != null) {
+                matches.and(ordinalsOf(textMatches));
+            }
+            if (deptId != null) {
+                and(matches, departmentValues, departmentValues.find(deptId));
+            }
+            if (designation != null) {
+                and(matches, designationValues, designationValues.find(EmployeeSearchIndex.normalize(designation)));
+            }
+            long[] result = new long[matches.cardinality()];
+            int count = 0;
+            for (int ordinal = matches.nextSetBit(0); ordinal >= 0; ordinal = matches.nextSetBit(ordinal + 1)) {
+                result[count++] = ids[ordinal];
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            stats.put("entries", ordinals.size());
+            stats.put("deadEntries", dead);
+            stats.put("departments", departmentValues.size());
+            stats.put("designations", designationValues.size());
+            stats.put("estimatedBytes", estimatedBytes());
+        } finally {
+            lock.readLock().unlock();
+        }
+        stats.put("compactions", compactions);
+        stats.put("lastCompactionMs", lastCompactionMs);
+        return stats;
+    }
+    
+    // One pass over the filtered employees' code columns (caller holds the read lock). A value
+    // counts towards the other facet only if this facet accepts it; looking that up in a 0/1
+    // table instead of branching keeps the loop free of unpredictable jumps.
+    private void countFacets(BitSet base, int department, int designationCode, Result result) {
+        int[] departmentCounts = new int[departmentValues.size()];
+        int[] designationCounts = new int[designationValues.size()];
+        int[] departmentAccepted = accepted(departmentValues.size(), department);
+        int[] designationAccepted = accepted(designationValues.size(), designationCode);
+        long[] words = base.toLongArray();
+        for (int w = 0; w < words.length; w++) {
+            long word = words[w];
+            int offset = w << 6;
+            if (word == -1L) {
+                for (int ordinal = offset; ordinal < offset + 64; ordinal++) {
+                    int d = departments[ordinal];
+                    int g = designations[ordinal];
+                    departmentCounts[d] += designationAccepted[g];
+                    designationCounts[g] += departmentAccepted[d];
+                }
+                continue;
+            }
+            while (word != 0) {
+                int ordinal = offset + Long.numberOfTrailingZeros(word);
+                int d = departments[ordinal];
+                int g = designations[ordinal];
+                departmentCounts[d] += designationAccepted[g];
+                designationCounts[g] += departmentAccepted[d];
+                word &= word - 1;
+            }
+        }
+        for (int code = 0; code < departmentCounts.length; code++) {
+            if (departmentCounts[code] > 0 && departmentValues.value(code) != -1L) {
+                result.departmentCounts.put(departmentValues.value(code), departmentCounts[code]);
+            }
+        }
+        for (int code = 0; code < designationCounts.length; code++) {
+            if (designationCounts[code] > 0) {
+                result.designationCounts.put(designationValues.label(code), designationCounts[code]);
+            }
+        }
+    }
+    
+    private static int[] accepted(int values, int code) {
+        int[] accepted = new int[values];
+        if (code == ANY) {
+            Arrays.fill(accepted, 1);
+        } else if (code != MISSING) {
+            accepted[code] = 1;
+        }
+        return accepted;
+    }
+    
+    // Keyset paging over the match bitmap, same cursor rules as the database-backed list
+    private void page(BitSet matches, Long after, Long before, int pageSize, Result result) {
+        long[] page = new long[pageSize];
+        int count = 0;
+        if (before != null) {
+            int end = lowerBound(before);
+            int ordinal = matches.previousSetBit(end - 1);
+            for (; ordinal >= 0 && count < pageSize; ordinal = matches.previousSetBit(ordinal - 1)) {
+                page[count++] = ids[ordinal];
+            }
+            result.pageIds = reverse(page, count);
+            if (count > 0) {
+                result.prevCursor = ordinal >= 0 ? result.pageIds[0] : null;
+                result.nextCursor = matches.nextSetBit(end) >= 0 ? result.pageIds[count - 1] : null;
+            }
+            return;
+        }
+        int start = after != null ? lowerBound(after + 1) : 0;
+        int ordinal = matches.nextSetBit(start);
+        for (; ordinal >= 0 && count < pageSize; ordinal = matches.nextSetBit(ordinal + 1)) {
+            page[count++] = ids[ordinal];
+        }
+        result.pageIds = Arrays.copyOf(page, count);
+        if (count > 0) {
+            result.nextCursor = ordinal >= 0 ? result.pageIds[count - 1] : null;
+            result.prevCursor = start > 0 && matches.previousSetBit(start - 1) >= 0 ? result.pageIds[0] : null;
+        }
+    }
+    
+    // Ordinals of the given sorted ids; a binary search each, narrowed as the ids climb
+    private BitSet ordinalsOf(long[] sortedIds) {
+        BitSet result = new BitSet(size);
+        int from = 0;
+        for (long id : sortedIds) {
+            int at = Arrays.binarySearch(ids, from, size, id);
+            if (at >= 0) {
+                result.set(at);
+                from = at + 1;
+            } else {
+                from = -(at + 1);
+            }
+            if (from == size) {
+                break;
+            }
+        }
+        return result;
+    }
+    
+    // First ordinal whose id is at least the given one
+    private int lowerBound(long id) {
+        int at = Arrays.binarySearch(ids, 0, size, id);
+        return at >= 0 ? at : -(at + 1);
+    }
+    
+    private static void and(BitSet matches, Dictionary<?> values, int code) {
+        if (code == MISSING) {
+            matches.clear();
+        } else {
+            matches.and(values.bitmap(code));
+        }
+    }
+    
+    private int append(Long empId) {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            departments = Arrays.copyOf(departments, size * 2);
+            designations = Arrays.copyOf(designations, size * 2);
+        }
+        if (size > 0 && empId <= ids[size - 1]) {
+            sorted = false;
+        }
+        int ordinal = size++;
+        ids[ordinal] = empId;
+        ordinals.put(empId, ordinal);
+        live.set(ordinal);
+        return ordinal;
+    }
+    
+    private void kill(Long empId) {
+        Integer ordinal = ordinals.remove(empId);
+        if (ordinal != null) {
+            live.clear(ordinal);
+            departmentValues.bitmap(departments[ordinal]).clear(ordinal);
+            designationValues.bitmap(designations[ordinal]).clear(ordinal);
+            dead++;
+        }
+    }
+    
+    // Takes the read lock, first compacting under the write lock if the columns are out of empId order
+    // or a quarter dead; the write lock is downgraded, so no write lands in between
+    private void lockCompacted() {
+        lock.readLock().lock();
+        if (!needsCompaction()) {
+            return;
+        }
+        lock.readLock().unlock();
+        lock.writeLock().lock();
+        try {
+            if (needsCompaction()) {
+                compact();
+            }
+            lock.readLock().lock();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    private boolean needsCompaction() {
+        return !sorted || (dead >= MIN_DEAD_FOR_COMPACTION && dead * 4L >= size);
+    }
+    
+    // Rewrites the live employees in empId order and re-encodes the values still in use
+    private void compact() {
+        long start = System.currentTimeMillis();
+        int count = ordinals.size();
+        long[] order = new long[count];
+        int n = 0;
+        for (int ordinal = live.nextSetBit(0); ordinal >= 0; ordinal = live.nextSetBit(ordinal + 1)) {
+            order[n++] = ids[ordinal];
+        }
+        Arrays.sort(order);
+        
+        int capacity = Math.max(1024, Integer.highestOneBit(Math.max(1, count)) * 2);
+        long[] newIds = new long[capacity];
+        int[] newDepartments = new int[capacity];
+        int[] newDesignations = new int[capacity];
+        Dictionary<Long> newDepartmentValues = new Dictionary<>();
+        Dictionary<String> newDesignationValues = new Dictionary<>();
+        for (int i = 0; i < count; i++) {
+            int old = ordinals.get(order[i]);
+            newIds[i] = order[i];
+            newDepartments[i] = newDepartmentValues.code(departmentValues.value(departments[old]), null);
+            newDesignations[i] = newDesignationValues.code(designationValues.value(designations[old]),
+                    designationValues.label(designations[old]));
+            newDepartmentValues.bitmap(newDepartments[i]).set(i);
+            newDesignationValues.bitmap(newDesignations[i]).set(i);
+            ordinals.put(order[i], i);
+        }
+        ids = newIds;
+        departments = newDepartments;
+        designations = newDesignations;
+        departmentValues.replaceWith(newDepartmentValues);
+        designationValues.replaceWith(newDesignationValues);
+        live.clear();
+        live.set(0, count);
+        size = count;
+        dead = 0;
+        sorted = true;
+        compactions++;
+        lastCompactionMs = System.currentTimeMillis() - start;
+    }
+    
+    // Column arrays and bitmaps; the id map and dictionaries are small next to them
+    private long estimatedBytes() {
+        long columns = (long) ids.length * (Long.BYTES + 2 * Integer.BYTES);
+        long bitmaps = (long) (departmentValues.size() + designationValues.size() + 1) * (size / 8 + 64);
+        long idMap = (long) ordinals.size() * 64;
+        return columns + bitmaps + idMap;
+    }
+    
+    private static long[] reverse(long[] values, int count) {
+        long[] reversed = new long[count];
+        for (int i = 0; i < count; i++) {
+            reversed[i] = values[count - 1 - i];
+        }
+        return reversed;
+    }
+    
+    /**
+     * One query's answer: the page of ids, its cursors, the total match count,
+     * and facet counts by department id and by designation (empty unless asked for).
+     */
+    public static final class Result {
+        
+        private long[] pageIds = new long[0];
+        private Long nextCursor;
+        private Long prevCursor;
+        private int total;
+        private final Map<Long, Integer> departmentCounts = new HashMap<>();
+        private final Map<String, Integer> designationCounts = new HashMap<>();
+        
+        // Getters
+        public long[] getPageIds() {
+            return pageIds;
+        }
+        
+        public Long getNextCursor() {
+            return nextCursor;
+        }
+        
+        public Long getPrevCursor() {
+            return prevCursor;
+        }
+        
+        public int getTotal() {
+            return total;
+        }
+        
+        public Map<Long, Integer> getDepartmentCounts() {
+            return departmentCounts;
+        }
+        
+        public Map<String, Integer> getDesignationCounts() {
+            return designationCounts;
+        }
+    }
+    
+    /**
+     * Value-to-code dictionary with a display label and a bitmap per code.
+     * Codes are dense and never reused until the snapshot is compacted.
+     */
+    private static final class Dictionary<V> {
+        
+        private final Map<V, Integer> codes = new HashMap<>();
+        private final List<V> values = new ArrayList<>();
+        private final List<String> labels = new ArrayList<>();
+        private final List<BitSet> bitmaps = new ArrayList<>();
+        
+        int code(V value, String label) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                codes.put(value, code);
+                values.add(value);
+                labels.add(label);
+                bitmaps.add(new BitSet());
+            }
+            return code;
+        }
+        
+        int find(V value) {
+            Integer code = codes.get(value);
+            return code != null ? code : MISSING;
+        }
+        
+        V value(int code) {
+            return values.get(code);
+        }
+        
+        String label(int code) {
+            return labels.get(code);
+        }
+        
+        BitSet bitmap(int code) {
+            return bitmaps.get(code);
+        }
+        
+        int size() {
+            return values.size();
+        }
+        
+        void clear() {
+            codes.clear();
+            values.clear();
+            labels.clear();
+            bitmaps.clear();
+        }
+        
+        void replaceWith(Dictionary<V> other) {
+            clear();
+            codes.putAll(other.codes);
+            values.addAll(other.values);
+            labels.addAll(other.labels);
+            bitmaps.addAll(other.bitmaps);
+        }
+    }
+}
@@ -0,0 +1,498 @@
+package com.ems.search;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index over employee name and designation, plus a
+ * membership list per department.
+ *
+ * Each employee gets a dense int ordinal; every trigram and bigram maps to a
+ * sorted posting list of ordinals, and every single character to a bitmap of
+ * ordinals (nearly every employee has the common letters, so a bitmap is the
+ * smaller form). A query intersects the posting lists of its trigrams
+ * (smallest first) and then verifies the surviving candidates with a plain
+ * substring check, so results match the old "containing, ignore case"
+ * semantics exactly. Queries of one or two characters, which the search box
+ * sends while the user is still typing, read their single bigram list or
+ * character bitmap; those, like a lone trigram, need no verification.
+ *
+ * Department names are not indexed per employee. Callers resolve the query
+ * against the (small) department table and pass in the matching ids, so a
+ * department rename never requires reindexing its employees.
+ *
+ * Removing an employee leaves its ordinal unused. Once a quarter of the
+ * ordinals are dead, the index is rebuilt from the live documents with dense
+ * ordinals, so create/delete churn does not grow it until a restart.
+ */
+@Component
+public class EmployeeSearchIndex {
+    
+    private static final int NAME = 0;
+    private static final int DESIGNATION = 1;
+    
+    // Name matches rank above designation matches, which rank above department matches
+    private static final int[] FIELD_WEIGHTS = {6, 4};
+    private static final int DEPARTMENT_WEIGHT = 2;
+    
+    // The dead-ordinal count worth rebuilding the postings for
+    private static final int MIN_DEAD_FOR_COMPACTION = 1024;
+    
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, PostingList> postings = new HashMap<>();
+    private final Map<Character, BitSet> characters = new HashMap<>();
+    private final Map<Long, PostingList> departmentMembers = new HashMap<>();
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private long[] ids = new long[1024];
+    private long[] deptIds = new long[1024];
+    private String[][] documents = new String[1024][];
+    private int nextOrdinal;
+    private int dead;
+    
+    /**
+     * Adds or replaces the indexed fields for one employee.
+     */
+    public void index(Long empId, String name, Long deptId, String designation) {
+        lock.writeLock().lock();
+        try {
+            put(empId, new String[] {normalize(name), normalize(designation)}, deptId != null ? deptId : -1L);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public void remove(Long empId) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.remove(empId);
+            if (ordinal != null) {
+                unlink(ordinal);
+                documents[ordinal] = null;
+                dead++;
+                compactIfNeeded();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Removes the given employees, returning the department each removed one
+     * was indexed under. Each posting list they appear in is compacted once
+     * for the whole batch rather than once per employee.
+     */
+    public Map<Long, Long> removeAll(Collection<Long> empIds) {
+        Map<Long, Long> removed = new HashMap<>();
+        lock.writeLock().lock();
+        try {
+            BitSet gone = new BitSet();
+            Set<Long> grams = new HashSet<>();
+            for (Long empId : empIds) {
+                Integer ordinal = ordinals.remove(empId);
+                if (ordinal != null) {
+                    removed.put(empId, deptIds[ordinal] != -1L ? deptIds[ordinal] : null);
+                    gone.set(ordinal);
+                    unlink(departmentMembers, deptIds[ordinal], ordinal);
+                    unlinkCharacters(ordinal);
+                    for (long gram : trigrams(documents[ordinal])) {
+                        grams.add(gram);
+                    }
+                    for (long gram : bigrams(documents[ordinal])) {
+                        grams.add(gram);
+                    }
+                    documents[ordinal] = null;
+                }
+            }
+            for (Long gram : grams) {
+                PostingList list = postings.get(gram);
+                if (list != null) {
+                    list.removeAll(gone);
+                    if (list.size == 0) {
+                        postings.remove(gram);
+                    }
+                }
+            }
+            dead += gone.cardinality();
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return removed;
+    }
+    
+    /**
+     * Moves indexed employees to another department. Only the department
+     * membership changes; the text postings are left alone. Returns the
+     * previous department of each employee that actually moved.
+     */
+    public Map<Long, Long> moveToDepartment(Collection<Long> empIds, Long deptId) {
+        long target = deptId != null ? deptId : -1L;
+        Map<Long, Long> previous = new HashMap<>();
+        lock.writeLock().lock();
+        try {
+            for (Long empId : empIds) {
+                Integer ordinal = ordinals.get(empId);
+                if (ordinal != null && deptIds[ordinal] != target) {
+                    previous.put(empId, deptIds[ordinal] != -1L ? deptIds[ordinal] : null);
+                    unlink(departmentMembers, deptIds[ordinal], ordinal);
+                    deptIds[ordinal] = target;
+                    departmentMembers.computeIfAbsent(target, d -> new PostingList()).add(ordinal);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return previous;
+    }
+    
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            characters.clear();
+            departmentMembers.clear();
+            ordinals.clear();
+            ids = new long[1024];
+            deptIds = new long[1024];
+            documents = new String[1024][];
+            nextOrdinal = 0;
+            dead = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Returns up to {@code limit} matching employee ids, best match first.
+     * {@code matchingDeptIds} are the departments whose names contain the query.
+     * Ties are broken by ascending empId.
+     */
+    public List<Long> search(String query, Set<Long> matchingDeptIds, int limit) {
+        String q = normalize(query);
+        if (q.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        
+        // Min-heap on score so the weakest of the current top-K is evicted first
+        PriorityQueue<long[]> top = new PriorityQueue<>(
+                (a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(b[1], a[1]));
+        lock.readLock().lock();
+        try {
+            BitSet candidates = candidates(q, matchingDeptIds);
+            for (int ordinal = candidates.nextSetBit(0); ordinal >= 0; ordinal = candidates.nextSetBit(ordinal + 1)) {
+                int score = score(ordinal, q, matchingDeptIds);
+                if (score > 0) {
+                    top.offer(new long[] {score, ids[ordinal]});
+                    if (top.size() > limit) {
+                        top.poll();
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        
+        List<Long> result = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            result.add(top.poll()[1]);
+        }
+        Collections.reverse(result);
+        return result;
+    }
+    
+    /**
+     * Returns every matching employee id in ascending order, optionally restricted
+     * to one department. Used to drive keyset pagination over search results.
+     */
+    public long[] matchingIds(String query, Set<Long> matchingDeptIds, Long deptFilter) {
+        String q = normalize(query);
+        if (q.isEmpty()) {
+            return new long[0];
+        }
+        
+        long[] result;
+        int count = 0;
+        lock.readLock().lock();
+        try {
+            BitSet candidates = candidates(q, matchingDeptIds);
+            // Up to three characters the candidates are exactly the matches
+            boolean exact = q.length() <= 3;
+            result = new long[candidates.cardinality()];
+            for (int ordinal = candidates.nextSetBit(0); ordinal >= 0; ordinal = candidates.nextSetBit(ordinal + 1)) {
+                if ((deptFilter == null || deptFilter == deptIds[ordinal])
+                        && (exact || score(ordinal, q, matchingDeptIds) > 0)) {
+                    result[count++] = ids[ordinal];
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        result = Arrays.copyOf(result, count);
+        Arrays.sort(result);
+        return result;
+    }
+    
+    // Ordinals that may match: documents containing every trigram of the query (or its one
+    // bigram or character), plus all members of the matching departments (caller holds the read lock)
+    private BitSet candidates(String q, Set<Long> matchingDeptIds) {
+        BitSet result = new BitSet(nextOrdinal);
+        for (Long deptId : matchingDeptIds) {
+            PostingList members = departmentMembers.get(deptId);
+            if (members != null) {
+                for (int i = 0; i < members.size; i++) {
+                    result.set(members.docs[i]);
+                }
+            }
+        }
+        
+        if (q.length() == 1) {
+            BitSet withCharacter = characters.get(q.charAt(0));
+            if (withCharacter != null) {
+                result.or(withCharacter);
+            }
+            return result;
+        }
+        
+        long[] grams = q.length() == 2 ? new long[] {bigram(q, 0)} : trigrams(q);
+        PostingList[] lists = new PostingList[grams.length];
+        for (int i = 0; i < grams.length; i++) {
+            lists[i] = postings.get(grams[i]);
+            if (lists[i] == null || lists[i].size == 0) {
+                return result;
+            }
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+        
+        outer:
+        for (int i = 0; i < lists[0].size; i++) {
+            int ordinal = lists[0].docs[i];
+            for (int j = 1; j < lists.length; j++) {
+                if (!lists[j].contains(ordinal)) {
+                    continue outer;
+                }
+            }
+            result.set(ordinal);
+        }
+        return result;
+    }
+    
+    private int score(int ordinal, String q, Set<Long> matchingDeptIds) {
+        String[] doc = documents[ordinal];
+        int score = matchingDeptIds.contains(deptIds[ordinal]) ? DEPARTMENT_WEIGHT : 0;
+        for (int field = NAME; field <= DESIGNATION; field++) {
+            int at = doc[field].indexOf(q);
+            if (at < 0) {
+                continue;
+            }
+            int weight = FIELD_WEIGHTS[field];
+            if (doc[field].length() == q.length()) {
+                score += weight * 3;
+            } else if (at == 0) {
+                score += weight * 2;
+            } else {
+                score += weight;
+            }
+        }
+        return score;
+    }
+    
+    private void put(Long empId, String[] doc, long deptId) {
+        Integer ordinal = ordinals.get(empId);
+        if (ordinal != null) {
+            unlink(ordinal);
+        } else {
+            ordinal = nextOrdinal++;
+            if (ordinal == ids.length) {
+                ids = Arrays.copyOf(ids, ids.length * 2);
+                deptIds = Arrays.copyOf(deptIds, deptIds.length * 2);
+                documents = Arrays.copyOf(documents, documents.length * 2);
+            }
+            ordinals.put(empId, ordinal);
+            ids[ordinal] = empId;
+        }
+        documents[ordinal] = doc;
+        deptIds[ordinal] = deptId;
+        departmentMembers.computeIfAbsent(deptId, d -> new PostingList()).add(ordinal);
+        for (long gram : trigrams(doc)) {
+            postings.computeIfAbsent(gram, g -> new PostingList()).add(ordinal);
+        }
+        for (long gram : bigrams(doc)) {
+            postings.computeIfAbsent(gram, g -> new PostingList()).add(ordinal);
+        }
+        for (String field : doc) {
+            for (int i = 0; i < field.length(); i++) {
+                characters.computeIfAbsent(field.charAt(i), c -> new BitSet()).set(ordinal);
+            }
+        }
+    }
+    
+    private void compactIfNeeded() {
+        if (dead >= MIN_DEAD_FOR_COMPACTION && dead * 4L >= nextOrdinal) {
+            compact();
+        }
+    }
+    
+    // Re-indexes the live documents in ordinal order under fresh, dense ordinals; every posting
+    // is an append again, and the per-ordinal arrays shrink to fit (caller holds the write lock)
+    private void compact() {
+        long[] oldIds = ids;
+        long[] oldDeptIds = deptIds;
+        String[][] oldDocuments = documents;
+        int oldNext = nextOrdinal;
+        postings.clear();
+        characters.clear();
+        departmentMembers.clear();
+        ordinals.clear();
+        int capacity = Math.max(1024, Integer.highestOneBit(Math.max(1, oldNext - dead)) * 2);
+        ids = new long[capacity];
+        deptIds = new long[capacity];
+        documents = new String[capacity][];
+        nextOrdinal = 0;
+        dead = 0;
+        for (int ordinal = 0; ordinal < oldNext; ordinal++) {
+            if (oldDocuments[ordinal] != null) {
+                put(oldIds[ordinal], oldDocuments[ordinal], oldDeptIds[ordinal]);
+            }
+        }
+    }
+    
+    private void unlink(int ordinal) {
+        unlink(departmentMembers, deptIds[ordinal], ordinal);
+        for (long gram : trigrams(documents[ordinal])) {
+            unlink(postings, gram, ordinal);
+        }
+        for (long gram : bigrams(documents[ordinal])) {
+            unlink(postings, gram, ordinal);
+        }
+        unlinkCharacters(ordinal);
+    }
+    
+    private void unlinkCharacters(int ordinal) {
+        for (String field : documents[ordinal]) {
+            for (int i = 0; i < field.length(); i++) {
+                BitSet withCharacter = characters.get(field.charAt(i));
+                if (withCharacter != null) {
+                    withCharacter.clear(ordinal);
+                }
+            }
+        }
+    }
+    
+    private static void unlink(Map<Long, PostingList> lists, long key, int ordinal) {
+        PostingList list = lists.get(key);
+        if (list != null) {
+            list.remove(ordinal);
+            if (list.size == 0) {
+                lists.remove(key);
+            }
+        }
+    }
+    
+    private static long[] trigrams(String... values) {
+        return grams(3, values);
+    }
+    
+    private static long[] bigrams(String... values) {
+        return grams(2, values);
+    }
+    
+    // Bigrams are tagged above the 48 bits a trigram uses, so both share one posting map
+    private static long bigram(String value, int at) {
+        return (1L << 48) | ((long) value.charAt(at) << 16) | value.charAt(at + 1);
+    }
+    
+    private static long[] grams(int length, String... values) {
+        long[] grams = new long[16];
+        int n = 0;
+        for (String value : values) {
+            for (int i = 0; i + length <= value.length(); i++) {
+                if (n == grams.length) {
+                    grams = Arrays.copyOf(grams, n * 2);
+                }
+                grams[n++] = length == 2 ? bigram(value, i)
+                        : ((long) value.charAt(i) << 32) | ((long) value.charAt(i + 1) << 16) | value.charAt(i + 2);
+            }
+        }
+        Arrays.sort(grams, 0, n);
+        int distinct = 0;
+        for (int i = 0; i < n; i++) {
+            if (distinct == 0 || grams[i] != grams[distinct - 1]) {
+                grams[distinct++] = grams[i];
+            }
+        }
+        return Arrays.copyOf(grams, distinct);
+    }
+    
+    public static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    /**
+     * Growable, sorted array of ordinals. Ordinals are handed out in increasing
+     * order, so inserts on a fresh build are appends.
+     */
+    private static final class PostingList {
+        
+        private int[] docs = new int[4];
+        private int size;
+        
+        void add(int ordinal) {
+            int at = size == 0 || docs[size - 1] < ordinal ? -(size + 1) : Arrays.binarySearch(docs, 0, size, ordinal);
+            if (at >= 0) {
+                return;
+            }
+            at = -(at + 1);
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            System.arraycopy(docs, at, docs, at + 1, size - at);
+            docs[at] = ordinal;
+            size++;
+        }
+        
+        void remove(int ordinal) {
+            int at = Arrays.binarySearch(docs, 0, size, ordinal);
+            if (at >= 0) {
+                System.arraycopy(docs, at + 1, docs, at, size - at - 1);
+                size--;
+            }
+        }
+        
+        void removeAll(BitSet ordinals) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (!ordinals.get(docs[i])) {
+                    docs[kept++] = docs[i];
+                }
+            }
+            size = kept;
+        }
+        
+        boolean contains(int ordinal) {
+            return Arrays.binarySearch(docs, 0, size, ordinal) >= 0;
+        }
+    }
+}
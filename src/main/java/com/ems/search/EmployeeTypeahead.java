@@ -0,0 +1,676 @@
+package com.ems.search;
+
+import com.ems.dto.EmployeeSuggestion;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory prefix index behind the employee search box's suggestions.
+ *
+ * Terms are the normalized name and designation, plus the same text from
+ * each of the next few words, so "smi" finds "John Smith". They live in a
+ * compressed prefix trie (one node per branch point, edges labelled with
+ * whole character runs); each term's node holds a sorted posting list of
+ * entry ordinals. A lookup walks down to the prefix and then visits the
+ * subtree best-first on the shortest term, then the lowest ordinal, below
+ * each node, so it stops after reading about limit postings however many
+ * employees share the prefix. Shorter completions rank first, then lower
+ * ordinals (older entries).
+ *
+ * Every (re)index appends a fresh ordinal, so posting lists only ever grow
+ * at the end; removing an entry just marks its ordinal dead. Once dead
+ * entries reach a quarter of all ordinals the trie is compacted in one pass:
+ * dead postings go, emptied nodes are pruned and ordinals renumbered.
+ *
+ * Memory is estimated as the trie grows and capped by
+ * ems.typeahead.max-memory-mb. At the cap new employees are refused (and
+ * counted) rather than growing the heap further, though an employee already
+ * indexed is still re-indexed on edit; removals and compaction bring it back
+ * under. Suggestions show the first-seen spelling of each distinct name or
+ * designation.
+ */
+@Component
+public class EmployeeTypeahead {
+    
+    private static final int NAME = 0;
+    private static final int DESIGNATION = 1;
+    private static final String[] FIELD_NAMES = {"name", "designation"};
+    
+    // The field itself plus this many later words are indexed as terms
+    private static final int MAX_WORDS = 4;
+    
+    // Compaction waits for at least this many dead entries, so small indexes aren't compacted constantly
+    private static final int MIN_DEAD_FOR_COMPACTION = 1024;
+    
+    private static final long DEAD = Long.MIN_VALUE;
+    private static final Node[] NO_CHILDREN = new Node[0];
+    
+    // Estimated heap sizes with compressed references: 12-byte object headers, 16-byte array headers, 8-byte alignment
+    private static final int NODE_BYTES = 48;
+    private static final int STRING_BYTES = 24;
+    
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final long maxBytes;
+    
+    private Node root;
+    private OrdinalMap ordinals;
+    private long[] ids;
+    private Node[] nameNodes;
+    private Node[] designationNodes;
+    private int nextOrdinal;
+    private int live;
+    private int nodes;
+    private long estimatedBytes;
+    private boolean full;
+    private long rejected;
+    private long compactions;
+    private long lastCompactionMillis;
+    
+    public EmployeeTypeahead(@Value("${ems.typeahead.max-memory-mb:256}") int maxMemoryMb) {
+        this.maxBytes = maxMemoryMb * 1024L * 1024L;
+        reset();
+    }
+    
+    /**
+     * Adds or replaces the suggestions for one employee.
+     */
+    public void index(Long empId, String name, String designation) {
+        lock.writeLock().lock();
+        try {
+            int previous = ordinals.remove(empId);
+            if (previous >= 0) {
+                kill(previous);
+            }
+            // An edit replaces an entry the cap already let in, so only employees new to the index are refused
+            if (previous < 0 && estimatedBytes >= maxBytes) {
+                rejected++;
+                if (!full) {
+                    full = true;
+                    System.out.println("Typeahead index reached " + (maxBytes >> 20) + " MB; new employees are not "
+                            + "suggested until it shrinks (ems.typeahead.max-memory-mb)");
+                }
+            } else {
+                add(empId, name, designation);
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public void remove(Long empId) {
+        removeAll(Collections.singletonList(empId));
+    }
+    
+    public void removeAll(Collection<Long> empIds) {
+        lock.writeLock().lock();
+        try {
+            for (Long empId : empIds) {
+                int ordinal = ordinals.remove(empId);
+                if (ordinal >= 0) {
+                    kill(ordinal);
+                }
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            reset();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return live;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Returns up to {@code limit} employees with a name or designation (or a
+     * word in one) starting with {@code prefix}, shortest match first.
+     */
+    public List<EmployeeSuggestion> suggest(String prefix, int limit) {
+        String q = EmployeeSearchIndex.normalize(prefix);
+        if (q.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        
+        List<EmployeeSuggestion> result = new ArrayList<>(Math.min(limit, 64));
+        lock.readLock().lock();
+        try {
+            Node start = find(q);
+            if (start == null) {
+                return result;
+            }
+            // A subtree is queued under a lower bound on the (length, ordinal) of every posting
+            // below it, and a node's postings one at a time under their exact values, so
+            // postings come off by length and then by ordinal across all nodes
+            Set<Integer> seen = new HashSet<>();
+            PriorityQueue<Candidate> queue = new PriorityQueue<>();
+            queue.add(Candidate.subtree(start));
+            while (!queue.isEmpty() && result.size() < limit) {
+                Candidate candidate = queue.poll();
+                Node node = candidate.node;
+                if (candidate.position >= 0) {
+                    int posting = node.postings[candidate.position];
+                    int ordinal = posting >>> 1;
+                    if (ids[ordinal] != DEAD && seen.add(ordinal)) {
+                        result.add(new EmployeeSuggestion(ids[ordinal], display(nameNodes[ordinal]),
+                                display(designationNodes[ordinal]), FIELD_NAMES[posting & 1]));
+                    }
+                    if (candidate.position + 1 < node.postingCount) {
+                        queue.add(Candidate.posting(node, candidate.position + 1));
+                    }
+                    continue;
+                }
+                if (node.postingCount > 0) {
+                    queue.add(Candidate.posting(node, 0));
+                }
+                for (Node child : node.children) {
+                    queue.add(Candidate.subtree(child));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+    
+    public long estimatedBytes() {
+        lock.readLock().lock();
+        try {
+            return estimatedBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public Map<String, Object> getStats() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("entries", live);
+            stats.put("deadEntries", nextOrdinal - live);
+            stats.put("nodes", nodes);
+            stats.put("estimatedBytes", estimatedBytes);
+            stats.put("maxBytes", maxBytes);
+            stats.put("rejected", rejected);
+            stats.put("compactions", compactions);
+            stats.put("lastCompactionMs", lastCompactionMillis);
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private void reset() {
+        root = new Node(new char[0], 0);
+        ordinals = new OrdinalMap();
+        ids = new long[1024];
+        nameNodes = new Node[1024];
+        designationNodes = new Node[1024];
+        nextOrdinal = 0;
+        live = 0;
+        nodes = 0;
+        full = false;
+        estimatedBytes = ordinals.bytes() + ordinalArrayBytes() + nodeBytes(root);
+    }
+    
+    private void add(Long empId, String name, String designation) {
+        int ordinal = nextOrdinal++;
+        if (ordinal == ids.length) {
+            estimatedBytes -= ordinalArrayBytes();
+            ids = Arrays.copyOf(ids, ids.length * 2);
+            nameNodes = Arrays.copyOf(nameNodes, nameNodes.length * 2);
+            designationNodes = Arrays.copyOf(designationNodes, designationNodes.length * 2);
+            estimatedBytes += ordinalArrayBytes();
+        }
+        ids[ordinal] = empId;
+        nameNodes[ordinal] = addTerms(name, ordinal, NAME);
+        designationNodes[ordinal] = addTerms(designation, ordinal, DESIGNATION);
+        long mapBytes = ordinals.bytes();
+        ordinals.put(empId, ordinal);
+        estimatedBytes += ordinals.bytes() - mapBytes;
+        live++;
+    }
+    
+    private void kill(int ordinal) {
+        ids[ordinal] = DEAD;
+        nameNodes[ordinal] = null;
+        designationNodes[ordinal] = null;
+        live--;
+    }
+    
+    // Indexes the whole field and each later word; returns the whole field's node, which keeps its spelling
+    private Node addTerms(String value, int ordinal, int field) {
+        String display = value != null ? value.trim() : "";
+        String text = EmployeeSearchIndex.normalize(display);
+        if (text.isEmpty()) {
+            return null;
+        }
+        int posting = (ordinal << 1) | field;
+        Node whole = insert(text, 0, posting, display);
+        int words = 0;
+        for (int i = 1; i < text.length() && words < MAX_WORDS; i++) {
+            if (!Character.isLetterOrDigit(text.charAt(i - 1)) && Character.isLetterOrDigit(text.charAt(i))) {
+                insert(text, i, posting, null);
+                words++;
+            }
+        }
+        return whole;
+    }
+    
+    private Node insert(String text, int from, int posting, String display) {
+        int length = text.length() - from;
+        Node node = root;
+        int i = from;
+        while (true) {
+            // Ordinals only grow, so a term no shorter than the shortest below leaves the bounds alone
+            if (length < node.minLength) {
+                node.minLength = length;
+                node.minOrdinal = posting >>> 1;
+            }
+            if (i == text.length()) {
+                long before = nodeBytes(node);
+                node.addPosting(posting);
+                if (display != null && node.display == null) {
+                    node.display = display;
+                }
+                estimatedBytes += nodeBytes(node) - before;
+                return node;
+            }
+            int at = node.childIndex(text.charAt(i));
+            if (at < 0) {
+                Node leaf = newNode(text.substring(i).toCharArray(), length);
+                replaceChildren(node, insertAt(node.children, -(at + 1), leaf));
+                node = leaf;
+                i = text.length();
+                continue;
+            }
+            Node child = node.children[at];
+            int common = commonPrefix(child.label, text, i);
+            if (common < child.label.length) {
+                // Split the edge where the new term leaves it
+                Node split = newNode(Arrays.copyOf(child.label, common), child.length - child.label.length + common);
+                split.minLength = child.minLength;
+                split.minOrdinal = child.minOrdinal;
+                estimatedBytes -= arrayBytes(child.label.length, 2);
+                child.label = Arrays.copyOfRange(child.label, common, child.label.length);
+                estimatedBytes += arrayBytes(child.label.length, 2);
+                replaceChildren(split, new Node[] {child});
+                node.children[at] = split;
+                child = split;
+            }
+            node = child;
+            i += common;
+        }
+    }
+    
+    // The node whose path spells q, or whose edge q ends inside of
+    private Node find(String q) {
+        Node node = root;
+        int i = 0;
+        while (i < q.length()) {
+            int at = node.childIndex(q.charAt(i));
+            if (at < 0) {
+                return null;
+            }
+            Node child = node.children[at];
+            int common = commonPrefix(child.label, q, i);
+            if (i + common == q.length()) {
+                return child;
+            }
+            if (common < child.label.length) {
+                return null;
+            }
+            node = child;
+            i += common;
+        }
+        return node;
+    }
+    
+    private void compactIfNeeded() {
+        int dead = nextOrdinal - live;
+        if (dead >= MIN_DEAD_FOR_COMPACTION && dead * 4L >= nextOrdinal) {
+            compact();
+        }
+    }
+    
+    private void compact() {
+        long start = System.currentTimeMillis();
+        int[] remap = new int[nextOrdinal];
+        int count = 0;
+        for (int ordinal = 0; ordinal < nextOrdinal; ordinal++) {
+            if (ids[ordinal] == DEAD) {
+                remap[ordinal] = -1;
+                continue;
+            }
+            remap[ordinal] = count;
+            ids[count] = ids[ordinal];
+            nameNodes[count] = nameNodes[ordinal];
+            designationNodes[count] = designationNodes[ordinal];
+            count++;
+        }
+        Arrays.fill(nameNodes, count, nextOrdinal, null);
+        Arrays.fill(designationNodes, count, nextOrdinal, null);
+        nextOrdinal = count;
+        ordinals = new OrdinalMap();
+        for (int ordinal = 0; ordinal < count; ordinal++) {
+            ordinals.put(ids[ordinal], ordinal);
+        }
+        
+        nodes = 0;
+        estimatedBytes = ordinals.bytes() + ordinalArrayBytes();
+        compact(root, remap);
+        compactions++;
+        lastCompactionMillis = System.currentTimeMillis() - start;
+        full = estimatedBytes >= maxBytes;
+    }
+    
+    // Renumbers a subtree's postings, dropping dead ones; returns the node to keep in its place, or null
+    private Node compact(Node node, int[] remap) {
+        int kept = 0;
+        for (int i = 0; i < node.postingCount; i++) {
+            int ordinal = remap[node.postings[i] >>> 1];
+            if (ordinal >= 0) {
+                node.postings[kept++] = (ordinal << 1) | (node.postings[i] & 1);
+            }
+        }
+        node.postingCount = kept;
+        if (kept == 0) {
+            node.postings = null;
+            node.display = null;
+        } else if (kept < node.postings.length / 4) {
+            node.postings = Arrays.copyOf(node.postings, kept);
+        }
+        
+        int children = 0;
+        int minLength = kept > 0 ? node.length : Integer.MAX_VALUE;
+        int minOrdinal = kept > 0 ? node.postings[0] >>> 1 : Integer.MAX_VALUE;
+        for (Node child : node.children) {
+            Node survivor = compact(child, remap);
+            if (survivor == null) {
+                continue;
+            }
+            node.children[children++] = survivor;
+            if (survivor.minLength < minLength) {
+                minLength = survivor.minLength;
+                minOrdinal = survivor.minOrdinal;
+            } else if (survivor.minLength == minLength) {
+                minOrdinal = Math.min(minOrdinal, survivor.minOrdinal);
+            }
+        }
+        node.children = children == 0 ? NO_CHILDREN
+                : children < node.children.length ? Arrays.copyOf(node.children, children) : node.children;
+        node.minLength = minLength;
+        node.minOrdinal = minOrdinal;
+        
+        if (node != root && kept == 0) {
+            if (children == 0) {
+                return null;
+            }
+            if (children == 1) {
+                // Fold this edge into the only child; the child stays, so entries pointing at it stay valid
+                Node only = node.children[0];
+                estimatedBytes -= arrayBytes(only.label.length, 2);
+                char[] label = Arrays.copyOf(node.label, node.label.length + only.label.length);
+                System.arraycopy(only.label, 0, label, node.label.length, only.label.length);
+                only.label = label;
+                estimatedBytes += arrayBytes(only.label.length, 2);
+                return only;
+            }
+        }
+        nodes++;
+        estimatedBytes += nodeBytes(node);
+        return node;
+    }
+    
+    private Node newNode(char[] label, int length) {
+        Node node = new Node(label, length);
+        nodes++;
+        estimatedBytes += nodeBytes(node);
+        return node;
+    }
+    
+    private void replaceChildren(Node node, Node[] children) {
+        estimatedBytes -= arrayBytes(node.children.length, 4);
+        node.children = children;
+        estimatedBytes += arrayBytes(children.length, 4);
+    }
+    
+    private long ordinalArrayBytes() {
+        return arrayBytes(ids.length, 8) + arrayBytes(nameNodes.length, 4) + arrayBytes(designationNodes.length, 4);
+    }
+    
+    private static long nodeBytes(Node node) {
+        long bytes = NODE_BYTES + arrayBytes(node.label.length, 2) + arrayBytes(node.children.length, 4);
+        if (node.postings != null) {
+            bytes += arrayBytes(node.postings.length, 4);
+        }
+        if (node.display != null) {
+            // Latin-1 strings take a byte per character
+            bytes += STRING_BYTES + arrayBytes(node.display.length(), 1);
+        }
+        return bytes;
+    }
+    
+    // Empty arrays are shared, so they cost nothing
+    private static long arrayBytes(int length, int elementBytes) {
+        return length == 0 ? 0 : (16 + (long) length * elementBytes + 7) & ~7L;
+    }
+    
+    private static String display(Node node) {
+        return node != null ? node.display : null;
+    }
+    
+    private static Node[] insertAt(Node[] children, int at, Node child) {
+        Node[] result = new Node[children.length + 1];
+        System.arraycopy(children, 0, result, 0, at);
+        result[at] = child;
+        System.arraycopy(children, at, result, at + 1, children.length - at);
+        return result;
+    }
+    
+    private static int commonPrefix(char[] label, String text, int from) {
+        int max = Math.min(label.length, text.length() - from);
+        int i = 0;
+        while (i < max && label[i] == text.charAt(from + i)) {
+            i++;
+        }
+        return i;
+    }
+    
+    /**
+     * Trie node. The label is the edge from the parent; length is the length
+     * of the term this node spells; minLength is a lower bound on the length
+     * of every term at or below it, and minOrdinal on the ordinals of the
+     * postings of that length. Postings are ordinal * 2 + field.
+     */
+    private static final class Node {
+        
+        private char[] label;
+        private final int length;
+        private Node[] children = NO_CHILDREN;
+        private int[] postings;
+        private int postingCount;
+        private String display;
+        private int minLength = Integer.MAX_VALUE;
+        private int minOrdinal = Integer.MAX_VALUE;
+        
+        Node(char[] label, int length) {
+            this.label = label;
+            this.length = length;
+        }
+        
+        // Children are kept sorted by the first character of their label
+        int childIndex(char c) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char key = children[mid].label[0];
+                if (key < c) {
+                    low = mid + 1;
+                } else if (key > c) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+        
+        // Ordinals are handed out in increasing order, so postings are appended
+        void addPosting(int posting) {
+            if (postings == null) {
+                postings = new int[1];
+            } else if (postingCount == postings.length) {
+                postings = Arrays.copyOf(postings, postingCount * 2);
+            }
+            postings[postingCount++] = posting;
+        }
+    }
+    
+    private static final class Candidate implements Comparable<Candidate> {
+        
+        private final int length;
+        private final int ordinal;
+        private final Node node;
+        // The node's next posting to emit, or -1 for a subtree still to expand
+        private final int position;
+        
+        private Candidate(int length, int ordinal, Node node, int position) {
+            this.length = length;
+            this.ordinal = ordinal;
+            this.node = node;
+            this.position = position;
+        }
+        
+        static Candidate subtree(Node node) {
+            return new Candidate(node.minLength, node.minOrdinal, node, -1);
+        }
+        
+        static Candidate posting(Node node, int position) {
+            return new Candidate(node.length, node.postings[position] >>> 1, node, position);
+        }
+        
+        // Postings ahead of subtrees with the same bound, so a full result can stop the walk early
+        @Override
+        public int compareTo(Candidate other) {
+            if (length != other.length) {
+                return Integer.compare(length, other.length);
+            }
+            if (ordinal != other.ordinal) {
+                return Integer.compare(ordinal, other.ordinal);
+            }
+            return Boolean.compare(other.position >= 0, position >= 0);
+        }
+    }
+    
+    /**
+     * Open-addressing map from employee id to ordinal, about 24 bytes per
+     * entry instead of the ~70 of a HashMap of boxed keys and values.
+     */
+    private static final class OrdinalMap {
+        
+        private static final long EMPTY = Long.MIN_VALUE;
+        
+        private long[] keys;
+        private int[] values;
+        private int size;
+        
+        OrdinalMap() {
+            allocate(1024);
+        }
+        
+        void put(long key, int value) {
+            if ((size + 1) * 2 > keys.length) {
+                long[] oldKeys = keys;
+                int[] oldValues = values;
+                allocate(keys.length * 2);
+                for (int i = 0; i < oldKeys.length; i++) {
+                    if (oldKeys[i] != EMPTY) {
+                        insert(oldKeys[i], oldValues[i]);
+                    }
+                }
+            }
+            insert(key, value);
+        }
+        
+        // Removes the key and returns its ordinal, or -1; later entries of the probe run shift back into the gap
+        int remove(long key) {
+            int mask = keys.length - 1;
+            int i = slot(key, mask);
+            while (keys[i] != key) {
+                if (keys[i] == EMPTY) {
+                    return -1;
+                }
+                i = (i + 1) & mask;
+            }
+            int value = values[i];
+            int gap = i;
+            for (int j = (i + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+                int home = slot(keys[j], mask);
+                if (((j - home) & mask) >= ((j - gap) & mask)) {
+                    keys[gap] = keys[j];
+                    values[gap] = values[j];
+                    gap = j;
+                }
+            }
+            keys[gap] = EMPTY;
+            size--;
+            return value;
+        }
+        
+        long bytes() {
+            return arrayBytes(keys.length, 8) + arrayBytes(values.length, 4);
+        }
+        
+        private void insert(long key, int value) {
+            int mask = keys.length - 1;
+            int i = slot(key, mask);
+            while (keys[i] != EMPTY && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            if (keys[i] == EMPTY) {
+                size++;
+            }
+            keys[i] = key;
+            values[i] = value;
+        }
+        
+        private void allocate(int capacity) {
+            keys = new long[capacity];
+            values = new int[capacity];
+            Arrays.fill(keys, EMPTY);
+            size = 0;
+        }
+        
+        private static int slot(long key, int mask) {
+            return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.ems.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Single authentication check for every protected handler. Runs before
+ * argument binding and the handler itself, so unauthenticated requests never
+ * reach controller or model code. Page requests are redirected to the login
+ * page; data endpoints get a 401.
+ */
+@Component
+public class AuthenticationInterceptor implements HandlerInterceptor {
+    
+    public static final String LOGGED_IN = "loggedIn";
+    public static final String USERNAME = "username";
+    
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        HttpSession session = request.getSession(false);
+        if (session != null && session.getAttribute(LOGGED_IN) != null) {
+            return true;
+        }
+        
+        if (isDataEndpoint(handler)) {
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+        } else {
+            response.sendRedirect(request.getContextPath() + "/login");
+        }
+        return false;
+    }
+    
+    private static boolean isDataEndpoint(Object handler) {
+        if (!(handler instanceof HandlerMethod method)) {
+            return false;
+        }
+        return method.hasMethodAnnotation(ResponseBody.class)
+                || AnnotatedElementUtils.hasAnnotation(method.getBeanType(), ResponseBody.class)
+                || HttpEntity.class.isAssignableFrom(method.getReturnType().getParameterType());
+    }
+}
@@ -0,0 +1,132 @@
+package com.ems.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Token buckets for login attempts. An attempt needs a token from the bucket
+ * of its client address and from the bucket of the username it names from
+ * that address: the first stops one address from working through many
+ * accounts, the second stops it from spending its whole allowance on one.
+ * Buckets start full and refill at a steady rate. A rejected attempt costs
+ * nothing beyond a map lookup, so bursts are turned away before any password
+ * hashing is scheduled.
+ */
+@Component
+public class LoginRateLimiter {
+    
+    // Buckets that have refilled completely carry no state worth keeping; they are
+    // swept at most once per interval, and past the cap new clients are refused
+    // rather than letting a flood of addresses grow the map without bound
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private static final int MAX_BUCKETS = 100_000;
+    
+    private final ConcurrentMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweep = new AtomicLong(System.nanoTime());
+    private final Limit accountLimit;
+    private final Limit addressLimit;
+    
+    public LoginRateLimiter(@Value("${ems.login.rate-limit.capacity:5}") int capacity,
+                            @Value("${ems.login.rate-limit.refill-per-minute:10}") int refillPerMinute,
+                            @Value("${ems.login.rate-limit.address-capacity:20}") int addressCapacity,
+                            @Value("${ems.login.rate-limit.address-refill-per-minute:30}") int addressRefillPerMinute) {
+        this.accountLimit = new Limit(capacity, refillPerMinute);
+        this.addressLimit = new Limit(addressCapacity, addressRefillPerMinute);
+    }
+    
+    /**
+     * Takes one token for the attempt from both its address and its account
+     * bucket, returning false when either is empty. Usernames are compared
+     * ignoring case and surrounding spaces, so varying them does not open a
+     * fresh bucket.
+     */
+    public boolean tryAcquire(String username, String clientAddress) {
+        long now = System.nanoTime();
+        sweepIfDue(now);
+        String account = username == null ? "" : username.trim().toLowerCase(Locale.ROOT);
+        // The address is checked first so a refused address does not drain its accounts' buckets
+        return tryTake(clientAddress, addressLimit, now)
+                && tryTake(account + '@' + clientAddress, accountLimit, now);
+    }
+    
+    private boolean tryTake(String key, Limit limit, long now) {
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= MAX_BUCKETS) {
+                return false;
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new TokenBucket(limit, now));
+        }
+        return bucket.tryTake(now);
+    }
+    
+    private void sweepIfDue(long now) {
+        long last = lastSweep.get();
+        if (now - last >= SWEEP_INTERVAL_NANOS && lastSweep.compareAndSet(last, now)) {
+            buckets.values().removeIf(bucket -> bucket.isFull(now));
+        }
+    }
+    
+    private static final class Limit {
+        
+        final double capacity;
+        final double tokensPerNano;
+        
+        Limit(int capacity, int refillPerMinute) {
+            this.capacity = capacity;
+            this.tokensPerNano = refillPerMinute / 60_000_000_000.0;
+        }
+    }
+    
+    // Guarded by a ReentrantLock rather than synchronized so a virtual thread
+    // waiting on a contended bucket parks instead of pinning its carrier
+    private static final class TokenBucket {
+        
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Limit limit;
+        private double tokens;
+        private long updatedAt;
+        
+        TokenBucket(Limit limit, long now) {
+            this.limit = limit;
+            this.tokens = limit.capacity;
+            this.updatedAt = now;
+        }
+        
+        boolean tryTake(long now) {
+            lock.lock();
+            try {
+                refill(now);
+                if (tokens < 1) {
+                    return false;
+                }
+                tokens -= 1;
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        boolean isFull(long now) {
+            lock.lock();
+            try {
+                refill(now);
+                return tokens >= limit.capacity;
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        private void refill(long now) {
+            tokens = Math.min(limit.capacity, tokens + (now - updatedAt) * limit.tokensPerNano);
+            updatedAt = now;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.ems.service;
+
+import com.ems.dto.AuditEntry;
+import com.ems.dto.AuditEntry.FieldChange;
+import com.ems.dto.AuditPage;
+import com.ems.model.AuditEvent;
+import com.ems.model.AuditEvent.EntityType;
+import com.ems.repository.AuditEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the change history written by AuditTrail. Events reach the table a
+ * flush interval after the change, so the newest one may be missing briefly.
+ */
+@Service
+public class AuditService {
+    
+    private static final TypeReference<LinkedHashMap<String, List<String>>> CHANGES = new TypeReference<>() {
+    };
+    
+    @Autowired
+    private AuditEventRepository auditEventRepository;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${ems.audit.history.page-size:20}")
+    private int pageSize;
+    
+    /**
+     * Returns one page of an employee's history, newest first. Pass "before"
+     * to move to older entries from a page's older cursor, or "after" to move
+     * back to newer ones. Deleted employees keep their history.
+     */
+    @Transactional(readOnly = true)
+    public AuditPage getEmployeeHistory(Long empId, Long after, Long before) {
+        // Fetch one extra row to find out whether another page exists without a count query
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        
+        if (after != null) {
+            List<AuditEvent> events = auditEventRepository.findHistoryAfter(EntityType.EMPLOYEE, empId, after, limit);
+            boolean hasNewer = events.size() > pageSize;
+            List<AuditEvent> content = new ArrayList<>(events.subList(0, Math.min(events.size(), pageSize)));
+            Collections.reverse(content);
+            if (content.isEmpty()) {
+                return new AuditPage(Collections.emptyList(), pageSize, null, null);
+            }
+            Long newerCursor = hasNewer ? content.get(0).getEventId() : null;
+            return new AuditPage(toEntries(content), pageSize, content.get(content.size() - 1).getEventId(), newerCursor);
+        }
+        
+        long beforeId = before != null ? before : Long.MAX_VALUE;
+        List<AuditEvent> events = auditEventRepository.findHistoryBefore(EntityType.EMPLOYEE, empId, beforeId, limit);
+        boolean hasOlder = events.size() > pageSize;
+        List<AuditEvent> content = events.subList(0, Math.min(events.size(), pageSize));
+        if (content.isEmpty()) {
+            return new AuditPage(Collections.emptyList(), pageSize, null, null);
+        }
+        Long olderCursor = hasOlder ? content.get(content.size() - 1).getEventId() : null;
+        Long newerCursor = before != null ? content.get(0).getEventId() : null;
+        return new AuditPage(toEntries(content), pageSize, olderCursor, newerCursor);
+    }
+    
+    private List<AuditEntry> toEntries(List<AuditEvent> events) {
+        List<AuditEntry> entries = new ArrayList<>(events.size());
+        for (AuditEvent event : events) {
+            List<FieldChange> changes = new ArrayList<>();
+            for (Map.Entry<String, List<String>> change : parseChanges(event.getChanges()).entrySet()) {
+                changes.add(new FieldChange(change.getKey(), change.getValue().get(0), change.getValue().get(1)));
+            }
+            entries.add(new AuditEntry(event.getEventId(), event.getChangedAt(), event.getUsername(),
+                    event.getAction().name(), changes));
+        }
+        return entries;
+    }
+    
+    private Map<String, List<String>> parseChanges(String changes) {
+        if (changes == null || changes.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        try {
+            return objectMapper.readValue(changes, CHANGES);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable audit changes: " + changes, e);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.ems.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reports hit ratio, size and eviction counts for the Hibernate
+ * second-level cache regions. Hit/miss/put counts come from Hibernate
+ * statistics; evictions come from the JCache statistics MXBeans.
+ */
+@Service
+public class CacheStatisticsService {
+    
+    private static final String[] REGIONS = {"employees", "departments"};
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    public Map<String, Map<String, Object>> getSecondLevelCacheStats() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Map<String, Map<String, Object>> regions = new LinkedHashMap<>();
+        for (String region : REGIONS) {
+            CacheRegionStatistics regionStats = statistics.getDomainDataRegionStatistics(region);
+            long hits = regionStats.getHitCount();
+            long misses = regionStats.getMissCount();
+            
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("hits", hits);
+            stats.put("misses", misses);
+            stats.put("puts", regionStats.getPutCount());
+            stats.put("hitRatio", hits + misses > 0 ? (double) hits / (hits + misses) : 0.0);
+            stats.put("evictions", getEvictions(region));
+            regions.put(region, stats);
+        }
+        return regions;
+    }
+    
+    private long getEvictions(String region) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            Set<ObjectName> names = server.queryNames(
+                    new ObjectName("javax.cache:type=CacheStatistics,CacheManager=*,Cache=" + region), null);
+            long evictions = 0;
+            for (ObjectName name : names) {
+                evictions += (Long) server.getAttribute(name, "CacheEvictions");
+            }
+            return evictions;
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+}
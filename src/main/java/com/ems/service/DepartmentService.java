@@ -1,12 +1,29 @@
 package com.ems.service;
 
+import com.ems.audit.AuditTrail;
+import com.ems.datasource.ReplicaRead;
+import com.ems.datasource.ReplicaRouting;
+import com.ems.feed.ChangeFeed;
+import com.ems.model.AuditEvent.Action;
+import com.ems.model.AuditEvent.EntityType;
 import com.ems.model.Department;
 import com.ems.repository.DepartmentRepository;
+import com.ems.repository.EmployeeRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 
 @Service
 public class DepartmentService {
@@ -14,12 +31,31 @@ public class DepartmentService {
     @Autowired
     private DepartmentRepository departmentRepository;
     
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    
+    @Autowired
+    private AuditTrail auditTrail;
+    
+    @Autowired
+    private ChangeFeed changeFeed;
+    
+    // Department reference data is read on nearly every page and rarely written, so reads
+    // are served from an immutable snapshot. Writes bump the version, which makes any
+    // snapshot loaded before the write stale.
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicReference<DepartmentSnapshot> snapshot = new AtomicReference<>();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    
+    @ReplicaRead
     public List<Department> getAllDepartments() {
-        return departmentRepository.findAll();
+        return currentSnapshot().departments;
     }
     
+    @ReplicaRead
     public Optional<Department> getDepartmentById(Long id) {
-        return departmentRepository.findById(id);
+        return Optional.ofNullable(currentSnapshot().byId.get(id));
     }
     
     public Department saveDepartment(Department department) {
@@ -28,19 +64,122 @@ public class DepartmentService {
         if (existingDept.isPresent() && !existingDept.get().getDeptId().equals(department.getDeptId())) {
             throw new IllegalArgumentException("Department name already exists");
         }
-        return departmentRepository.save(department);
+        // Audit "before" state comes from the snapshot, read before the write invalidates it
+        Map<String, String> before = department.getDeptId() != null
+                ? getDepartmentById(department.getDeptId()).map(DepartmentService::auditFields).orElse(null)
+                : null;
+        Department saved;
+        try {
+            saved = departmentRepository.save(department);
+        } finally {
+            invalidateCache();
+            ReplicaRouting.markWrite();
+        }
+        auditTrail.record(EntityType.DEPARTMENT, saved.getDeptId(), before != null ? Action.UPDATE : Action.CREATE,
+                before, auditFields(saved));
+        changeFeed.publishDepartment(before != null ? "rename" : "create", saved.getDeptId(), saved.getDeptName());
+        return saved;
     }
     
     public void deleteDepartment(Long id) {
-        departmentRepository.deleteById(id);
+        long employees = employeeRepository.countByDepartmentDeptId(id);
+        if (employees > 0) {
+            throw new IllegalArgumentException("Department still has " + employees
+                    + " employee(s); reassign them before deleting it");
+        }
+        Map<String, String> before = getDepartmentById(id).map(DepartmentService::auditFields).orElse(null);
+        try {
+            departmentRepository.deleteById(id);
+        } finally {
+            invalidateCache();
+            ReplicaRouting.markWrite();
+        }
+        if (before != null) {
+            auditTrail.record(EntityType.DEPARTMENT, id, Action.DELETE, before, null);
+            changeFeed.publishDepartment("delete", id, null);
+        }
     }
     
+    @ReplicaRead
     public long getTotalDepartments() {
-        return departmentRepository.count();
+        return currentSnapshot().departments.size();
     }
     
+    @ReplicaRead
     public Optional<Department> findByDeptName(String deptName) {
-        return departmentRepository.findByDeptName(deptName);
+        return Optional.ofNullable(currentSnapshot().byName.get(deptName));
+    }
+    
+    /**
+     * Ids of departments whose name contains the query, ignoring case.
+     */
+    @ReplicaRead
+    public Set<Long> findIdsByNameContaining(String query) {
+        String q = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        Set<Long> ids = new HashSet<>();
+        if (q.isEmpty()) {
+            return ids;
+        }
+        for (Department department : currentSnapshot().departments) {
+            if (department.getDeptName().toLowerCase(Locale.ROOT).contains(q)) {
+                ids.add(department.getDeptId());
+            }
+        }
+        return ids;
+    }
+    
+    public long getDataVersion() {
+        return version.get();
+    }
+    
+    public Map<String, Long> getCacheStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("hits", cacheHits.sum());
+        stats.put("misses", cacheMisses.sum());
+        stats.put("version", version.get());
+        return stats;
+    }
+    
+    public void invalidateCache() {
+        version.incrementAndGet();
+        snapshot.set(null);
+    }
+    
+    private static Map<String, String> auditFields(Department department) {
+        return Map.of("name", department.getDeptName());
+    }
+    
+    private DepartmentSnapshot currentSnapshot() {
+        DepartmentSnapshot current = snapshot.get();
+        long expected = version.get();
+        if (current != null && current.version == expected) {
+            cacheHits.increment();
+            return current;
+        }
+        cacheMisses.increment();
+        // Tag with the version read before loading: a write that lands mid-load leaves
+        // this snapshot stale, so the next read reloads instead of serving old rows.
+        DepartmentSnapshot loaded = new DepartmentSnapshot(expected, departmentRepository.findAll());
+        if (version.get() == expected) {
+            snapshot.compareAndSet(current, loaded);
+        }
+        return loaded;
+    }
+    
+    private static final class DepartmentSnapshot {
+        
+        private final long version;
+        private final List<Department> departments;
+        private final Map<Long, Department> byId = new HashMap<>();
+        private final Map<String, Department> byName = new HashMap<>();
+        
+        DepartmentSnapshot(long version, List<Department> departments) {
+            this.version = version;
+            this.departments = Collections.unmodifiableList(departments);
+            for (Department department : departments) {
+                byId.put(department.getDeptId(), department);
+                byName.put(department.getDeptName(), department);
+            }
+        }
     }
 }
-
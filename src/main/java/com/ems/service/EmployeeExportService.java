@@ -0,0 +1,182 @@
+package com.ems.service;
+
+import com.ems.dto.EmployeeRow;
+import com.ems.repository.EmployeeRepository;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Streams employees to a writer one row at a time. Rows are read as
+ * EmployeeRow projections, which never enter the persistence context, so
+ * memory use does not grow with the size of the table.
+ *
+ * CSV values starting with =, +, - or @ (or a tab or carriage return) get a
+ * leading apostrophe, so a spreadsheet shows them as text rather than
+ * evaluating them as formulas. JSON Lines values are written as they are.
+ */
+@Service
+public class EmployeeExportService {
+    
+    private static final int FLUSH_INTERVAL = 1000;
+    private static final int SEARCH_CHUNK_SIZE = 1000;
+    
+    // Leading characters that make a spreadsheet treat a cell as a formula
+    private static final String FORMULA_PREFIXES = "=+-@\t\r";
+    
+    public enum ExportFormat {
+        CSV("text/csv", "csv"),
+        JSONL("application/x-ndjson", "jsonl");
+        
+        private final String contentType;
+        private final String extension;
+        
+        ExportFormat(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+        
+        public String getContentType() {
+            return contentType;
+        }
+        
+        public String getExtension() {
+            return extension;
+        }
+        
+        public static ExportFormat fromParameter(String value) {
+            if (value == null || value.trim().isEmpty()) {
+                return CSV;
+            }
+            for (ExportFormat format : values()) {
+                if (format.extension.equalsIgnoreCase(value.trim()) || format.name().equalsIgnoreCase(value.trim())) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported export format: " + value);
+        }
+    }
+    
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    
+    @Autowired
+    private EmployeeService employeeService;
+    
+    /**
+     * Writes every employee matching the filters, in empId order. Filtered exports
+     * take the same path as the listing: matching ids come from the in-memory
+     * indexes and rows are loaded in chunks; otherwise rows are read from a
+     * database cursor. Returns the number of rows written.
+     */
+    @Transactional(readOnly = true)
+    public long export(String search, String department, String designation, ExportFormat format, Writer writer)
+            throws IOException {
+        RowWriter rows = new RowWriter(format, writer);
+        rows.writeHeader();
+        
+        long[] ids = employeeService.findFilteredIds(search, department, designation);
+        if (ids != null) {
+            for (int from = 0; from < ids.length; from += SEARCH_CHUNK_SIZE) {
+                List<Long> chunk = new ArrayList<>(SEARCH_CHUNK_SIZE);
+                for (int i = from; i < Math.min(ids.length, from + SEARCH_CHUNK_SIZE); i++) {
+                    chunk.add(ids[i]);
+                }
+                List<EmployeeRow> employees = new ArrayList<>(employeeRepository.findRowsByEmpIdIn(chunk));
+                employees.sort(Comparator.comparing(EmployeeRow::getEmpId));
+                for (EmployeeRow employee : employees) {
+                    rows.write(employee);
+                }
+            }
+        } else {
+            try (Stream<EmployeeRow> stream = employeeRepository.streamRows()) {
+                stream.forEach(employee -> {
+                    try {
+                        rows.write(employee);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+        writer.flush();
+        return rows.count;
+    }
+    
+    private static final class RowWriter {
+        
+        private final ExportFormat format;
+        private final Writer writer;
+        private final StringBuilder line = new StringBuilder(128);
+        private long count;
+        
+        RowWriter(ExportFormat format, Writer writer) {
+            this.format = format;
+            this.writer = writer;
+        }
+        
+        void writeHeader() throws IOException {
+            if (format == ExportFormat.CSV) {
+                writer.write("emp_id,name,department,designation,contact\n");
+            }
+        }
+        
+        void write(EmployeeRow employee) throws IOException {
+            line.setLength(0);
+            if (format == ExportFormat.CSV) {
+                line.append(employee.getEmpId()).append(',');
+                appendCsv(employee.getName()).append(',');
+                appendCsv(employee.getDepartmentName()).append(',');
+                appendCsv(employee.getDesignation()).append(',');
+                appendCsv(employee.getContact());
+            } else {
+                line.append("{\"empId\":").append(employee.getEmpId());
+                appendJson("name", employee.getName());
+                appendJson("department", employee.getDepartmentName());
+                appendJson("designation", employee.getDesignation());
+                appendJson("contact", employee.getContact());
+                line.append('}');
+            }
+            line.append('\n');
+            writer.append(line);
+            if (++count % FLUSH_INTERVAL == 0) {
+                writer.flush();
+            }
+        }
+        
+        private StringBuilder appendCsv(String value) {
+            if (value == null) {
+                return line;
+            }
+            if (!value.isEmpty() && FORMULA_PREFIXES.indexOf(value.charAt(0)) >= 0) {
+                value = "'" + value;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return line.append(value);
+            }
+            return line.append('"').append(value.replace("\"", "\"\"")).append('"');
+        }
+        
+        private void appendJson(String field, String value) {
+            line.append(",\"").append(field).append("\":");
+            if (value == null) {
+                line.append("null");
+            } else {
+                line.append('"');
+                JsonStringEncoder.getInstance().quoteAsString(value, line);
+                line.append('"');
+            }
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package com.ems.service;
+
+import com.ems.dto.ImportReport;
+import com.ems.feed.ChangeFeed;
+import com.ems.model.Department;
+import com.ems.model.Employee;
+import com.ems.repository.EmployeeRepository;
+import com.ems.search.EmployeeFacetIndex;
+import com.ems.search.EmployeeSearchIndex;
+import com.ems.search.EmployeeTypeahead;
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk CSV import. Rows are parsed and validated one at a time against the
+ * Employee Bean Validation constraints, and valid rows are persisted in
+ * batches. Each batch is its own transaction, flushed as one JDBC batch and
+ * then cleared from the persistence context. Departments are matched by
+ * name and must already exist. A quoted field left open swallows the rest of
+ * the file, so it ends the import as a row error; the batches before it stay
+ * committed and the report says which rows went in.
+ */
+@Service
+public class EmployeeImportService {
+    
+    private static final String[] REQUIRED_COLUMNS = {"name", "department", "designation", "contact"};
+    
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    
+    @Autowired
+    private EmployeeSearchIndex searchIndex;
+    
+    @Autowired
+    private EmployeeTypeahead typeahead;
+    
+    @Autowired
+    private EmployeeFacetIndex facetIndex;
+    
+    @Autowired
+    private DepartmentService departmentService;
+    
+    @Autowired
+    private EmployeeService employeeService;
+    
+    @Autowired
+    private ChangeFeed changeFeed;
+    
+    @Autowired
+    private Validator validator;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    private final TransactionTemplate transactionTemplate;
+    
+    @Value("${ems.import.batch-size:500}")
+    private int batchSize;
+    
+    public EmployeeImportService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    /**
+     * Imports a CSV with a header row naming at least name, department,
+     * designation and contact (in any order; other columns are ignored).
+     */
+    public ImportReport importCsv(InputStream input) throws IOException {
+        ImportReport report = new ImportReport();
+        long start = System.currentTimeMillis();
+        
+        try (CsvReader reader = new CsvReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            List<String> header = reader.readRecord();
+            if (header == null) {
+                throw new IllegalArgumentException("The uploaded file is empty");
+            }
+            Map<String, Integer> columns = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+            for (String column : REQUIRED_COLUMNS) {
+                if (!columns.containsKey(column)) {
+                    throw new IllegalArgumentException("Missing column: " + column);
+                }
+            }
+            
+            List<Employee> batch = new ArrayList<>(batchSize);
+            List<Long> batchLines = new ArrayList<>(batchSize);
+            List<String> record;
+            while ((record = nextRecord(reader, report)) != null) {
+                long line = reader.getRecordLine();
+                if (record.size() == 1 && record.get(0).trim().isEmpty()) {
+                    continue;
+                }
+                report.rowRead();
+                
+                String departmentName = field(record, columns, "department");
+                Department department = null;
+                if (departmentName != null && !departmentName.isEmpty()) {
+                    department = departmentService.findByDeptName(departmentName).orElse(null);
+                    if (department == null) {
+                        report.rowFailed(line, "Unknown department: " + departmentName);
+                        continue;
+                    }
+                }
+                
+                Employee employee = new Employee(
+                        field(record, columns, "name"),
+                        department,
+                        field(record, columns, "designation"),
+                        field(record, columns, "contact"));
+                Set<ConstraintViolation<Employee>> violations = validator.validate(employee);
+                if (!violations.isEmpty()) {
+                    report.rowFailed(line, violations.stream()
+                            .map(ConstraintViolation::getMessage)
+                            .sorted()
+                            .collect(Collectors.joining("; ")));
+                    continue;
+                }
+                
+                batch.add(employee);
+                batchLines.add(line);
+                if (batch.size() == batchSize) {
+                    writeBatch(batch, batchLines, report);
+                }
+            }
+            writeBatch(batch, batchLines, report);
+        }
+        
+        report.setElapsedMillis(System.currentTimeMillis() - start);
+        System.out.println("Imported " + report.getImported() + " employees (" + report.getFailed() + " rejected) in "
+                + report.getElapsedMillis() + " ms, " + report.getRowsPerSecond() + " rows/sec");
+        return report;
+    }
+    
+    private void writeBatch(List<Employee> batch, List<Long> batchLines, ImportReport report) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // Don't flood the second-level cache with rows nobody has asked for yet
+                entityManager.setProperty("jakarta.persistence.cache.storeMode", CacheStoreMode.BYPASS);
+                employeeRepository.saveAll(batch);
+                entityManager.flush();
+                entityManager.clear();
+            });
+            Map<Long, Long> deltas = new HashMap<>();
+            try {
+                for (Employee employee : batch) {
+                    searchIndex.index(employee.getEmpId(), employee.getName(), employee.getDepartment().getDeptId(),
+                            employee.getDesignation());
+                    typeahead.index(employee.getEmpId(), employee.getName(), employee.getDesignation());
+                    facetIndex.index(employee.getEmpId(), employee.getDepartment().getDeptId(), employee.getDesignation());
+                    deltas.merge(employee.getDepartment().getDeptId(), 1L, Long::sum);
+                }
+            } finally {
+                // Only once the indexes hold the batch, so nothing cached under the new version misses it
+                employeeService.markDataChanged();
+            }
+            changeFeed.publishHeadcounts(deltas);
+            report.imported(batch.size());
+        } catch (RuntimeException e) {
+            String message = "Batch rejected by the database: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            for (Long line : batchLines) {
+                report.rowFailed(line, message);
+            }
+        }
+        batch.clear();
+        batchLines.clear();
+    }
+    
+    // The next record, or null at the end of the file or after a record that cannot be parsed
+    private static List<String> nextRecord(CsvReader reader, ImportReport report) throws IOException {
+        try {
+            return reader.readRecord();
+        } catch (MalformedRecordException e) {
+            report.rowRead();
+            report.rowFailed(e.getLine(), e.getReason());
+            return null;
+        }
+    }
+    
+    private static String field(List<String> record, Map<String, Integer> columns, String column) {
+        int index = columns.get(column);
+        return index < record.size() ? record.get(index).trim() : null;
+    }
+    
+    /**
+     * Minimal RFC 4180 reader: comma separated, double-quoted fields may contain
+     * commas, doubled quotes and line breaks. Lines may end in CRLF, LF or a
+     * bare CR.
+     */
+    private static final class CsvReader implements AutoCloseable {
+        
+        private final Reader reader;
+        private long line = 1;
+        private long recordLine;
+        private int pending = -2;
+        private int previous = -1;
+        
+        CsvReader(Reader reader) {
+            this.reader = new BufferedReader(reader, 64 * 1024);
+        }
+        
+        long getRecordLine() {
+            return recordLine;
+        }
+        
+        List<String> readRecord() throws IOException {
+            int c = read();
+            if (c == -1) {
+                return null;
+            }
+            recordLine = line;
+            List<String> fields = new ArrayList<>(8);
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) {
+                        throw new MalformedRecordException(recordLine,
+                                "Unterminated quoted field; nothing after this line was imported");
+                    }
+                    if (c == '"') {
+                        int next = read();
+                        if (next == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            c = next;
+                            continue;
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.length() == 0) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n' || c == '\r' || c == -1) {
+                    if (c == '\r') {
+                        int next = read();
+                        if (next != '\n') {
+                            pending = next;
+                        }
+                    }
+                    fields.add(field.toString());
+                    return fields;
+                } else {
+                    field.append((char) c);
+                }
+                c = read();
+            }
+        }
+        
+        // A pushed-back character was already counted when it was first read
+        private int read() throws IOException {
+            if (pending != -2) {
+                int c = pending;
+                pending = -2;
+                return c;
+            }
+            int c = reader.read();
+            if (c == '\r' || (c == '\n' && previous != '\r')) {
+                line++;
+            }
+            previous = c;
+            return c;
+        }
+        
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+    
+    /**
+     * A record the reader cannot make sense of. Thrown while reading the
+     * header it fails the whole import, as a missing column does.
+     */
+    private static final class MalformedRecordException extends IllegalArgumentException {
+        
+        private static final long serialVersionUID = 1L;
+        
+        private final long line;
+        private final String reason;
+        
+        MalformedRecordException(long line, String reason) {
+            super(reason + " (line " + line + ")");
+            this.line = line;
+            this.reason = reason;
+        }
+        
+        long getLine() {
+            return line;
+        }
+        
+        String getReason() {
+            return reason;
+        }
+    }
+}
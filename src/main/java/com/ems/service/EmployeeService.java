@@ -1,46 +1,583 @@
 package com.ems.service;
 
+import com.ems.audit.AuditTrail;
+import com.ems.datasource.ReplicaRead;
+import com.ems.datasource.ReplicaRouting;
+import com.ems.dto.DashboardSummary;
+import com.ems.dto.EmployeeFacetPage;
+import com.ems.dto.EmployeePage;
+import com.ems.dto.EmployeeRow;
+import com.ems.dto.EmployeeSearchRow;
+import com.ems.dto.EmployeeSuggestion;
+import com.ems.dto.FacetCount;
+import com.ems.feed.ChangeFeed;
+import com.ems.model.AuditEvent.Action;
+import com.ems.model.AuditEvent.EntityType;
+import com.ems.model.Department;
 import com.ems.model.Employee;
 import com.ems.repository.EmployeeRepository;
+import com.ems.search.EmployeeFacetIndex;
+import com.ems.search.EmployeeSearchIndex;
+import com.ems.search.EmployeeTypeahead;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.ToIntFunction;
 
 @Service
 public class EmployeeService {
     
+    private static final int INDEX_CHUNK_SIZE = 5000;
+    
+    // Ids per bulk DELETE/UPDATE; keeps the IN list well inside H2's parameter limits
+    private static final int BULK_CHUNK_SIZE = 1000;
+    
+    private static final String DEPARTMENT_FIELD = "department";
+    
     @Autowired
     private EmployeeRepository employeeRepository;
     
+    @Autowired
+    private EmployeeSearchIndex searchIndex;
+    
+    @Autowired
+    private EmployeeTypeahead typeahead;
+    
+    @Autowired
+    private EmployeeFacetIndex facetIndex;
+    
+    @Autowired
+    private DepartmentService departmentService;
+    
+    @Autowired
+    private AuditTrail auditTrail;
+    
+    @Autowired
+    private ChangeFeed changeFeed;
+    
+    @Value("${ems.employees.page-size:20}")
+    private int defaultPageSize;
+    
+    @Value("${ems.employees.max-page-size:100}")
+    private int maxPageSize;
+    
+    @Value("${ems.search.max-results:1000}")
+    private int maxSearchResults;
+    
+    @Value("${ems.typeahead.default-limit:10}")
+    private int defaultSuggestionLimit;
+    
+    @Value("${ems.typeahead.max-limit:50}")
+    private int maxSuggestionLimit;
+    
+    // Bulk operations manage their own transaction so the search index and data
+    // version are only updated once every chunk has committed
+    private final TransactionTemplate transactionTemplate;
+    
+    // Bumped after every committed employee write; the JSON API derives its ETags from it
+    private final AtomicLong dataVersion = new AtomicLong();
+    
+    // False until the first rebuild has loaded every row; partial index results must not be cached before then
+    private volatile boolean indexReady;
+    
+    public EmployeeService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    @ReplicaRead
+    @Transactional(readOnly = true)
     public List<Employee> getAllEmployees() {
         return employeeRepository.findAll();
     }
     
+    /**
+     * Returns one page of employees ordered by empId. Pass "after" to move forward
+     * from a page's next cursor, or "before" to move back from its previous cursor.
+     * Search, department and designation filters combine; blank values are treated
+     * as no filter. The department is given by name and resolved to its id, and an
+     * unknown name matches nothing. Filtered pages are picked from the in-memory
+     * facet index; rows are read-only projections of the displayed columns.
+     */
+    @ReplicaRead
+    @Transactional(readOnly = true)
+    public EmployeePage getEmployeesPage(String search, String department, String designation,
+                                         Long after, Long before, Integer size) {
+        int pageSize = resolvePageSize(size);
+        if (hasText(search) || hasText(department) || hasText(designation)) {
+            return getFacetPage(search, department, designation, after, before, pageSize, false).getPage();
+        }
+        // Fetch one extra row to find out whether another page exists without a count query
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        
+        if (before != null) {
+            List<EmployeeRow> rows = employeeRepository.findRowsBefore(null, before, limit);
+            boolean hasPrevious = rows.size() > pageSize;
+            List<EmployeeRow> content = rows.subList(0, Math.min(rows.size(), pageSize));
+            Collections.reverse(content);
+            if (content.isEmpty()) {
+                return new EmployeePage(content, pageSize, null, null);
+            }
+            Long prevCursor = hasPrevious ? content.get(0).getEmpId() : null;
+            return new EmployeePage(content, pageSize, content.get(content.size() - 1).getEmpId(), prevCursor);
+        }
+        
+        long afterId = after != null ? after : 0L;
+        List<EmployeeRow> rows = employeeRepository.findRowsAfter(null, afterId, limit);
+        boolean hasNext = rows.size() > pageSize;
+        List<EmployeeRow> content = rows.subList(0, Math.min(rows.size(), pageSize));
+        if (content.isEmpty()) {
+            return new EmployeePage(content, pageSize, null, null);
+        }
+        Long nextCursor = hasNext ? content.get(content.size() - 1).getEmpId() : null;
+        // A cursor below the first row leaves nothing before this page, so only a row that exists earns "Previous"
+        boolean hasPrevious = afterId > 0 && employeeRepository.existsByEmpIdLessThan(content.get(0).getEmpId());
+        Long prevCursor = hasPrevious ? content.get(0).getEmpId() : null;
+        return new EmployeePage(content, pageSize, nextCursor, prevCursor);
+    }
+    
+    /**
+     * The filtered list page for the employee screen: one page as in
+     * {@link #getEmployeesPage}, the total match count, and per-value counts
+     * for the department and designation filters. Only the page's rows are
+     * read from the database.
+     */
+    @ReplicaRead
+    @Transactional(readOnly = true)
+    public EmployeeFacetPage getEmployeeFacetPage(String search, String department, String designation,
+                                                  Long after, Long before, Integer size) {
+        return getFacetPage(search, department, designation, after, before, resolvePageSize(size), true);
+    }
+    
+    /**
+     * Every employee id matching the filters, in ascending order, without
+     * touching the database. Blank filters are ignored; with none at all,
+     * returns null so callers can stream the whole table instead.
+     */
+    public long[] findFilteredIds(String search, String department, String designation) {
+        if (!hasText(search) && !hasText(department) && !hasText(designation)) {
+            return null;
+        }
+        Long deptId = null;
+        if (hasText(department)) {
+            Optional<Department> dept = departmentService.findByDeptName(department);
+            if (dept.isEmpty()) {
+                return new long[0];
+            }
+            deptId = dept.get().getDeptId();
+        }
+        return facetIndex.matchingIds(textMatches(search), deptId, hasText(designation) ? designation.trim() : null);
+    }
+    
+    @ReplicaRead
+    @Transactional(readOnly = true)
     public Optional<Employee> getEmployeeById(Long id) {
         return employeeRepository.findById(id);
     }
     
     public Employee saveEmployee(Employee employee) {
-        return employeeRepository.save(employee);
+        AtomicReference<PriorState> prior = new AtomicReference<>();
+        Employee saved;
+        try {
+            // The previous state is read in the same persistence context as the merge,
+            // which then reuses that row, so auditing adds no query to the save
+            saved = transactionTemplate.execute(status -> {
+                if (employee.getEmpId() != null) {
+                    employeeRepository.findById(employee.getEmpId()).ifPresent(existing -> prior.set(priorState(existing)));
+                }
+                return employeeRepository.save(employee);
+            });
+            searchIndex.index(saved.getEmpId(), saved.getName(), saved.getDepartment().getDeptId(), saved.getDesignation());
+            typeahead.index(saved.getEmpId(), saved.getName(), saved.getDesignation());
+            facetIndex.index(saved.getEmpId(), saved.getDepartment().getDeptId(), saved.getDesignation());
+            PriorState before = prior.get();
+            auditTrail.record(EntityType.EMPLOYEE, saved.getEmpId(), before != null ? Action.UPDATE : Action.CREATE,
+                    before != null ? before.fields : null, auditFields(saved));
+        } finally {
+            markDataChanged();
+        }
+        Map<Long, Long> deltas = new HashMap<>();
+        deltas.merge(saved.getDepartment().getDeptId(), 1L, Long::sum);
+        if (prior.get() != null) {
+            deltas.merge(prior.get().deptId, -1L, Long::sum);
+        }
+        changeFeed.publishHeadcounts(deltas);
+        return saved;
     }
     
     public void deleteEmployee(Long id) {
-        employeeRepository.deleteById(id);
+        PriorState before;
+        try {
+            before = transactionTemplate.execute(status ->
+                    employeeRepository.findById(id).map(existing -> {
+                        PriorState state = priorState(existing);
+                        employeeRepository.delete(existing);
+                        return state;
+                    }).orElse(null));
+            searchIndex.remove(id);
+            typeahead.remove(id);
+            facetIndex.remove(id);
+            if (before != null) {
+                auditTrail.record(EntityType.EMPLOYEE, id, Action.DELETE, before.fields, null);
+            }
+        } finally {
+            markDataChanged();
+        }
+        if (before != null) {
+            changeFeed.publishHeadcounts(Map.of(before.deptId, -1L));
+        }
+    }
+    
+    /**
+     * Deletes the given employees with one SELECT and one DELETE per chunk of
+     * ids, all in a single transaction. Unknown ids are skipped; returns the
+     * rows deleted.
+     */
+    public int deleteEmployees(Collection<Long> ids) {
+        List<Long> distinct = distinctIds(ids);
+        if (distinct.isEmpty()) {
+            return 0;
+        }
+        int deleted;
+        Map<Long, Long> removed;
+        Map<Long, Map<String, String>> prior = new HashMap<>();
+        try {
+            // Each chunk's rows are read just before its DELETE, so only employees that
+            // existed are audited, and each event carries the fields it had
+            deleted = inChunks(distinct, chunk -> {
+                for (EmployeeRow row : employeeRepository.findRowsByEmpIdIn(chunk)) {
+                    prior.put(row.getEmpId(), auditFields(row));
+                }
+                return employeeRepository.bulkDeleteByEmpIdIn(chunk);
+            });
+            removed = searchIndex.removeAll(distinct);
+            typeahead.removeAll(distinct);
+            facetIndex.removeAll(distinct);
+            for (Long id : distinct) {
+                Map<String, String> before = prior.get(id);
+                if (before != null) {
+                    auditTrail.record(EntityType.EMPLOYEE, id, Action.DELETE, before, null);
+                }
+            }
+        } finally {
+            markDataChanged();
+        }
+        // Departments come from the index as well, since the DELETE never read them
+        Map<Long, Long> deltas = new HashMap<>();
+        for (Long deptId : removed.values()) {
+            deltas.merge(deptId, -1L, Long::sum);
+        }
+        changeFeed.publishHeadcounts(deltas);
+        return deleted;
+    }
+    
+    /**
+     * Moves the given employees to another department with one UPDATE per
+     * chunk of ids, all in a single transaction. Unknown ids are skipped;
+     * returns the rows updated.
+     */
+    public int reassignEmployees(Collection<Long> ids, Long deptId) {
+        Department department = departmentService.getDepartmentById(deptId)
+                .orElseThrow(() -> new IllegalArgumentException("Invalid department ID: " + deptId));
+        List<Long> distinct = distinctIds(ids);
+        if (distinct.isEmpty()) {
+            return 0;
+        }
+        int updated;
+        Map<Long, Long> previous;
+        try {
+            updated = inChunks(distinct, chunk -> employeeRepository.bulkUpdateDepartmentByEmpIdIn(chunk, department));
+            // The index knows each employee's previous department, which the UPDATE never read
+            previous = searchIndex.moveToDepartment(distinct, department.getDeptId());
+            facetIndex.moveToDepartment(previous.keySet(), department.getDeptId());
+            Map<String, String> after = Map.of(DEPARTMENT_FIELD, department.getDeptName());
+            for (Map.Entry<Long, Long> moved : previous.entrySet()) {
+                auditTrail.record(EntityType.EMPLOYEE, moved.getKey(), Action.UPDATE,
+                        Map.of(DEPARTMENT_FIELD, departmentName(moved.getValue())), after);
+            }
+        } finally {
+            markDataChanged();
+        }
+        Map<Long, Long> deltas = new HashMap<>();
+        for (Long from : previous.values()) {
+            deltas.merge(from, -1L, Long::sum);
+        }
+        deltas.merge(department.getDeptId(), (long) previous.size(), Long::sum);
+        changeFeed.publishHeadcounts(deltas);
+        return updated;
+    }
+    
+    public long getDataVersion() {
+        return dataVersion.get();
     }
     
+    /**
+     * Whether the search, typeahead and facet indexes hold every employee.
+     * Requests are served before the startup rebuild finishes, and answers
+     * read from the indexes until then may be missing rows, so they must not
+     * be cached or tagged.
+     */
+    public boolean isIndexReady() {
+        return indexReady;
+    }
+    
+    /**
+     * Records that employee rows changed. Callers that write through the
+     * repository directly (imports, seeding) call this once their
+     * transaction has committed.
+     */
+    public void markDataChanged() {
+        dataVersion.incrementAndGet();
+        ReplicaRouting.markWrite();
+    }
+    
+    @ReplicaRead
+    @Transactional(readOnly = true)
     public List<Employee> getEmployeesByDepartment(String department) {
-        return employeeRepository.findByDepartment(department);
+        return departmentService.findByDeptName(department)
+                .map(dept -> employeeRepository.findByDepartmentDeptId(dept.getDeptId()))
+                .orElseGet(Collections::emptyList);
     }
     
+    @ReplicaRead
     public long getTotalEmployees() {
         return employeeRepository.count();
     }
     
+    @ReplicaRead
+    @Transactional(readOnly = true)
+    public DashboardSummary getDashboardSummary() {
+        return DashboardSummary.from(employeeRepository.countByDepartment());
+    }
+    
+    /**
+     * Ranked search over name, department and designation. Matching ids come from
+     * the in-memory search index; only those rows are loaded from the database.
+     */
+    @ReplicaRead
+    @Transactional(readOnly = true)
     public List<Employee> searchEmployees(String query) {
-        return employeeRepository.findByNameContainingIgnoreCaseOrDepartmentContainingIgnoreCaseOrDesignationContainingIgnoreCase(
-                query, query, query);
+        return findAllInOrder(searchIndex.search(query, departmentService.findIdsByNameContaining(query), maxSearchResults));
+    }
+    
+    /**
+     * Name and designation suggestions for the search box, answered from the
+     * in-memory typeahead index without touching the database.
+     */
+    public List<EmployeeSuggestion> suggestEmployees(String prefix, Integer limit) {
+        int resolved = limit == null || limit <= 0 ? defaultSuggestionLimit : Math.min(limit, maxSuggestionLimit);
+        return typeahead.suggest(prefix, resolved);
+    }
+    
+    /**
+     * Reloads the search, typeahead and facet indexes from the database in
+     * empId order, in chunks, reading only the indexed columns. Once done, the
+     * indexes are marked ready and the data version is bumped, so fragments and
+     * ETags from before the rebuild are never reused.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildSearchIndex() {
+        long start = System.currentTimeMillis();
+        indexReady = false;
+        try {
+            searchIndex.clear();
+            typeahead.clear();
+            facetIndex.clear();
+            long afterId = 0L;
+            List<EmployeeSearchRow> chunk;
+            do {
+                chunk = employeeRepository.findSearchRowsAfter(afterId, PageRequest.of(0, INDEX_CHUNK_SIZE));
+                for (EmployeeSearchRow row : chunk) {
+                    searchIndex.index(row.getEmpId(), row.getName(), row.getDeptId(), row.getDesignation());
+                    typeahead.index(row.getEmpId(), row.getName(), row.getDesignation());
+                    facetIndex.index(row.getEmpId(), row.getDeptId(), row.getDesignation());
+                }
+                if (!chunk.isEmpty()) {
+                    afterId = chunk.get(chunk.size() - 1).getEmpId();
+                }
+            } while (chunk.size() == INDEX_CHUNK_SIZE);
+            indexReady = true;
+        } finally {
+            markDataChanged();
+        }
+        System.out.println("Search index rebuilt: " + searchIndex.size() + " employees ("
+                + (typeahead.estimatedBytes() >> 20) + " MB of typeahead) in " + (System.currentTimeMillis() - start) + " ms");
+    }
+    
+    private EmployeeFacetPage getFacetPage(String search, String department, String designation,
+                                           Long after, Long before, int pageSize, boolean withFacets) {
+        Long deptId = null;
+        if (hasText(department)) {
+            Optional<Department> dept = departmentService.findByDeptName(department);
+            if (dept.isEmpty()) {
+                return new EmployeeFacetPage(new EmployeePage(Collections.emptyList(), pageSize, null, null), 0,
+                        Collections.emptyList(), Collections.emptyList());
+            }
+            deptId = dept.get().getDeptId();
+        }
+        String designationFilter = hasText(designation) ? designation.trim() : null;
+        EmployeeFacetIndex.Result result = facetIndex.query(textMatches(search), deptId, designationFilter,
+                after, before, pageSize, withFacets);
+        
+        List<Long> pageIds = new ArrayList<>(result.getPageIds().length);
+        for (long id : result.getPageIds()) {
+            pageIds.add(id);
+        }
+        List<EmployeeRow> rows = pageIds.isEmpty() ? Collections.emptyList() : findRowsInOrder(pageIds);
+        EmployeePage page = new EmployeePage(rows, pageSize, result.getNextCursor(), result.getPrevCursor());
+        
+        List<FacetCount> departments = new ArrayList<>();
+        for (Map.Entry<Long, Integer> entry : result.getDepartmentCounts().entrySet()) {
+            departments.add(new FacetCount(departmentName(entry.getKey()), entry.getValue(), entry.getKey().equals(deptId)));
+        }
+        List<FacetCount> designations = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : result.getDesignationCounts().entrySet()) {
+            designations.add(new FacetCount(entry.getKey(), entry.getValue(),
+                    entry.getKey().equalsIgnoreCase(designationFilter)));
+        }
+        // A chosen value stays listed at zero so it can still be cleared
+        if (withFacets && deptId != null && !result.getDepartmentCounts().containsKey(deptId)) {
+            departments.add(new FacetCount(departmentName(deptId), 0, true));
+        }
+        if (withFacets && designationFilter != null && designations.stream().noneMatch(FacetCount::isSelected)) {
+            designations.add(new FacetCount(designationFilter, 0, true));
+        }
+        Comparator<FacetCount> byCount = Comparator.comparingLong(FacetCount::getCount).reversed()
+                .thenComparing(FacetCount::getValue, String.CASE_INSENSITIVE_ORDER);
+        departments.sort(byCount);
+        designations.sort(byCount);
+        return new EmployeeFacetPage(page, result.getTotal(), departments, designations);
+    }
+    
+    // Ids matching the search text, from the trigram index, or null when there is no text filter
+    private long[] textMatches(String search) {
+        if (!hasText(search)) {
+            return null;
+        }
+        return searchIndex.matchingIds(search.trim(), departmentService.findIdsByNameContaining(search), null);
+    }
+    
+    private static boolean hasText(String value) {
+        return value != null && !value.trim().isEmpty();
+    }
+    
+    private PriorState priorState(Employee existing) {
+        return new PriorState(auditFields(existing), existing.getDepartment() != null ? existing.getDepartment().getDeptId() : null);
+    }
+    
+    private static Map<String, String> auditFields(EmployeeRow row) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("name", row.getName());
+        fields.put(DEPARTMENT_FIELD, row.getDepartmentName());
+        fields.put("designation", row.getDesignation());
+        fields.put("contact", row.getContact());
+        return fields;
+    }
+    
+    private Map<String, String> auditFields(Employee employee) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("name", employee.getName());
+        fields.put(DEPARTMENT_FIELD, employee.getDepartment() != null ? departmentName(employee.getDepartment().getDeptId()) : null);
+        fields.put("designation", employee.getDesignation());
+        fields.put("contact", employee.getContact());
+        return fields;
+    }
+    
+    // Names come from the department snapshot, so a lazy department proxy is never initialized
+    private String departmentName(Long deptId) {
+        if (deptId == null) {
+            return null;
+        }
+        return departmentService.getDepartmentById(deptId).map(Department::getDeptName).orElse(String.valueOf(deptId));
+    }
+    
+    // Runs the statement once per chunk inside one transaction, so a failure in a
+    // later chunk rolls back the earlier ones and the index is only touched after commit
+    private int inChunks(List<Long> ids, ToIntFunction<List<Long>> statement) {
+        return transactionTemplate.execute(status -> {
+            int rows = 0;
+            for (int from = 0; from < ids.size(); from += BULK_CHUNK_SIZE) {
+                rows += statement.applyAsInt(ids.subList(from, Math.min(ids.size(), from + BULK_CHUNK_SIZE)));
+            }
+            return rows;
+        });
+    }
+    
+    private static List<Long> distinctIds(Collection<Long> ids) {
+        if (ids == null) {
+            return Collections.emptyList();
+        }
+        return new ArrayList<>(new LinkedHashSet<>(ids.stream().filter(Objects::nonNull).toList()));
+    }
+    
+    private List<EmployeeRow> findRowsInOrder(List<Long> ids) {
+        Map<Long, EmployeeRow> byId = new HashMap<>();
+        for (EmployeeRow row : employeeRepository.findRowsByEmpIdIn(ids)) {
+            byId.put(row.getEmpId(), row);
+        }
+        List<EmployeeRow> ordered = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            EmployeeRow row = byId.get(id);
+            if (row != null) {
+                ordered.add(row);
+            }
+        }
+        return ordered;
+    }
+    
+    private List<Employee> findAllInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Employee> byId = new HashMap<>();
+        for (Employee employee : employeeRepository.findAllWithDepartmentByEmpIdIn(ids)) {
+            byId.put(employee.getEmpId(), employee);
+        }
+        List<Employee> ordered = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Employee employee = byId.get(id);
+            if (employee != null) {
+                ordered.add(employee);
+            }
+        }
+        return ordered;
+    }
+    
+    private int resolvePageSize(Integer size) {
+        if (size == null || size <= 0) {
+            return defaultPageSize;
+        }
+        return Math.min(size, maxPageSize);
+    }
+    
+    // An employee as it was before a write: its audit fields and department
+    private static final class PriorState {
+        
+        private final Map<String, String> fields;
+        private final Long deptId;
+        
+        PriorState(Map<String, String> fields, Long deptId) {
+            this.fields = fields;
+            this.deptId = deptId;
+        }
     }
 }
-
@@ -0,0 +1,179 @@
+package com.ems.service;
+
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.web.servlet.JakartaServletWebApplication;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Cache of rendered HTML fragments for read-heavy pages. A key is the fragment
+ * name, the current employee and department data versions, and the request
+ * parameters that shape the fragment; any write bumps a version, so entries
+ * rendered from older data are never hit again and age out. On a hit the caller
+ * skips both its queries and template rendering. Nothing is cached while the
+ * search indexes are still being rebuilt at startup.
+ * <p>
+ * Entries are kept in least-recently-used order and evicted once their
+ * estimated size passes ems.fragment-cache.max-size-mb. Fragments must not
+ * contain per-user content, and links in them are rendered without session ids.
+ */
+@Service
+public class FragmentCacheService {
+    
+    // Rough per-entry overhead of the map node, key list and string headers
+    private static final int ENTRY_OVERHEAD_BYTES = 128;
+    
+    @Autowired
+    private EmployeeService employeeService;
+    
+    @Autowired
+    private DepartmentService departmentService;
+    
+    @Autowired
+    private SpringTemplateEngine templateEngine;
+    
+    private final long maxBytes;
+    
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<List<Object>, String> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long usedBytes;
+    private long evictions;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    
+    public FragmentCacheService(@Value("${ems.fragment-cache.max-size-mb:16}") int maxSizeMb) {
+        this.maxBytes = maxSizeMb * 1024L * 1024L;
+    }
+    
+    /**
+     * Returns the named fragment of a template rendered for the given
+     * parameters, rendering it from the supplied model only on a miss.
+     */
+    public String getFragment(String template, String fragment, Supplier<Map<String, Object>> model, Object... params) {
+        // Until the startup rebuild finishes, index-backed models may be missing rows
+        if (!employeeService.isIndexReady()) {
+            misses.increment();
+            return render(template, fragment, model.get());
+        }
+        // Read the versions before the data: a write landing mid-render only files the entry under a dead key
+        List<Object> key = new ArrayList<>(params.length + 3);
+        key.add(template + "::" + fragment);
+        key.add(employeeService.getDataVersion());
+        key.add(departmentService.getDataVersion());
+        key.addAll(Arrays.asList(params));
+        
+        lock.lock();
+        String html;
+        try {
+            html = entries.get(key);
+        } finally {
+            lock.unlock();
+        }
+        if (html != null) {
+            hits.increment();
+            return html;
+        }
+        misses.increment();
+        html = render(template, fragment, model.get());
+        put(key, html);
+        return html;
+    }
+    
+    public Map<String, Object> getCacheStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRatio", hitCount + missCount > 0 ? (double) hitCount / (hitCount + missCount) : 0.0);
+        lock.lock();
+        try {
+            stats.put("entries", entries.size());
+            stats.put("evictions", evictions);
+            stats.put("usedBytes", usedBytes);
+        } finally {
+            lock.unlock();
+        }
+        stats.put("maxBytes", maxBytes);
+        return stats;
+    }
+    
+    private String render(String template, String fragment, Map<String, Object> model) {
+        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.currentRequestAttributes();
+        JakartaServletWebApplication application = JakartaServletWebApplication.buildApplication(
+                attributes.getRequest().getServletContext());
+        WebContext context = new WebContext(application.buildExchange(attributes.getRequest(),
+                new UnencodedUrlResponse(attributes.getResponse())));
+        context.setVariables(model);
+        return templateEngine.process(template, Set.of(fragment), context);
+    }
+    
+    private void put(List<Object> key, String html) {
+        long size = weigh(key, html);
+        if (size > maxBytes) {
+            return;
+        }
+        lock.lock();
+        try {
+            String previous = entries.put(key, html);
+            usedBytes += size;
+            if (previous != null) {
+                usedBytes -= weigh(key, previous);
+            }
+            Iterator<Map.Entry<List<Object>, String>> eldest = entries.entrySet().iterator();
+            while (usedBytes > maxBytes && eldest.hasNext()) {
+                Map.Entry<List<Object>, String> entry = eldest.next();
+                usedBytes -= weigh(entry.getKey(), entry.getValue());
+                eldest.remove();
+                evictions++;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private static long weigh(List<Object> key, String html) {
+        long chars = html.length();
+        for (Object part : key) {
+            if (part instanceof String text) {
+                chars += text.length();
+            }
+        }
+        return ENTRY_OVERHEAD_BYTES + 2 * chars;
+    }
+    
+    // Cached markup is shared between users, so links must never carry a ;jsessionid
+    private static final class UnencodedUrlResponse extends HttpServletResponseWrapper {
+        
+        UnencodedUrlResponse(HttpServletResponse response) {
+            super(response);
+        }
+        
+        @Override
+        public String encodeURL(String url) {
+            return url;
+        }
+        
+        @Override
+        public String encodeRedirectURL(String url) {
+            return url;
+        }
+    }
+}
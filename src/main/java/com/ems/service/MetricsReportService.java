@@ -0,0 +1,132 @@
+package com.ems.service;
+
+import com.ems.metrics.Meters;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Summarizes the endpoint and service meters for /metrics, slowest in total
+ * first. Counts and totals are cumulative since startup and histogram buckets
+ * are cumulative counts at or under each bound; max and the percentiles cover
+ * the last few minutes only.
+ */
+@Service
+public class MetricsReportService {
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    public List<Map<String, Object>> getEndpointStats() {
+        List<Map<String, Object>> endpoints = new ArrayList<>();
+        for (Timer timer : meterRegistry.find(Meters.HTTP_REQUESTS).timers()) {
+            String endpoint = timer.getId().getTag("endpoint");
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("endpoint", endpoint);
+            stats.put("method", timer.getId().getTag("method"));
+            stats.put("uri", timer.getId().getTag("uri"));
+            stats.putAll(timerStats(timer));
+            stats.put("errors", count(meterRegistry.find(Meters.HTTP_ERRORS).tag("endpoint", endpoint).counter()));
+            
+            DistributionSummary statements = meterRegistry.find(Meters.HTTP_SQL_STATEMENTS).tag("endpoint", endpoint).summary();
+            Timer sqlTime = meterRegistry.find(Meters.HTTP_SQL_TIME).tag("endpoint", endpoint).timer();
+            if (statements != null && sqlTime != null) {
+                stats.put("sqlStatements", summaryStats(statements));
+                stats.put("sqlTime", timerStats(sqlTime));
+            }
+            Gauge budget = meterRegistry.find(Meters.HTTP_SQL_BUDGET).tag("endpoint", endpoint).gauge();
+            if (budget != null) {
+                stats.put("sqlBudget", (long) budget.value());
+                stats.put("sqlOverBudget", count(meterRegistry.find(Meters.HTTP_SQL_OVER_BUDGET).tag("endpoint", endpoint).counter()));
+            }
+            endpoints.add(stats);
+        }
+        endpoints.sort(Comparator.comparingDouble((Map<String, Object> stats) -> (Double) stats.get("totalMs")).reversed());
+        return endpoints;
+    }
+    
+    public List<Map<String, Object>> getServiceStats() {
+        List<Map<String, Object>> services = new ArrayList<>();
+        for (Timer timer : meterRegistry.find(Meters.SERVICE_CALLS).timers()) {
+            String service = timer.getId().getTag("service");
+            String method = timer.getId().getTag("method");
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("service", service);
+            stats.put("method", method);
+            stats.putAll(timerStats(timer));
+            stats.put("errors", count(meterRegistry.find(Meters.SERVICE_ERRORS)
+                    .tag("service", service).tag("method", method).counter()));
+            services.add(stats);
+        }
+        services.sort(Comparator.comparingDouble((Map<String, Object> stats) -> (Double) stats.get("totalMs")).reversed());
+        return services;
+    }
+    
+    private static Map<String, Object> timerStats(Timer timer) {
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("count", snapshot.count());
+        stats.put("totalMs", round(snapshot.total(TimeUnit.MILLISECONDS)));
+        stats.put("meanMs", round(snapshot.mean(TimeUnit.MILLISECONDS)));
+        stats.put("maxMs", round(snapshot.max(TimeUnit.MILLISECONDS)));
+        for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+            stats.put(percentileKey(percentile) + "Ms", round(percentile.value(TimeUnit.MILLISECONDS)));
+        }
+        Map<String, Double> histogram = new LinkedHashMap<>();
+        for (CountAtBucket bucket : snapshot.histogramCounts()) {
+            double bound = bucket.bucket(TimeUnit.MILLISECONDS);
+            histogram.put(bound < 1000 ? formatBound(bound) + "ms" : formatBound(bound / 1000) + "s", bucket.count());
+        }
+        histogram.put("+Inf", (double) snapshot.count());
+        stats.put("histogram", histogram);
+        return stats;
+    }
+    
+    private static Map<String, Object> summaryStats(DistributionSummary summary) {
+        HistogramSnapshot snapshot = summary.takeSnapshot();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("total", round(snapshot.total()));
+        stats.put("mean", round(snapshot.mean()));
+        stats.put("max", round(snapshot.max()));
+        for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+            stats.put(percentileKey(percentile), round(percentile.value()));
+        }
+        Map<String, Double> histogram = new LinkedHashMap<>();
+        for (CountAtBucket bucket : snapshot.histogramCounts()) {
+            histogram.put(formatBound(bucket.bucket()), bucket.count());
+        }
+        histogram.put("+Inf", (double) snapshot.count());
+        stats.put("histogram", histogram);
+        return stats;
+    }
+    
+    private static String percentileKey(ValueAtPercentile percentile) {
+        return "p" + formatBound(percentile.percentile() * 100);
+    }
+    
+    private static String formatBound(double value) {
+        return value == Math.rint(value) ? String.valueOf((long) value) : String.valueOf(value);
+    }
+    
+    private static long count(Counter counter) {
+        return counter != null ? (long) counter.count() : 0;
+    }
+    
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+}
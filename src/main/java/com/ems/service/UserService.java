@@ -1,29 +1,137 @@
 package com.ems.service;
 
+import com.ems.datasource.ReplicaRead;
+import com.ems.datasource.ReplicaRouting;
 import com.ems.model.User;
 import com.ems.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Service
 public class UserService {
     
+    private static final int MAX_CACHED_USERS = 1000;
+    
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    
+    @Autowired
+    @Qualifier("passwordVerifierExecutor")
+    private ThreadPoolTaskExecutor passwordVerifier;
+    
+    @Value("${ems.login.verify-timeout-ms:5000}")
+    private long verifyTimeoutMillis;
+    
+    // Known users by username; unknown names are never cached, so random
+    // usernames from credential stuffing cannot grow this map
+    private final ConcurrentMap<String, User> userCache = new ConcurrentHashMap<>();
+    
+    // Checked for unknown usernames so they take as long as a wrong password
+    private String dummyHash;
+    
+    /**
+     * Checks the password against the stored hash on the bounded verifier pool.
+     * Legacy plaintext passwords are accepted once and replaced by their hash.
+     *
+     * @throws IllegalStateException if the verifier pool is saturated
+     */
     public boolean authenticate(String username, String password) {
-        Optional<User> user = userRepository.findByUsername(username);
-        return user.isPresent() && user.get().getPassword().equals(password);
+        User user = findCachedUser(username);
+        String stored = user != null ? user.getPassword() : getDummyHash();
+        
+        boolean matches;
+        if (isHashed(stored)) {
+            matches = verify(password, stored);
+        } else {
+            matches = MessageDigest.isEqual(stored.getBytes(StandardCharsets.UTF_8),
+                    password.getBytes(StandardCharsets.UTF_8));
+            if (matches) {
+                user.setPassword(passwordEncoder.encode(password));
+                save(user);
+            }
+        }
+        return user != null && matches;
     }
     
+    @ReplicaRead
     public User findByUsername(String username) {
         return userRepository.findByUsername(username).orElse(null);
     }
     
     public User save(User user) {
-        return userRepository.save(user);
+        userCache.remove(user.getUsername());
+        User saved = userRepository.save(user);
+        ReplicaRouting.markWrite();
+        return saved;
+    }
+    
+    /**
+     * Hashes a raw password for storage.
+     */
+    public String hashPassword(String rawPassword) {
+        return passwordEncoder.encode(rawPassword);
+    }
+    
+    private User findCachedUser(String username) {
+        User cached = userCache.get(username);
+        if (cached != null) {
+            return cached;
+        }
+        Optional<User> user = userRepository.findByUsername(username);
+        if (user.isPresent()) {
+            if (userCache.size() >= MAX_CACHED_USERS) {
+                userCache.clear();
+            }
+            userCache.put(username, user.get());
+        }
+        return user.orElse(null);
+    }
+    
+    private boolean verify(String password, String hash) {
+        Future<Boolean> result;
+        try {
+            result = passwordVerifier.submit(() -> passwordEncoder.matches(password, hash));
+        } catch (TaskRejectedException e) {
+            throw new IllegalStateException("Too many login attempts in progress, please try again shortly");
+        }
+        try {
+            return result.get(verifyTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.cancel(true);
+            return false;
+        } catch (ExecutionException | TimeoutException e) {
+            result.cancel(true);
+            throw new IllegalStateException("Login could not be verified, please try again shortly");
+        }
+    }
+    
+    private String getDummyHash() {
+        if (dummyHash == null) {
+            dummyHash = passwordEncoder.encode("not-a-real-password");
+        }
+        return dummyHash;
+    }
+    
+    private static boolean isHashed(String stored) {
+        return stored.startsWith("$2a$") || stored.startsWith("$2b$") || stored.startsWith("$2y$");
     }
 }
-
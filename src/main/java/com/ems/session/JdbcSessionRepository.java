@@ -0,0 +1,227 @@
+package com.ems.session;
+
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sessions in the application database, one row each with the attributes in
+ * {@link SessionCodec}'s compact form. A request costs one primary-key read
+ * when it uses its session; writes happen only for new sessions, changed
+ * attributes or ids, and once per touch interval for the access time.
+ * <p>
+ * Full writes are conditional on the row's version, so two requests on one
+ * session that both changed attributes do not lose each other's changes: the
+ * one that saves second reloads the row, re-applies only the attributes it
+ * set or removed, and tries again.
+ * <p>
+ * Expired rows are ignored on read and deleted by a background task in
+ * batches, so a large backlog of abandoned sessions never turns into one
+ * long delete. Every instance runs the task; deleting a row twice is
+ * harmless.
+ */
+public class JdbcSessionRepository implements SessionRepository, SmartLifecycle {
+    
+    static final String TABLE = "http_sessions";
+    
+    // Each failed attempt means another request on the session saved in between
+    private static final int MAX_UPDATE_ATTEMPTS = 10;
+    
+    private final JdbcTemplate jdbc;
+    private final long cleanupIntervalMillis;
+    private final int cleanupBatchSize;
+    
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder inserts = new LongAdder();
+    private final LongAdder updates = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder touches = new LongAdder();
+    private final LongAdder skippedWrites = new LongAdder();
+    private final LongAdder expiredRemoved = new LongAdder();
+    
+    private ScheduledExecutorService cleanup;
+    private volatile boolean running;
+    
+    public JdbcSessionRepository(DataSource dataSource, long cleanupIntervalMillis, int cleanupBatchSize) {
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.cleanupIntervalMillis = cleanupIntervalMillis;
+        this.cleanupBatchSize = cleanupBatchSize;
+    }
+    
+    @Override
+    public SessionRecord find(String id) {
+        SessionRecord session = load(id);
+        if (session == null || session.isExpired(System.currentTimeMillis())) {
+            return null;
+        }
+        return session;
+    }
+    
+    @Override
+    public void save(SessionRecord session) {
+        if (session.isNew()) {
+            jdbc.update("INSERT INTO " + TABLE + " (session_id, created_at_ms, last_accessed_ms, max_inactive_s, " +
+                            "expires_at_ms, attributes, version) VALUES (?, ?, ?, ?, ?, ?, 0)",
+                    session.getId(), session.getCreationTime(), session.getLastAccessedTime(),
+                    session.getMaxInactiveSeconds(), session.getExpiryTime(), SessionCodec.encode(session.getAttributes()));
+            inserts.increment();
+            session.markSaved(0);
+        } else if (session.isChanged()) {
+            update(session);
+        } else if (session.isAccessChanged()) {
+            jdbc.update("UPDATE " + TABLE + " SET last_accessed_ms = ?, expires_at_ms = ? WHERE session_id = ?",
+                    session.getLastAccessedTime(), session.getExpiryTime(), session.getStoredId());
+            touches.increment();
+            session.markSaved(session.getVersion());
+        } else {
+            skippedWrites.increment();
+            session.markSaved(session.getVersion());
+        }
+    }
+    
+    private void update(SessionRecord session) {
+        for (int attempt = 1; attempt <= MAX_UPDATE_ATTEMPTS; attempt++) {
+            int updated = jdbc.update("UPDATE " + TABLE + " SET session_id = ?, last_accessed_ms = ?, max_inactive_s = ?, " +
+                            "expires_at_ms = ?, attributes = ?, version = version + 1 WHERE session_id = ? AND version = ?",
+                    session.getId(), session.getLastAccessedTime(), session.getMaxInactiveSeconds(),
+                    session.getExpiryTime(), SessionCodec.encode(session.getAttributes()), session.getStoredId(),
+                    session.getVersion());
+            if (updated == 1) {
+                updates.increment();
+                session.markSaved(session.getVersion() + 1);
+                return;
+            }
+            SessionRecord stored = load(session.getStoredId());
+            if (stored == null) {
+                // Logged out or expired elsewhere in the meantime; not brought back
+                session.markSaved(session.getVersion());
+                return;
+            }
+            conflicts.increment();
+            session.rebase(stored.getAttributes(), stored.getVersion());
+        }
+        System.out.println("Session " + session.getStoredId() + ": changes dropped after " + MAX_UPDATE_ATTEMPTS
+                + " conflicting writes");
+        session.markSaved(session.getVersion());
+    }
+    
+    @Override
+    public void delete(String id) {
+        jdbc.update("DELETE FROM " + TABLE + " WHERE session_id = ?", id);
+    }
+    
+    /**
+     * Deletes expired sessions cleanupBatchSize at a time until none are left.
+     */
+    public int deleteExpired() {
+        long now = System.currentTimeMillis();
+        int removed = 0;
+        List<String> ids;
+        do {
+            ids = jdbc.queryForList("SELECT session_id FROM " + TABLE + " WHERE expires_at_ms <= ? " +
+                    "FETCH FIRST ? ROWS ONLY", String.class, now, cleanupBatchSize);
+            if (ids.isEmpty()) {
+                break;
+            }
+            List<Object[]> batch = new ArrayList<>(ids.size());
+            for (String id : ids) {
+                batch.add(new Object[] {id, now});
+            }
+            // Re-checks the expiry, in case another instance touched the session since the select
+            for (int deleted : jdbc.batchUpdate("DELETE FROM " + TABLE + " WHERE session_id = ? AND expires_at_ms <= ?", batch)) {
+                removed += Math.max(deleted, 0);
+            }
+        } while (ids.size() == cleanupBatchSize);
+        expiredRemoved.add(removed);
+        return removed;
+    }
+    
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("stored", jdbc.queryForObject("SELECT COUNT(*) FROM " + TABLE, Long.class));
+        stats.put("loads", loads.sum());
+        stats.put("inserts", inserts.sum());
+        stats.put("updates", updates.sum());
+        stats.put("conflicts", conflicts.sum());
+        stats.put("touches", touches.sum());
+        stats.put("skippedWrites", skippedWrites.sum());
+        stats.put("expiredRemoved", expiredRemoved.sum());
+        return stats;
+    }
+    
+    @Override
+    public void start() {
+        jdbc.execute("CREATE TABLE IF NOT EXISTS " + TABLE + " (" +
+                "session_id VARCHAR(36) NOT NULL PRIMARY KEY, " +
+                "created_at_ms BIGINT NOT NULL, " +
+                "last_accessed_ms BIGINT NOT NULL, " +
+                "max_inactive_s INT NOT NULL, " +
+                "expires_at_ms BIGINT NOT NULL, " +
+                "attributes VARBINARY NOT NULL, " +
+                "version BIGINT DEFAULT 0 NOT NULL)");
+        // Tables created before writes were versioned
+        jdbc.execute("ALTER TABLE " + TABLE + " ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL");
+        jdbc.execute("CREATE INDEX IF NOT EXISTS idx_http_sessions_expires ON " + TABLE + " (expires_at_ms)");
+        cleanup = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "session-cleanup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        cleanup.scheduleWithFixedDelay(this::cleanUp, cleanupIntervalMillis, cleanupIntervalMillis, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+    
+    @Override
+    public void stop() {
+        running = false;
+        if (cleanup != null) {
+            cleanup.shutdownNow();
+        }
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+    
+    private void cleanUp() {
+        try {
+            int removed = deleteExpired();
+            if (removed > 0) {
+                System.out.println("Session cleanup: removed " + removed + " expired sessions");
+            }
+        } catch (DataAccessException e) {
+            System.out.println("Session cleanup failed: " + e.getMessage());
+        }
+    }
+    
+    private SessionRecord load(String id) {
+        loads.increment();
+        List<SessionRecord> sessions = jdbc.query("SELECT created_at_ms, last_accessed_ms, max_inactive_s, attributes, " +
+                        "version FROM " + TABLE + " WHERE session_id = ?",
+                (row, i) -> decode(id, row.getLong(1), row.getLong(2), row.getInt(3), row.getBytes(4), row.getLong(5)), id);
+        return sessions.isEmpty() ? null : sessions.get(0);
+    }
+    
+    // A row that can no longer be decoded (say, after an attribute class changed) reads as no session
+    private static SessionRecord decode(String id, long creationTime, long lastAccessedTime, int maxInactiveSeconds,
+                                        byte[] attributes, long version) {
+        try {
+            return new SessionRecord(id, creationTime, lastAccessedTime, maxInactiveSeconds, SessionCodec.decode(attributes),
+                    version);
+        } catch (RuntimeException e) {
+            System.out.println("Session " + id + " could not be read: " + e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.ems.session;
+
+import org.springframework.core.ConfigurableObjectInputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compact binary form of session attributes. The values sessions mostly hold
+ * (strings, flags, numbers) are written as a one-byte tag and the raw value,
+ * so a logged-in session takes a few dozen bytes; anything else falls back
+ * to Java serialization of that one value.
+ */
+final class SessionCodec {
+    
+    private static final int VERSION = 1;
+    
+    private static final byte STRING = 1;
+    private static final byte TRUE = 2;
+    private static final byte FALSE = 3;
+    private static final byte LONG = 4;
+    private static final byte INTEGER = 5;
+    private static final byte SERIALIZED = 6;
+    
+    private SessionCodec() {
+    }
+    
+    static boolean isImmutable(Object value) {
+        return value instanceof String || value instanceof Boolean || value instanceof Long || value instanceof Integer;
+    }
+    
+    static byte[] encode(Map<String, Object> attributes) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            writeLength(out, attributes.size());
+            for (Map.Entry<String, Object> attribute : attributes.entrySet()) {
+                writeString(out, attribute.getKey());
+                writeValue(out, attribute.getValue());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+    
+    static Map<String, Object> decode(byte[] data) {
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        if (data == null || data.length == 0) {
+            return attributes;
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            int version = in.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unknown session format version " + version);
+            }
+            int count = readLength(in);
+            for (int i = 0; i < count; i++) {
+                String name = readString(in);
+                attributes.put(name, readValue(in));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return attributes;
+    }
+    
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value instanceof String text) {
+            out.writeByte(STRING);
+            writeString(out, text);
+        } else if (value instanceof Boolean flag) {
+            out.writeByte(flag ? TRUE : FALSE);
+        } else if (value instanceof Long number) {
+            out.writeByte(LONG);
+            out.writeLong(number);
+        } else if (value instanceof Integer number) {
+            out.writeByte(INTEGER);
+            out.writeInt(number);
+        } else {
+            ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+            try (ObjectOutputStream objects = new ObjectOutputStream(serialized)) {
+                objects.writeObject(value);
+            }
+            out.writeByte(SERIALIZED);
+            writeLength(out, serialized.size());
+            serialized.writeTo(out);
+        }
+    }
+    
+    private static Object readValue(DataInputStream in) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case STRING:
+                return readString(in);
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            case LONG:
+                return in.readLong();
+            case INTEGER:
+                return in.readInt();
+            case SERIALIZED:
+                byte[] serialized = new byte[readLength(in)];
+                in.readFully(serialized);
+                try (ConfigurableObjectInputStream objects = new ConfigurableObjectInputStream(
+                        new ByteArrayInputStream(serialized), SessionCodec.class.getClassLoader())) {
+                    return objects.readObject();
+                } catch (ClassNotFoundException e) {
+                    throw new IllegalArgumentException("Session attribute class not found: " + e.getMessage());
+                }
+            default:
+                throw new IllegalArgumentException("Unknown session attribute tag " + tag);
+        }
+    }
+    
+    private static void writeString(DataOutputStream out, String text) throws IOException {
+        byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+        writeLength(out, utf8.length);
+        out.write(utf8);
+    }
+    
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] utf8 = new byte[readLength(in)];
+        in.readFully(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+    
+    // Unsigned varint: names and short values take one length byte
+    private static void writeLength(DataOutputStream out, int length) throws IOException {
+        while ((length & ~0x7F) != 0) {
+            out.writeByte((length & 0x7F) | 0x80);
+            length >>>= 7;
+        }
+        out.writeByte(length);
+    }
+    
+    private static int readLength(DataInputStream in) throws IOException {
+        int length = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            length |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return length;
+            }
+        }
+        throw new IllegalArgumentException("Malformed session attribute length");
+    }
+}
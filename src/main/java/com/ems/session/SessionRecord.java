@@ -0,0 +1,186 @@
+package com.ems.session;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A session as stored by a {@link SessionRepository}, plus what has changed
+ * since it was loaded, so saving it writes only what it must: nothing for a
+ * request that only read it, the last access time at most once per touch
+ * interval, and the attributes only when one was set or removed.
+ * <p>
+ * The attributes a request set or removed are kept by name, so a store that
+ * finds the session changed under it (another request on the same session
+ * saved first) can re-apply just those on top of what that request wrote
+ * instead of overwriting it.
+ */
+public class SessionRecord {
+    
+    private String id;
+    private String storedId;
+    private final long creationTime;
+    private long lastAccessedTime;
+    private int maxInactiveSeconds;
+    private final Map<String, Object> attributes;
+    // Set or removed (null) since the last save, in order
+    private final Map<String, Object> changedAttributes = new LinkedHashMap<>();
+    private long version;
+    private boolean attributesChanged;
+    private boolean accessChanged;
+    
+    // A new session, not yet stored
+    SessionRecord(String id, long now, int maxInactiveSeconds) {
+        this(null, now, now, maxInactiveSeconds, new LinkedHashMap<>(), 0);
+        this.id = id;
+        this.attributesChanged = true;
+    }
+    
+    // A session loaded from the store
+    SessionRecord(String storedId, long creationTime, long lastAccessedTime, int maxInactiveSeconds,
+                  Map<String, Object> attributes, long version) {
+        this.id = storedId;
+        this.storedId = storedId;
+        this.creationTime = creationTime;
+        this.lastAccessedTime = lastAccessedTime;
+        this.maxInactiveSeconds = maxInactiveSeconds;
+        this.attributes = attributes;
+        this.version = version;
+    }
+    
+    // Getters
+    public String getId() {
+        return id;
+    }
+    
+    /**
+     * The id the session is stored under, which differs from {@link #getId()}
+     * after the id was changed; null while the session is new.
+     */
+    public String getStoredId() {
+        return storedId;
+    }
+    
+    public boolean isNew() {
+        return storedId == null;
+    }
+    
+    public long getCreationTime() {
+        return creationTime;
+    }
+    
+    public long getLastAccessedTime() {
+        return lastAccessedTime;
+    }
+    
+    public int getMaxInactiveSeconds() {
+        return maxInactiveSeconds;
+    }
+    
+    public Map<String, Object> getAttributes() {
+        return Collections.unmodifiableMap(attributes);
+    }
+    
+    /**
+     * The stored version this record was loaded at; every full write of the
+     * session moves it on by one.
+     */
+    public long getVersion() {
+        return version;
+    }
+    
+    /**
+     * When the session expires, in epoch millis; Long.MAX_VALUE if it never does.
+     */
+    public long getExpiryTime() {
+        return maxInactiveSeconds < 0 ? Long.MAX_VALUE : lastAccessedTime + maxInactiveSeconds * 1000L;
+    }
+    
+    public boolean isExpired(long now) {
+        return getExpiryTime() <= now;
+    }
+    
+    /**
+     * Whether the id or attributes changed, so the whole record must be written.
+     */
+    public boolean isChanged() {
+        return attributesChanged || !id.equals(storedId);
+    }
+    
+    /**
+     * Whether only the last access time needs writing.
+     */
+    public boolean isAccessChanged() {
+        return accessChanged;
+    }
+    
+    Object getAttribute(String name) {
+        return attributes.get(name);
+    }
+    
+    void setAttribute(String name, Object value) {
+        Object previous = attributes.put(name, value);
+        // Re-setting the same immutable value (a flag, a name) is not a change
+        if (!(SessionCodec.isImmutable(value) && value.equals(previous))) {
+            attributesChanged = true;
+            changedAttributes.put(name, value);
+        }
+    }
+    
+    void removeAttribute(String name) {
+        if (attributes.remove(name) != null) {
+            attributesChanged = true;
+            changedAttributes.put(name, null);
+        }
+    }
+    
+    /**
+     * Replaces the attributes with the ones another request stored since this
+     * record was loaded, then applies this request's own changes on top.
+     */
+    void rebase(Map<String, Object> storedAttributes, long storedVersion) {
+        attributes.clear();
+        attributes.putAll(storedAttributes);
+        changedAttributes.forEach((name, value) -> {
+            if (value == null) {
+                attributes.remove(name);
+            } else {
+                attributes.put(name, value);
+            }
+        });
+        version = storedVersion;
+    }
+    
+    void changeId(String newId) {
+        this.id = newId;
+    }
+    
+    void setMaxInactiveSeconds(int maxInactiveSeconds) {
+        if (this.maxInactiveSeconds != maxInactiveSeconds) {
+            this.maxInactiveSeconds = maxInactiveSeconds;
+            attributesChanged = true;
+        }
+    }
+    
+    /**
+     * Records a request using the session. The stored access time only moves
+     * once it is touchIntervalMillis old (at most half the timeout), so a busy
+     * session is not rewritten on every request; it may expire up to that
+     * much early.
+     */
+    void access(long now, long touchIntervalMillis) {
+        long interval = maxInactiveSeconds < 0 ? touchIntervalMillis : Math.min(touchIntervalMillis, maxInactiveSeconds * 500L);
+        if (now - lastAccessedTime >= interval) {
+            lastAccessedTime = now;
+            accessChanged = true;
+        }
+    }
+    
+    void markSaved(long savedVersion) {
+        storedId = id;
+        version = savedVersion;
+        changedAttributes.clear();
+        attributesChanged = false;
+        accessChanged = false;
+    }
+}
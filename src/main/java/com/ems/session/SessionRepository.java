@@ -0,0 +1,24 @@
+package com.ems.session;
+
+/**
+ * Where {@link SharedSessionFilter} keeps sessions. Every application
+ * instance using the same repository sees the same sessions, so requests
+ * need no sticky routing.
+ */
+public interface SessionRepository {
+    
+    /**
+     * The session stored under id, or null if there is none or it has expired.
+     */
+    SessionRecord find(String id);
+    
+    /**
+     * Stores a new session, or writes whatever changed in a loaded one.
+     * Attributes another request on the session stored since it was loaded
+     * are kept unless this one set or removed them too. A session removed in
+     * the meantime (logged out or expired elsewhere) is not brought back.
+     */
+    void save(SessionRecord session);
+    
+    void delete(String id);
+}
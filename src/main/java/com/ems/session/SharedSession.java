@@ -0,0 +1,123 @@
+package com.ems.session;
+
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.http.HttpSession;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+
+/**
+ * The HttpSession the application sees when sessions are shared. Reads and
+ * writes go to the in-memory {@link SessionRecord}; {@link SharedSessionFilter}
+ * stores it once the request is done with it. Invalidating deletes the stored
+ * session straight away, so another instance stops accepting it at once.
+ */
+class SharedSession implements HttpSession {
+    
+    private final SessionRecord record;
+    private final SessionRepository repository;
+    private final ServletContext servletContext;
+    private boolean invalidated;
+    
+    SharedSession(SessionRecord record, SessionRepository repository, ServletContext servletContext) {
+        this.record = record;
+        this.repository = repository;
+        this.servletContext = servletContext;
+    }
+    
+    SessionRecord getRecord() {
+        return record;
+    }
+    
+    boolean isInvalidated() {
+        return invalidated;
+    }
+    
+    @Override
+    public long getCreationTime() {
+        checkValid();
+        return record.getCreationTime();
+    }
+    
+    @Override
+    public String getId() {
+        return record.getId();
+    }
+    
+    @Override
+    public long getLastAccessedTime() {
+        checkValid();
+        return record.getLastAccessedTime();
+    }
+    
+    @Override
+    public ServletContext getServletContext() {
+        return servletContext;
+    }
+    
+    @Override
+    public void setMaxInactiveInterval(int interval) {
+        record.setMaxInactiveSeconds(interval);
+    }
+    
+    @Override
+    public int getMaxInactiveInterval() {
+        return record.getMaxInactiveSeconds();
+    }
+    
+    @Override
+    public Object getAttribute(String name) {
+        checkValid();
+        return record.getAttribute(name);
+    }
+    
+    @Override
+    public Enumeration<String> getAttributeNames() {
+        checkValid();
+        return Collections.enumeration(new ArrayList<>(record.getAttributes().keySet()));
+    }
+    
+    @Override
+    public void setAttribute(String name, Object value) {
+        checkValid();
+        if (value == null) {
+            record.removeAttribute(name);
+            return;
+        }
+        // Fail here rather than when the request ends and the session is stored
+        if (!(value instanceof Serializable)) {
+            throw new IllegalArgumentException("Session attribute " + name + " is not serializable: "
+                    + value.getClass().getName());
+        }
+        record.setAttribute(name, value);
+    }
+    
+    @Override
+    public void removeAttribute(String name) {
+        checkValid();
+        record.removeAttribute(name);
+    }
+    
+    @Override
+    public void invalidate() {
+        checkValid();
+        invalidated = true;
+        if (!record.isNew()) {
+            repository.delete(record.getStoredId());
+        }
+    }
+    
+    @Override
+    public boolean isNew() {
+        checkValid();
+        return record.isNew();
+    }
+    
+    private void checkValid() {
+        if (invalidated) {
+            throw new IllegalStateException("Session " + record.getId() + " has been invalidated");
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.ems.session;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Replaces the servlet container's in-memory sessions with sessions kept in a
+ * {@link SessionRepository}, so any instance can serve any request. The
+ * session id travels in its own cookie.
+ * <p>
+ * A request's session is loaded the first time it is asked for, and stored
+ * once when the request ends: nothing is written for a request that only
+ * read it. Redirects and errors store it before the response goes out,
+ * because the browser's next request may reach another instance straight
+ * away; a login redirect must not arrive there before its session does.
+ */
+public class SharedSessionFilter extends OncePerRequestFilter {
+    
+    private final SessionRepository repository;
+    private final String cookieName;
+    private final int maxInactiveSeconds;
+    private final long touchIntervalMillis;
+    
+    public SharedSessionFilter(SessionRepository repository, String cookieName, int maxInactiveSeconds,
+                               long touchIntervalMillis) {
+        this.repository = repository;
+        this.cookieName = cookieName;
+        this.maxInactiveSeconds = maxInactiveSeconds;
+        this.touchIntervalMillis = touchIntervalMillis;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        SessionRequest sessionRequest = new SessionRequest(request, response);
+        try {
+            chain.doFilter(sessionRequest, new SessionResponse(response, sessionRequest));
+        } finally {
+            sessionRequest.commit();
+        }
+    }
+    
+    // Server-sent event streams finish in an async dispatch that checks the session again
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+    
+    private final class SessionRequest extends HttpServletRequestWrapper {
+        
+        private final HttpServletResponse response;
+        private String requestedId;
+        private boolean requestedIdRead;
+        // The id the browser will send next; changes when a session is created or its id changes
+        private String cookieId;
+        private SharedSession session;
+        private boolean loaded;
+        
+        SessionRequest(HttpServletRequest request, HttpServletResponse response) {
+            super(request);
+            this.response = response;
+        }
+        
+        @Override
+        public HttpSession getSession(boolean create) {
+            if (session != null && !session.isInvalidated()) {
+                return session;
+            }
+            if (!loaded) {
+                loaded = true;
+                String id = getRequestedSessionId();
+                SessionRecord record = id != null ? repository.find(id) : null;
+                if (record != null) {
+                    record.access(System.currentTimeMillis(), touchIntervalMillis);
+                    session = new SharedSession(record, repository, getServletContext());
+                    return session;
+                }
+            }
+            if (!create) {
+                return null;
+            }
+            if (response.isCommitted()) {
+                throw new IllegalStateException("Cannot create a session after the response has been committed");
+            }
+            SessionRecord record = new SessionRecord(UUID.randomUUID().toString(), System.currentTimeMillis(), maxInactiveSeconds);
+            session = new SharedSession(record, repository, getServletContext());
+            return session;
+        }
+        
+        @Override
+        public HttpSession getSession() {
+            return getSession(true);
+        }
+        
+        @Override
+        public String changeSessionId() {
+            HttpSession current = getSession(false);
+            if (current == null) {
+                throw new IllegalStateException("Cannot change the session id of a request without a session");
+            }
+            String newId = UUID.randomUUID().toString();
+            session.getRecord().changeId(newId);
+            return newId;
+        }
+        
+        @Override
+        public String getRequestedSessionId() {
+            if (!requestedIdRead) {
+                requestedIdRead = true;
+                Cookie[] cookies = getCookies();
+                if (cookies != null) {
+                    for (Cookie cookie : cookies) {
+                        if (cookieName.equals(cookie.getName()) && StringUtils.hasText(cookie.getValue())) {
+                            requestedId = cookie.getValue();
+                        }
+                    }
+                }
+                cookieId = requestedId;
+            }
+            return requestedId;
+        }
+        
+        @Override
+        public boolean isRequestedSessionIdValid() {
+            HttpSession current = getSession(false);
+            return current != null && current.getId().equals(getRequestedSessionId());
+        }
+        
+        @Override
+        public boolean isRequestedSessionIdFromCookie() {
+            return getRequestedSessionId() != null;
+        }
+        
+        @Override
+        public boolean isRequestedSessionIdFromURL() {
+            return false;
+        }
+        
+        /**
+         * Stores the session if anything about it changed and points the
+         * cookie at it. Safe to call more than once.
+         */
+        void commit() {
+            if (session == null) {
+                return;
+            }
+            getRequestedSessionId();
+            if (session.isInvalidated()) {
+                session = null;
+                if (cookieId != null) {
+                    writeCookie("", 0);
+                    cookieId = null;
+                }
+                return;
+            }
+            repository.save(session.getRecord());
+            if (!session.getId().equals(cookieId)) {
+                writeCookie(session.getId(), -1);
+                cookieId = session.getId();
+            }
+        }
+        
+        private void writeCookie(String value, int maxAge) {
+            if (response.isCommitted()) {
+                return;
+            }
+            String contextPath = getContextPath();
+            ResponseCookie cookie = ResponseCookie.from(cookieName, value)
+                    .path(StringUtils.hasLength(contextPath) ? contextPath : "/")
+                    .maxAge(maxAge)
+                    .httpOnly(true)
+                    .secure(isSecure())
+                    .sameSite("Lax")
+                    .build();
+            response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+        }
+    }
+    
+    private static final class SessionResponse extends HttpServletResponseWrapper {
+        
+        private final SessionRequest request;
+        
+        SessionResponse(HttpServletResponse response, SessionRequest request) {
+            super(response);
+            this.request = request;
+        }
+        
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            request.commit();
+            super.sendRedirect(location);
+        }
+        
+        @Override
+        public void sendError(int status) throws IOException {
+            request.commit();
+            super.sendError(status);
+        }
+        
+        @Override
+        public void sendError(int status, String message) throws IOException {
+            request.commit();
+            super.sendError(status, message);
+        }
+        
+        @Override
+        public void flushBuffer() throws IOException {
+            request.commit();
+            super.flushBuffer();
+        }
+    }
+}
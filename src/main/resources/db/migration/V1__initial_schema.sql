@@ -0,0 +1,31 @@
+-- Schema as mapped by the Department, Employee and User entities.
+-- Databases created before migrations existed are baselined at this version.
+
+CREATE SEQUENCE employees_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE departments (
+    dept_id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    dept_name VARCHAR(255) NOT NULL,
+    PRIMARY KEY (dept_id),
+    CONSTRAINT uk_departments_dept_name UNIQUE (dept_name)
+);
+
+CREATE TABLE employees (
+    emp_id BIGINT NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    dept_id BIGINT NOT NULL,
+    designation VARCHAR(255) NOT NULL,
+    contact VARCHAR(255) NOT NULL,
+    PRIMARY KEY (emp_id),
+    CONSTRAINT fk_employees_department FOREIGN KEY (dept_id) REFERENCES departments (dept_id)
+);
+
+CREATE INDEX idx_employees_dept_id ON employees (dept_id);
+
+CREATE TABLE users (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    username VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_username UNIQUE (username)
+);
@@ -0,0 +1,5 @@
+-- Name lookups and name-ordered scans.
+-- departments.dept_name and users.username are already indexed by their unique constraints.
+-- IF NOT EXISTS: baselined databases may have it from Hibernate's schema update already.
+
+CREATE INDEX IF NOT EXISTS idx_employees_name ON employees (name);
@@ -0,0 +1,17 @@
+-- Change history for employees and departments, written in batches by the audit trail.
+-- History pages seek on (entity_type, entity_id, event_id).
+
+CREATE SEQUENCE audit_events_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE audit_events (
+    event_id BIGINT NOT NULL,
+    entity_type VARCHAR(16) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    action VARCHAR(16) NOT NULL,
+    username VARCHAR(255) NOT NULL,
+    changed_at TIMESTAMP(6) NOT NULL,
+    changes VARCHAR(4000),
+    PRIMARY KEY (event_id)
+);
+
+CREATE INDEX idx_audit_events_entity ON audit_events (entity_type, entity_id, event_id);
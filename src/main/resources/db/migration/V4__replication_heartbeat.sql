@@ -0,0 +1,10 @@
+-- Heartbeat rows written on the primary by each application instance when read replicas
+-- are configured; reading them back from a replica shows how far behind it is.
+-- The application creates the table itself when it is missing.
+
+CREATE TABLE IF NOT EXISTS replication_heartbeat (
+    instance_id VARCHAR(36) NOT NULL,
+    beat BIGINT NOT NULL,
+    beat_at_ms BIGINT NOT NULL,
+    PRIMARY KEY (instance_id)
+);
@@ -0,0 +1,15 @@
+-- Shared HTTP sessions (ems.session.store=jdbc), one row per session with its attributes
+-- in a compact binary form. Expired rows are found through the expiry index and deleted
+-- in batches. The application creates the table itself when it is missing.
+
+CREATE TABLE IF NOT EXISTS http_sessions (
+    session_id VARCHAR(36) NOT NULL,
+    created_at_ms BIGINT NOT NULL,
+    last_accessed_ms BIGINT NOT NULL,
+    max_inactive_s INT NOT NULL,
+    expires_at_ms BIGINT NOT NULL,
+    attributes VARBINARY NOT NULL,
+    PRIMARY KEY (session_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_http_sessions_expires ON http_sessions (expires_at_ms);
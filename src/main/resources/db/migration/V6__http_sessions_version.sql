@@ -0,0 +1,5 @@
+-- Version of each stored session, moved on by every full write, so two requests saving
+-- the same session merge their attribute changes instead of overwriting each other.
+-- The application adds the column itself when it is missing.
+
+ALTER TABLE http_sessions ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,103 @@
+package com.ems;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Starts the application with the prod profile on a file database: once with the
+ * seed profile to migrate and fill it, then again as production restarts it.
+ *
+ * The restart must find the seeded rows, leave the schema to Flyway and Hibernate's
+ * validation, and be up within {@link #MAX_RESTART_MS}. load-test/measure-startup.sh
+ * does the same on a far larger table and compares it with ddl-auto=update.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ProdProfileStartupTest {
+    
+    private static final int EMPLOYEES = 20_000;
+    private static final long MAX_RESTART_MS = 30_000;
+    private static final Path DATA_DIR = Path.of("target", "prod-startup");
+    
+    @BeforeAll
+    void seed() throws IOException {
+        FileSystemUtils.deleteRecursively(DATA_DIR);
+        Files.createDirectories(DATA_DIR);
+        start("prod,seed").close();
+    }
+    
+    @Test
+    void restartsOnTheMigratedSchemaWithinBudget() {
+        long begin = System.currentTimeMillis();
+        try (ConfigurableApplicationContext context = start("prod")) {
+            long elapsed = System.currentTimeMillis() - begin;
+            assertTrue(elapsed <= MAX_RESTART_MS, "Restart took " + elapsed + " ms, over " + MAX_RESTART_MS + " ms");
+            
+            assertEquals("validate", context.getEnvironment().getProperty("spring.jpa.hibernate.ddl-auto"));
+            JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+            assertEquals(EMPLOYEES, jdbc.queryForObject("SELECT COUNT(*) FROM employees", Integer.class));
+            List<String> migrations = jdbc.queryForList("SELECT \"version\" FROM \"flyway_schema_history\" "
+                    + "WHERE \"success\" AND \"version\" IS NOT NULL ORDER BY \"installed_rank\"", String.class);
+            assertEquals(List.of("1", "2", "3", "4", "5", "6"), migrations);
+            
+            Set<String> indexed = new HashSet<>(jdbc.queryForList(
+                    "SELECT LOWER(table_name || '.' || column_name) FROM information_schema.index_columns "
+                            + "WHERE table_schema = 'PUBLIC' AND ordinal_position = 1", String.class));
+            assertTrue(indexed.containsAll(Set.of(
+                    "employees.dept_id", "employees.name", "departments.dept_name", "users.username")),
+                    "Missing an index, found " + indexed);
+        }
+    }
+    
+    @Test
+    void refusesToStartOnASchemaThatDriftedFromTheEntities() {
+        Path copy = DATA_DIR.resolveSibling("prod-startup-drifted");
+        try {
+            FileSystemUtils.deleteRecursively(copy);
+            FileSystemUtils.copyRecursively(DATA_DIR, copy);
+            DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                    "jdbc:h2:file:" + copy.toAbsolutePath().resolve("ems_db"), "sa", "");
+            new JdbcTemplate(dataSource).execute("ALTER TABLE employees DROP COLUMN contact");
+            
+            // ddl-auto=update would quietly add the column back; validate stops the start instead
+            assertThrows(Exception.class, () -> start("prod", copy).close());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            try {
+                FileSystemUtils.deleteRecursively(copy);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+    
+    private static ConfigurableApplicationContext start(String profiles) {
+        return start(profiles, DATA_DIR);
+    }
+    
+    private static ConfigurableApplicationContext start(String profiles, Path dataDir) {
+        return new SpringApplicationBuilder(EmployeeManagementSystemApplication.class)
+                .profiles(profiles.split(","))
+                // As arguments, since they must win over the profile's own properties
+                .run("--ems.data-dir=" + dataDir.toAbsolutePath(),
+                        "--ems.seed.employees=" + EMPLOYEES,
+                        "--server.port=0",
+                        "--logging.level.org.hibernate.SQL=WARN");
+    }
+}
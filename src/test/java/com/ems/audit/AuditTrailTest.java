@@ -0,0 +1,62 @@
+package com.ems.audit;
+
+import com.ems.model.AuditEvent;
+import com.ems.model.AuditEvent.Action;
+import com.ems.model.AuditEvent.EntityType;
+import com.ems.repository.AuditEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * A batch the database refuses must not take its good events down with it:
+ * they are written one by one and only the bad event is counted as lost.
+ */
+class AuditTrailTest {
+    
+    private final AuditEventRepository repository = mock(AuditEventRepository.class);
+    private final List<Long> saved = new ArrayList<>();
+    
+    @Test
+    void oneBadEventCostsOnlyItself() {
+        // Stands in for the NOT NULL constraint on entity_id
+        when(repository.saveAll(anyIterable())).thenAnswer(invocation -> {
+            List<Long> ids = new ArrayList<>();
+            for (Object event : (Iterable<?>) invocation.getArgument(0)) {
+                Long id = ((AuditEvent) event).getEntityId();
+                if (id == null) {
+                    throw new DataIntegrityViolationException("entity_id is null");
+                }
+                ids.add(id);
+            }
+            saved.addAll(ids);
+            return List.of();
+        });
+        AuditTrail trail = new AuditTrail(repository, mock(PlatformTransactionManager.class), new ObjectMapper(),
+                100, 10, 10_000, 2000);
+        
+        // A long flush interval keeps the three events queued until stop() flushes them as one batch
+        trail.start();
+        for (long id : new long[] {1, 2, 3}) {
+            trail.record(EntityType.EMPLOYEE, id == 2 ? null : id, Action.CREATE, null, Map.of("name", "n" + id));
+        }
+        trail.stop();
+        
+        assertEquals(List.of(1L, 3L), saved);
+        Map<String, Long> stats = trail.getStats();
+        assertEquals(2, stats.get("written"));
+        assertEquals(2, stats.get("retries"));
+        assertEquals(1, stats.get("failedBatches"));
+        assertEquals(1, stats.get("failed"));
+    }
+}
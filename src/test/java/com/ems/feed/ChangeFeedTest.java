@@ -0,0 +1,90 @@
+package com.ems.feed;
+
+import com.ems.service.DepartmentService;
+import com.ems.service.EmployeeService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * A client that stops reading blocks the sender thread writing to it. With a
+ * single sender thread, the others must still get their events once the send
+ * timeout has passed, and the stuck client must be dropped.
+ */
+class ChangeFeedTest {
+    
+    private static final long SEND_TIMEOUT_MS = 200;
+    
+    private final CountDownLatch unstall = new CountDownLatch(1);
+    private final ChangeFeed feed = new ChangeFeed(provider(EmployeeService.class), provider(DepartmentService.class),
+            new ObjectMapper(), 1, 64, 60, 30, SEND_TIMEOUT_MS, 2);
+    
+    @AfterEach
+    void shutDown() {
+        unstall.countDown();
+        feed.destroy();
+    }
+    
+    @Test
+    void stalledClientIsDroppedWithoutHoldingUpTheOthers() throws Exception {
+        feed.subscribe(new SseEmitter() {
+            @Override
+            public void send(Set<DataWithMediaType> items) throws IOException {
+                // Like a write to a socket whose peer stopped reading
+                try {
+                    unstall.await();
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException();
+                }
+            }
+        });
+        BlockingQueue<Set<DataWithMediaType>> received = new LinkedBlockingQueue<>();
+        feed.subscribe(new SseEmitter() {
+            @Override
+            public void send(Set<DataWithMediaType> items) {
+                received.add(items);
+            }
+        });
+        
+        // Queued behind the stuck hello on the only sender thread until the watchdog steps in
+        assertNotNull(received.poll(SEND_TIMEOUT_MS * 10, TimeUnit.MILLISECONDS), "hello");
+        feed.publishDepartment("create", 1L, "Engineering");
+        assertNotNull(received.poll(SEND_TIMEOUT_MS * 10, TimeUnit.MILLISECONDS), "department event");
+        assertEquals(1, feed.getStats().get("stalls"));
+        assertEquals(1, feed.getStats().get("subscribers"));
+        assertEquals(2, feed.getStats().get("senderThreads"));
+        
+        // The stand-in thread is retired once the stuck write returns
+        unstall.countDown();
+        long deadline = System.currentTimeMillis() + SEND_TIMEOUT_MS * 10;
+        while (feed.getStats().get("senderThreads") > 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, feed.getStats().get("senderThreads"));
+        assertTrue(received.isEmpty());
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static <T> ObjectProvider<T> provider(Class<T> type) {
+        ObjectProvider<T> provider = mock(ObjectProvider.class);
+        when(provider.getObject()).thenReturn(mock(type));
+        return provider;
+    }
+}
@@ -0,0 +1,266 @@
+package com.ems.metrics;
+
+import com.ems.controller.DashboardController;
+import com.ems.controller.DepartmentApiController;
+import com.ems.controller.DepartmentController;
+import com.ems.controller.EmployeeApiController;
+import com.ems.controller.EmployeeController;
+import com.ems.model.Department;
+import com.ems.model.Employee;
+import com.ems.service.DepartmentService;
+import com.ems.service.EmployeeService;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * SQL statement budgets for every page and API endpoint, checked on each build.
+ *
+ * Each request runs through MockMvc on the test thread with cold caches (second-level
+ * cache, department snapshot and rendered fragments), and its Hibernate statements are
+ * read from the {@link RequestSqlStatistics} the request left behind. A request must stay
+ * within its endpoint's {@link QueryBudget}; list and bulk endpoints must also cost the
+ * same for one row as for a full page, so an N+1 regression fails here before it ships.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:query_budget_test",
+        "spring.jpa.show-sql=false",
+        "logging.level.com.ems=INFO",
+        "logging.level.org.hibernate.SQL=WARN"})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryBudgetTest {
+    
+    private static final List<Class<?>> BUDGETED_CONTROLLERS = List.of(EmployeeController.class,
+            DepartmentController.class, DashboardController.class, EmployeeApiController.class, DepartmentApiController.class);
+    
+    // Statements grow with the uploaded file; importCostsOneInsertPerBatch covers it instead
+    private static final Set<String> UNBUDGETED_ENDPOINTS = Set.of("EmployeeController.importEmployees");
+    
+    private static final int PAGE_SIZE = 20;
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private RequestMappingHandlerMapping handlerMapping;
+    
+    @Autowired
+    private EmployeeService employeeService;
+    
+    @Autowired
+    private DepartmentService departmentService;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    private final Set<Method> exercised = new HashSet<>();
+    private MockHttpSession session;
+    private Department engineering;
+    private Department sales;
+    private int nextContact;
+    
+    @BeforeAll
+    void logInAndSeed() throws Exception {
+        MvcResult login = mockMvc.perform(post("/login").param("username", "admin").param("password", "admin123"))
+                .andReturn();
+        assertEquals("/dashboard", login.getResponse().getRedirectedUrl());
+        session = (MockHttpSession) login.getRequest().getSession(false);
+        assertNotNull(session, "login did not create a session");
+        
+        engineering = departmentService.saveDepartment(new Department("Engineering"));
+        sales = departmentService.saveDepartment(new Department("Sales"));
+        for (int i = 0; i < 2 * PAGE_SIZE; i++) {
+            newEmployee(i % 2 == 0 ? engineering : sales);
+        }
+    }
+    
+    @AfterAll
+    void everyBudgetedEndpointIsCovered() {
+        List<String> missing = new ArrayList<>();
+        for (Map.Entry<RequestMappingInfo, HandlerMethod> entry : handlerMapping.getHandlerMethods().entrySet()) {
+            HandlerMethod handler = entry.getValue();
+            if (!BUDGETED_CONTROLLERS.contains(handler.getBeanType())) {
+                continue;
+            }
+            String name = endpoint(handler);
+            boolean budgeted = handler.hasMethodAnnotation(QueryBudget.class);
+            if (budgeted == UNBUDGETED_ENDPOINTS.contains(name)) {
+                missing.add(name + (budgeted ? " has a @QueryBudget but is listed as unbudgeted" : " has no @QueryBudget"));
+            } else if (!exercised.contains(handler.getMethod())) {
+                missing.add(name + " is not exercised by this test");
+            }
+        }
+        assertTrue(missing.isEmpty(), String.join("\n", missing));
+    }
+    
+    @Test
+    void dashboard() throws Exception {
+        withinBudget(get("/dashboard"));
+        withinBudget(get("/dashboard/events"));
+    }
+    
+    @Test
+    void employeeListCostsTheSameForOneRowAsForAPage() throws Exception {
+        int oneRow = withinBudget(get("/employees").param("size", "1"));
+        int fullPage = withinBudget(get("/employees").param("size", String.valueOf(PAGE_SIZE)));
+        assertEquals(oneRow, fullPage, "the employee list issues statements per row");
+        
+        withinBudget(get("/employees").param("search", "employee").param("department", "Engineering"));
+        withinBudget(get("/employees").param("designation", "Engineer").param("after", "5"));
+    }
+    
+    @Test
+    void employeeForms() throws Exception {
+        Employee employee = newEmployee(engineering);
+        withinBudget(get("/employees/add"));
+        withinBudget(get("/employees/edit/" + employee.getEmpId()));
+        withinBudget(get("/employees/view/" + employee.getEmpId()));
+        withinBudget(get("/employees/history/" + employee.getEmpId()));
+    }
+    
+    @Test
+    void employeeWrites() throws Exception {
+        withinBudget(post("/employees/add").param("name", "Added Employee").param("department", engineering.getDeptId().toString())
+                .param("designation", "Engineer").param("contact", "9000000000"));
+        
+        Employee employee = newEmployee(engineering);
+        withinBudget(post("/employees/update/" + employee.getEmpId()).param("name", "Renamed Employee")
+                .param("department", sales.getDeptId().toString()).param("designation", "Manager").param("contact", "9000000001"));
+        withinBudget(get("/employees/delete/" + employee.getEmpId()));
+    }
+    
+    @Test
+    void bulkActionsCostTheSameForOneRowAsForAPage() throws Exception {
+        int moveOne = withinBudget(post("/employees/bulk-reassign").param("deptId", sales.getDeptId().toString())
+                .param("ids", ids(1)));
+        int movePage = withinBudget(post("/employees/bulk-reassign").param("deptId", engineering.getDeptId().toString())
+                .param("ids", ids(PAGE_SIZE)));
+        assertEquals(moveOne, movePage, "bulk reassign issues statements per row");
+        
+        int deleteOne = withinBudget(post("/employees/bulk-delete").param("ids", ids(1)));
+        int deletePage = withinBudget(post("/employees/bulk-delete").param("ids", ids(PAGE_SIZE)));
+        assertEquals(deleteOne, deletePage, "bulk delete issues statements per row");
+    }
+    
+    @Test
+    void exports() throws Exception {
+        withinBudget(get("/employees/export"));
+        withinBudget(get("/employees/export").param("format", "jsonl").param("search", "employee"));
+    }
+    
+    // Rows within one ems.import.batch-size share a batched insert; only the id blocks,
+    // one per Employee.ID_ALLOCATION_SIZE rows, grow with the file
+    @Test
+    void importCostsOneInsertPerBatch() throws Exception {
+        int blocks = 3;
+        int oneRow = statements(multipart("/employees/import").file(csv(1)));
+        int manyRows = statements(multipart("/employees/import").file(csv(blocks * Employee.ID_ALLOCATION_SIZE)));
+        assertTrue(manyRows <= oneRow + blocks, () -> "an import issues statements per row: " + oneRow
+                + " for one row, " + manyRows + " for " + blocks * Employee.ID_ALLOCATION_SIZE);
+    }
+    
+    @Test
+    void departments() throws Exception {
+        withinBudget(get("/departments"));
+        withinBudget(get("/departments/cache-stats"));
+        withinBudget(post("/departments/add").param("deptName", "Finance"));
+        Department finance = departmentService.findByDeptName("Finance").orElseThrow();
+        withinBudget(post("/departments/rename/" + finance.getDeptId()).param("deptName", "Accounts"));
+        withinBudget(get("/departments/delete/" + finance.getDeptId()));
+    }
+    
+    @Test
+    void jsonApi() throws Exception {
+        Employee employee = newEmployee(sales);
+        withinBudget(get("/api/employees"));
+        withinBudget(get("/api/employees").param("after", employee.getEmpId().toString()));
+        withinBudget(get("/api/employees").param("search", "employee").param("size", String.valueOf(PAGE_SIZE)));
+        withinBudget(get("/api/employees/suggest").param("q", "emp"));
+        withinBudget(get("/api/employees/" + employee.getEmpId()));
+        withinBudget(get("/api/departments"));
+        withinBudget(get("/api/departments/" + sales.getDeptId()));
+    }
+    
+    // Runs the request with cold caches and checks it against its endpoint's budget
+    private int withinBudget(MockHttpServletRequestBuilder request) throws Exception {
+        MvcResult result = perform(request);
+        HandlerMethod handler = (HandlerMethod) result.getHandler();
+        QueryBudget budget = handler.getMethodAnnotation(QueryBudget.class);
+        assertNotNull(budget, endpoint(handler) + " has no @QueryBudget");
+        int statements = RequestSqlStatistics.current().getStatements();
+        assertTrue(statements <= budget.value(), () -> endpoint(handler) + " issued " + statements
+                + " SQL statements, over its budget of " + budget.value());
+        return statements;
+    }
+    
+    private int statements(MockHttpServletRequestBuilder request) throws Exception {
+        perform(request);
+        return RequestSqlStatistics.current().getStatements();
+    }
+    
+    private MvcResult perform(MockHttpServletRequestBuilder request) throws Exception {
+        entityManagerFactory.getCache().evictAll();
+        departmentService.invalidateCache();
+        employeeService.markDataChanged();
+        MvcResult result = mockMvc.perform(request.session(session)).andReturn();
+        int status = result.getResponse().getStatus();
+        assertTrue(status < 400, () -> result.getRequest().getRequestURI() + " returned " + status);
+        exercised.add(((HandlerMethod) result.getHandler()).getMethod());
+        return result;
+    }
+    
+    private Employee newEmployee(Department department) {
+        return employeeService.saveEmployee(new Employee("Employee " + nextContact, department, "Engineer",
+                String.valueOf(9_100_000_000L + nextContact++)));
+    }
+    
+    // Ids of newly created employees, so every bulk request moves or deletes rows that exist
+    private String[] ids(int count) {
+        String[] ids = new String[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = newEmployee(engineering).getEmpId().toString();
+        }
+        return ids;
+    }
+    
+    private MockMultipartFile csv(int rows) {
+        StringBuilder csv = new StringBuilder("name,department,designation,contact\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append("Imported ").append(i).append(",Sales,Analyst,").append(9_200_000_000L + nextContact++).append('\n');
+        }
+        return new MockMultipartFile("file", "employees.csv", "text/csv", csv.toString().getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static String endpoint(HandlerMethod handler) {
+        return handler.getBeanType().getSimpleName() + "." + handler.getMethod().getName();
+    }
+}
@@ -0,0 +1,36 @@
+package com.ems.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * One address spraying passwords across accounts must run out of attempts
+ * as surely as one hammering a single account, without touching others.
+ */
+class LoginRateLimiterTest {
+    
+    // Refills are far too slow to matter within a test
+    private final LoginRateLimiter limiter = new LoginRateLimiter(5, 1, 20, 1);
+    
+    @Test
+    void limitsOneAccountFromOneAddress() {
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquire(" Admin ", "10.0.0.1"));
+        }
+        assertFalse(limiter.tryAcquire("admin", "10.0.0.1"));
+        assertTrue(limiter.tryAcquire("admin", "10.0.0.2"));
+        assertTrue(limiter.tryAcquire("alice", "10.0.0.1"));
+    }
+    
+    @Test
+    void limitsOneAddressAcrossAccounts() {
+        for (int i = 0; i < 20; i++) {
+            assertTrue(limiter.tryAcquire("user" + i, "10.0.0.1"));
+        }
+        assertFalse(limiter.tryAcquire("user20", "10.0.0.1"));
+        assertFalse(limiter.tryAcquire("user0", "10.0.0.1"));
+        assertTrue(limiter.tryAcquire("user20", "10.0.0.2"));
+    }
+}
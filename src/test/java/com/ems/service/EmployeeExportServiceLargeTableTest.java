@@ -0,0 +1,130 @@
+package com.ems.service;
+
+import com.ems.service.EmployeeExportService.ExportFormat;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Exports 1M employees with the heap capped at 64 MB by the small-heap
+ * execution in the pom. The table lives in a file database, so nothing but the
+ * export itself could grow with the row count; an export that kept rows in the
+ * persistence context or buffered its output would end in an OutOfMemoryError.
+ */
+@Tag("small-heap")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.com.ems=INFO",
+        "logging.level.org.hibernate.SQL=WARN"})
+class EmployeeExportServiceLargeTableTest {
+    
+    private static final int EMPLOYEES = 1_000_000;
+    private static final int SEED_BATCH_SIZE = 5_000;
+    private static final long MAX_HEAP_BYTES = 64L * 1024 * 1024;
+    private static final Path DATA_DIR = Path.of("target", "small-heap-export");
+    
+    @Autowired
+    private JdbcTemplate jdbc;
+    
+    @Autowired
+    private EmployeeExportService exportService;
+    
+    // A fresh file database per run; the indexes are rebuilt at startup, so a table
+    // left over from an earlier run would not fit in the capped heap
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) throws IOException {
+        FileSystemUtils.deleteRecursively(DATA_DIR);
+        Files.createDirectories(DATA_DIR);
+        registry.add("spring.datasource.url",
+                () -> "jdbc:h2:file:" + DATA_DIR.toAbsolutePath().resolve("ems_db") + ";CACHE_SIZE=8192");
+    }
+    
+    @BeforeAll
+    void seed() {
+        assertTrue(Runtime.getRuntime().maxMemory() <= MAX_HEAP_BYTES,
+                "Run through the small-heap test execution (-Xmx64m), not with the default heap");
+        jdbc.update("INSERT INTO departments (dept_name) VALUES (?)", "Engineering");
+        Long deptId = jdbc.queryForObject("SELECT dept_id FROM departments WHERE dept_name = 'Engineering'", Long.class);
+        List<Object[]> batch = new ArrayList<>(SEED_BATCH_SIZE);
+        for (int i = 1; i <= EMPLOYEES; i++) {
+            // The first employee's name is one a spreadsheet would run as a formula
+            String name = i == 1 ? "=HYPERLINK(\"x\")" : "Employee " + i;
+            batch.add(new Object[] {(long) i, name, deptId, "Engineer", String.valueOf(9_000_000_000L + i)});
+            if (batch.size() == SEED_BATCH_SIZE) {
+                jdbc.batchUpdate("INSERT INTO employees (emp_id, name, dept_id, designation, contact) VALUES (?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+    }
+    
+    @Test
+    void streamsEveryRowAsCsv() throws IOException {
+        LineCountingWriter csv = new LineCountingWriter();
+        
+        assertEquals(EMPLOYEES, exportService.export(null, null, null, ExportFormat.CSV, csv));
+        assertEquals(EMPLOYEES + 1, csv.lines);
+        assertEquals("1,\"'=HYPERLINK(\"\"x\"\")\",Engineering,Engineer,9000000001", csv.firstRow);
+        assertEquals(EMPLOYEES + ",Employee " + EMPLOYEES + ",Engineering,Engineer," + (9_000_000_000L + EMPLOYEES), csv.lastRow);
+    }
+    
+    @Test
+    void streamsEveryRowAsJsonLines() throws IOException {
+        LineCountingWriter jsonl = new LineCountingWriter();
+        
+        assertEquals(EMPLOYEES, exportService.export(null, null, null, ExportFormat.JSONL, jsonl));
+        assertEquals(EMPLOYEES, jsonl.lines);
+        assertEquals("{\"empId\":" + EMPLOYEES + ",\"name\":\"Employee " + EMPLOYEES + "\",\"department\":\"Engineering\","
+                + "\"designation\":\"Engineer\",\"contact\":\"" + (9_000_000_000L + EMPLOYEES) + "\"}", jsonl.lastRow);
+    }
+    
+    // Keeps only the line count, the first data row after a CSV header and the last row
+    private static final class LineCountingWriter extends Writer {
+        
+        private final StringBuilder current = new StringBuilder();
+        private long lines;
+        private String firstRow;
+        private String lastRow;
+        
+        @Override
+        public void write(char[] chars, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                if (chars[i] != '\n') {
+                    current.append(chars[i]);
+                    continue;
+                }
+                lines++;
+                if (lines == 2) {
+                    firstRow = current.toString();
+                }
+                lastRow = current.toString();
+                current.setLength(0);
+            }
+        }
+        
+        @Override
+        public void flush() {
+        }
+        
+        @Override
+        public void close() {
+        }
+    }
+}
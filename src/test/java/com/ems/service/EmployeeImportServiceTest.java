@@ -0,0 +1,98 @@
+package com.ems.service;
+
+import com.ems.dto.ImportReport;
+import com.ems.dto.ImportReport.RowError;
+import com.ems.model.Department;
+import com.ems.repository.EmployeeRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * CSV import edge cases that decide what the report tells the user: a record
+ * the reader cannot parse after earlier batches committed, and line endings
+ * other than LF.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:import_test",
+        "ems.import.batch-size=2",
+        "spring.jpa.show-sql=false",
+        "logging.level.com.ems=INFO",
+        "logging.level.org.hibernate.SQL=WARN"})
+class EmployeeImportServiceTest {
+    
+    private static final String HEADER = "name,department,designation,contact";
+    
+    @Autowired
+    private EmployeeImportService importService;
+    
+    @Autowired
+    private DepartmentService departmentService;
+    
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    
+    @BeforeAll
+    void department() {
+        departmentService.saveDepartment(new Department("Engineering"));
+    }
+    
+    @BeforeEach
+    void emptyTable() {
+        employeeRepository.deleteAllInBatch();
+    }
+    
+    @Test
+    void unterminatedQuoteEndsTheImportAsARowError() throws IOException {
+        ImportReport report = importCsv(HEADER + "\n"
+                + "Ann Lee,Engineering,Engineer,9000000001\n"
+                + "Bob Ray,Engineering,Engineer,9000000002\n"
+                + "Cy Orr,Engineering,Engineer,9000000003\n"
+                + "\"Dee Fox,Engineering,Engineer,9000000004\n"
+                + "Eve Poe,Engineering,Engineer,9000000005\n");
+        
+        // The first batch of two committed before the bad record, the third row is written after it
+        assertEquals(3, report.getImported());
+        assertEquals(3, employeeRepository.count());
+        assertEquals(4, report.getRowsRead());
+        assertEquals(1, report.getFailed());
+        RowError error = report.getErrors().get(0);
+        assertEquals(5, error.getLine());
+        assertEquals("Unterminated quoted field; nothing after this line was imported", error.getMessage());
+    }
+    
+    @Test
+    void countsLinesForEveryLineEnding() throws IOException {
+        for (String ending : List.of("\n", "\r\n", "\r")) {
+            emptyTable();
+            ImportReport report = importCsv(String.join(ending, HEADER,
+                    "Ann Lee,Engineering,Engineer,9000000001",
+                    "Bob Ray,Nowhere,Engineer,9000000002",
+                    "\"Cy" + ending + "Orr\",Engineering,Engineer,9000000003",
+                    "Dee Fox,Engineering,Engineer,123") + ending);
+            
+            assertEquals(2, report.getImported(), "imported with " + escape(ending));
+            assertEquals(List.of(3L, 6L), report.getErrors().stream().map(RowError::getLine).toList(),
+                    "error lines with " + escape(ending));
+        }
+    }
+    
+    private ImportReport importCsv(String csv) throws IOException {
+        return importService.importCsv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+    }
+    
+    private static String escape(String ending) {
+        return ending.replace("\r", "\\r").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,108 @@
+package com.ems.session;
+
+import com.ems.EmployeeManagementSystemApplication;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two instances started with the prod and cluster profiles on one file
+ * database, as the README describes. A session created by logging in on one
+ * must be accepted by the other, and logging out on either must end it on both.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ClusterSessionTest {
+    
+    private static final Path DATA_DIR = Path.of("target", "cluster-sessions");
+    private static final Pattern SESSION_COOKIE = Pattern.compile("EMS_SESSION=([^;]+)");
+    
+    // Cookies are passed by hand so each request goes to exactly the instance it names
+    private final HttpClient http = HttpClient.newHttpClient();
+    
+    private ConfigurableApplicationContext first;
+    private ConfigurableApplicationContext second;
+    
+    @BeforeAll
+    void startInstances() throws IOException {
+        FileSystemUtils.deleteRecursively(DATA_DIR);
+        Files.createDirectories(DATA_DIR);
+        first = start();
+        second = start();
+    }
+    
+    @AfterAll
+    void stopInstances() {
+        if (second != null) {
+            second.close();
+        }
+        if (first != null) {
+            first.close();
+        }
+    }
+    
+    @Test
+    void loginOnOneInstanceIsAcceptedByTheOther() throws Exception {
+        String session = login(first);
+        
+        assertEquals(200, get(second, "/dashboard", session).statusCode());
+        assertEquals(200, get(first, "/dashboard", session).statusCode());
+        
+        get(second, "/logout", session);
+        HttpResponse<String> afterLogout = get(first, "/dashboard", session);
+        assertEquals(302, afterLogout.statusCode());
+        assertTrue(afterLogout.headers().firstValue("Location").orElse("").endsWith("/login"));
+    }
+    
+    private String login(ConfigurableApplicationContext instance) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri(instance, "/login"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString("username=admin&password=admin123"))
+                .build();
+        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(302, response.statusCode());
+        assertTrue(response.headers().firstValue("Location").orElse("").contains("/dashboard"), "Login was refused");
+        String setCookie = String.join("\n", response.headers().allValues("Set-Cookie"));
+        Matcher cookie = SESSION_COOKIE.matcher(setCookie);
+        assertTrue(cookie.find(), "No session cookie in " + setCookie);
+        return cookie.group(1);
+    }
+    
+    private HttpResponse<String> get(ConfigurableApplicationContext instance, String path, String session)
+            throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri(instance, path))
+                .header("Cookie", "EMS_SESSION=" + session)
+                .GET()
+                .build();
+        return http.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+    
+    private static URI uri(ConfigurableApplicationContext instance, String path) {
+        return URI.create("http://localhost:" + instance.getEnvironment().getProperty("local.server.port") + path);
+    }
+    
+    private static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(EmployeeManagementSystemApplication.class)
+                .profiles("prod", "cluster")
+                // As arguments, since they must win over the profiles' own properties
+                .run("--ems.data-dir=" + DATA_DIR.toAbsolutePath(),
+                        "--server.port=0",
+                        "--logging.level.org.hibernate.SQL=WARN");
+    }
+}
@@ -0,0 +1,67 @@
+package com.ems.session;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Two requests on one session load it, change different attributes and save
+ * in turn. The second save must keep what the first wrote; only an attribute
+ * both changed goes to the last writer.
+ */
+class JdbcSessionRepositoryTest {
+    
+    private final JdbcSessionRepository repository = new JdbcSessionRepository(
+            new DriverManagerDataSource("jdbc:h2:mem:session_repository_test;DB_CLOSE_DELAY=-1", "sa", ""), 60_000, 500);
+    private String id;
+    
+    @BeforeEach
+    void storeSession() {
+        repository.start();
+        SessionRecord session = new SessionRecord("session-1", System.currentTimeMillis(), 1800);
+        session.setAttribute("username", "admin");
+        session.setAttribute("filter", "Engineering");
+        repository.save(session);
+        id = session.getId();
+    }
+    
+    @AfterEach
+    void deleteSession() {
+        repository.stop();
+        repository.delete(id);
+    }
+    
+    @Test
+    void concurrentRequestsKeepEachOthersAttributes() {
+        SessionRecord first = repository.find(id);
+        SessionRecord second = repository.find(id);
+        
+        first.setAttribute("theme", "dark");
+        first.setAttribute("page", 2L);
+        second.setAttribute("page", 3L);
+        second.removeAttribute("filter");
+        repository.save(first);
+        repository.save(second);
+        
+        assertEquals(Map.of("username", "admin", "theme", "dark", "page", 3L), repository.find(id).getAttributes());
+        assertEquals(1L, repository.getStats().get("conflicts"));
+        assertEquals(2L, repository.find(id).getVersion());
+    }
+    
+    @Test
+    void sessionLoggedOutElsewhereIsNotBroughtBack() {
+        SessionRecord session = repository.find(id);
+        repository.delete(id);
+        
+        session.setAttribute("theme", "dark");
+        repository.save(session);
+        
+        assertNull(repository.find(id));
+    }
+}